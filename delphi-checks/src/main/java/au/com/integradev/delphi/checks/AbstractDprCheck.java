@@ -21,8 +21,10 @@ package au.com.integradev.delphi.checks;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 
 /** Rule type which only applies to program files */
+@ManualTraversal
 public abstract class AbstractDprCheck extends DelphiCheck {
   @Override
   public DelphiCheckContext visit(DelphiAst ast, DelphiCheckContext context) {
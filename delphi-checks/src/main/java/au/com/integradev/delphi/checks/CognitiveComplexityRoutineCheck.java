@@ -18,11 +18,10 @@
  */
 package au.com.integradev.delphi.checks;
 
-import au.com.integradev.delphi.antlr.ast.visitors.CognitiveComplexityVisitor;
-import au.com.integradev.delphi.antlr.ast.visitors.CognitiveComplexityVisitor.Data;
+import au.com.integradev.delphi.antlr.ast.DelphiAstImpl;
+import au.com.integradev.delphi.antlr.ast.visitors.MetricsVisitor.RoutineComplexity;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.plugins.communitydelphi.api.ast.RoutineBodyNode;
 import org.sonar.plugins.communitydelphi.api.ast.RoutineImplementationNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
@@ -34,15 +33,6 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 public class CognitiveComplexityRoutineCheck extends DelphiCheck {
   private static final int DEFAULT_MAX = 15;
 
-  private static final CognitiveComplexityVisitor COGNITIVE_VISITOR =
-      new CognitiveComplexityVisitor() {
-        @Override
-        public Data visit(RoutineBodyNode body, Data data) {
-          // Skip the block declaration section so that we don't count sub-procedures.
-          return body.getBlock().accept(this, data);
-        }
-      };
-
   @RuleProperty(
       key = "threshold",
       description = "The maximum authorized complexity.",
@@ -51,7 +41,9 @@ public class CognitiveComplexityRoutineCheck extends DelphiCheck {
 
   @Override
   public DelphiCheckContext visit(RoutineImplementationNode routine, DelphiCheckContext context) {
-    int complexity = COGNITIVE_VISITOR.visit(routine, new Data()).getComplexity();
+    RoutineComplexity routineComplexity =
+        ((DelphiAstImpl) routine.getAst()).getMetrics().getRoutineComplexity(routine);
+    int complexity = routineComplexity == null ? 0 : routineComplexity.getCognitiveComplexity();
 
     if (complexity > threshold) {
       reportIssue(
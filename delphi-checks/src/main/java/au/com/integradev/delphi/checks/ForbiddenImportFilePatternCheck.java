@@ -27,6 +27,7 @@ import org.sonar.plugins.communitydelphi.api.ast.UnitImportNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
 import org.sonar.plugins.communitydelphi.api.check.IllegalRuleParameterError;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.RuleTemplate;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclaration;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -34,6 +35,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @RuleTemplate
 @DeprecatedRuleKey(ruleKey = "ForbiddenImportFilePatternRule", repositoryKey = "delph")
 @Rule(key = "ForbiddenImportFilePattern")
+@ManualTraversal
 public class ForbiddenImportFilePatternCheck extends DelphiCheck {
   private static final String DEFAULT_MESSAGE = "Remove usage of this forbidden unit.";
   private static final String DEFAULT_SYNTAX = "GLOB";
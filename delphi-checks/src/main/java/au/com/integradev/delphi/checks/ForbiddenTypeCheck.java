@@ -27,6 +27,7 @@ import org.sonar.plugins.communitydelphi.api.ast.NameReferenceNode;
 import org.sonar.plugins.communitydelphi.api.ast.RoutineNameNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.RuleTemplate;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.NameDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.TypeNameDeclaration;
@@ -35,6 +36,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @RuleTemplate
 @DeprecatedRuleKey(ruleKey = "ForbiddenTypeRule", repositoryKey = "delph")
 @Rule(key = "ForbiddenType")
+@ManualTraversal
 public class ForbiddenTypeCheck extends DelphiCheck {
   private static final String DEFAULT_MESSAGE = "Remove usage of this forbidden type.";
 
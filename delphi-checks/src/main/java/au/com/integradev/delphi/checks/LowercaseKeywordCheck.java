@@ -29,14 +29,15 @@ import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
 import org.sonar.plugins.communitydelphi.api.check.FilePosition;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
+import org.sonar.plugins.communitydelphi.api.reporting.QuickFix;
+import org.sonar.plugins.communitydelphi.api.reporting.QuickFixEdit;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "LowerCaseReservedWordsRule", repositoryKey = "delph")
 @Rule(key = "LowercaseKeyword")
+@ManualTraversal
 public class LowercaseKeywordCheck extends DelphiCheck {
-  private static final String MESSAGE = "Lowercase this keyword (found: \"%s\" expected: \"%s\").";
-  private static final String QUICK_FIX_MESSAGE = "Correct to \"%s\"";
-
   @RuleProperty(
       key = "excludedKeywords",
       description = "Comma-delimited list of keywords that this rule ignores (case-insensitive).")
@@ -62,10 +63,10 @@ public class LowercaseKeywordCheck extends DelphiCheck {
       context
           .newIssue()
           .onFilePosition(issuePosition)
-          .withMessage(MESSAGE, expected)
-            .withQuickFixes(
-                QuickFix.newFix(QUICK_FIX_MESSAGE, expected)
-                    .withEdit(QuickFixEdit.replace(issuePosition, expected)))
+          .withMessage("Lowercase this keyword (found: \"%s\" expected: \"%s\").", actual, expected)
+          .withQuickFixes(
+              QuickFix.newFix("Correct to \"%s\"", expected)
+                  .withEdit(QuickFixEdit.replace(issuePosition, expected)))
           .report();
     }
     return super.visit(node, context);
@@ -28,6 +28,7 @@ import org.sonar.plugins.communitydelphi.api.ast.NameReferenceNode;
 import org.sonar.plugins.communitydelphi.api.ast.Node;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.NameDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.TypedDeclaration;
 import org.sonar.plugins.communitydelphi.api.type.IntrinsicType;
@@ -38,6 +39,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "PlatformDependentTruncationRule", repositoryKey = "delph")
 @Rule(key = "PlatformDependentTruncation")
+@ManualTraversal
 public class PlatformDependentTruncationCheck extends DelphiCheck {
   private static final String MESSAGE =
       "This integer value may or may not be truncated depending on the target platform.";
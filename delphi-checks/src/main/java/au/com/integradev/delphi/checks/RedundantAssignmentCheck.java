@@ -22,10 +22,12 @@ import org.sonar.check.Rule;
 import org.sonar.plugins.communitydelphi.api.ast.AssignmentStatementNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "RedundantAssignmentRule", repositoryKey = "delph")
 @Rule(key = "RedundantAssignment")
+@ManualTraversal
 public class RedundantAssignmentCheck extends DelphiCheck {
   private static final String MESSAGE = "Remove this redundant assignment.";
 
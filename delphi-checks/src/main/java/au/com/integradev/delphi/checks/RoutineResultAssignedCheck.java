@@ -45,6 +45,7 @@ import org.sonar.plugins.communitydelphi.api.ast.StatementNode;
 import org.sonar.plugins.communitydelphi.api.ast.UnaryExpressionNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.operator.UnaryOperator;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.NameDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.RoutineNameDeclaration;
@@ -55,6 +56,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @DeprecatedRuleKey(ruleKey = "MethodResultAssignedRule", repositoryKey = "delph")
 @DeprecatedRuleKey(ruleKey = "MethodResultAssigned", repositoryKey = "community-delphi")
 @Rule(key = "RoutineResultAssigned")
+@ManualTraversal
 public class RoutineResultAssignedCheck extends DelphiCheck {
   private static final String MESSAGE = "Assign this routine result.";
 
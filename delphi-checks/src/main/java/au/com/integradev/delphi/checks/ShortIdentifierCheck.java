@@ -28,10 +28,12 @@ import org.sonar.plugins.communitydelphi.api.ast.NameDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.ast.UnitImportNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "ShortIdentifiersRule", repositoryKey = "delph")
 @Rule(key = "ShortIdentifier")
+@ManualTraversal
 public class ShortIdentifierCheck extends DelphiCheck {
   private static final String MESSAGE = "Give this short identifier a more meaningful name.";
   private static final int DEFAULT_MINIMUM_LENGTH = 3;
@@ -24,11 +24,13 @@ import org.sonar.check.Rule;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.token.DelphiToken;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "TabulationCharactersRule", repositoryKey = "delph")
 @Rule(key = "TabulationCharacter")
+@ManualTraversal
 public class TabulationCharacterCheck extends DelphiCheck {
   private int tabCount;
 
@@ -23,11 +23,13 @@ import org.sonar.check.RuleProperty;
 import org.sonar.plugins.communitydelphi.api.ast.RoutineImplementationNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "TooManySubProceduresRule", repositoryKey = "delph")
 @DeprecatedRuleKey(ruleKey = "TooManySubroutines", repositoryKey = "community-delphi")
 @Rule(key = "TooManyNestedRoutines")
+@ManualTraversal
 public class TooManyNestedRoutinesCheck extends DelphiCheck {
   private static final int DEFAULT_MAXIMUM = 3;
 
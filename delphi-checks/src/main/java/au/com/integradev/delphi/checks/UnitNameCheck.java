@@ -28,10 +28,12 @@ import org.sonar.plugins.communitydelphi.api.ast.IdentifierNode;
 import org.sonar.plugins.communitydelphi.api.ast.UnitDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "UnitNameRule", repositoryKey = "delph")
 @Rule(key = "UnitName")
+@ManualTraversal
 public class UnitNameCheck extends DelphiCheck {
   private static final String MESSAGE = "Rename this unit to match the expected naming convention.";
 
@@ -26,12 +26,14 @@ import org.sonar.plugins.communitydelphi.api.ast.InterfaceSectionNode;
 import org.sonar.plugins.communitydelphi.api.ast.NameDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.SonarLintUnsupported;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @SonarLintUnsupported
 @DeprecatedRuleKey(ruleKey = "UnusedConstantsRule", repositoryKey = "delph")
 @Rule(key = "UnusedConstant")
+@ManualTraversal
 public class UnusedConstantCheck extends DelphiCheck {
   private static final String MESSAGE = "Remove this unused constant.";
   private static final boolean EXCLUDE_API_DEFAULT = false;
@@ -25,12 +25,14 @@ import org.sonar.plugins.communitydelphi.api.ast.FieldDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.ast.InterfaceSectionNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.SonarLintUnsupported;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @SonarLintUnsupported
 @DeprecatedRuleKey(ruleKey = "UnusedFieldsRule", repositoryKey = "delph")
 @Rule(key = "UnusedField")
+@ManualTraversal
 public class UnusedFieldCheck extends DelphiCheck {
   private static final String MESSAGE = "Remove this unused field.";
   private static final boolean EXCLUDE_API_DEFAULT = false;
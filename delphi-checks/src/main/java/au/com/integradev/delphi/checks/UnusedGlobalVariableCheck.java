@@ -26,6 +26,7 @@ import org.sonar.plugins.communitydelphi.api.ast.InterfaceSectionNode;
 import org.sonar.plugins.communitydelphi.api.ast.VarDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.SonarLintUnsupported;
 import org.sonar.plugins.communitydelphi.api.symbol.scope.FileScope;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -33,6 +34,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @SonarLintUnsupported
 @DeprecatedRuleKey(ruleKey = "UnusedGlobalVariablesRule", repositoryKey = "delph")
 @Rule(key = "UnusedGlobalVariable")
+@ManualTraversal
 public class UnusedGlobalVariableCheck extends DelphiCheck {
   private static final String MESSAGE = "Remove this unused global variable.";
   private static final boolean EXCLUDE_API_DEFAULT = false;
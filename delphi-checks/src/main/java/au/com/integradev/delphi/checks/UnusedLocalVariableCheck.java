@@ -34,11 +34,13 @@ import org.sonar.plugins.communitydelphi.api.ast.VarDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.ast.VarStatementNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.symbol.NameOccurrence;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "UnusedLocalVariablesRule", repositoryKey = "delph")
 @Rule(key = "UnusedLocalVariable")
+@ManualTraversal
 public class UnusedLocalVariableCheck extends DelphiCheck {
   private static final String MESSAGE = "Remove this unused local variable.";
 
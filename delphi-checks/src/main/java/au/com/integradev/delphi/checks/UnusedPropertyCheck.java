@@ -24,6 +24,7 @@ import org.sonar.plugins.communitydelphi.api.ast.NameDeclarationNode;
 import org.sonar.plugins.communitydelphi.api.ast.PropertyNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.SonarLintUnsupported;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.PropertyNameDeclaration;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -31,6 +32,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @SonarLintUnsupported
 @DeprecatedRuleKey(ruleKey = "UnusedPropertiesRule", repositoryKey = "delph")
 @Rule(key = "UnusedProperty")
+@ManualTraversal
 public class UnusedPropertyCheck extends DelphiCheck {
   private static final String MESSAGE = "Remove this unused property.";
   private static final boolean EXCLUDE_API_DEFAULT = false;
@@ -1,8 +1,10 @@
 grammar Delphi;
 
+// Backtracking isn't enabled for the whole grammar. Ambiguous decisions are resolved by explicit
+// syntactic predicates, which are only evaluated where LL(*) lookahead can't pick an alternative.
 options {
-  backtrack=true;
   memoize=true;
+  superClass=AbstractDelphiParser;
   output=AST;
 }
 
@@ -122,6 +124,7 @@ import au.com.integradev.delphi.antlr.ast.node.*;
 
 package au.com.integradev.delphi.antlr;
 
+import au.com.integradev.delphi.antlr.ast.token.DelphiCommonToken;
 }
 
 @lexer::members {
@@ -134,6 +137,18 @@ package au.com.integradev.delphi.antlr;
     this.shouldSkipImplementation = shouldSkipImplementation;
   }
 
+  @Override
+  public Token emit() {
+    Token t =
+        new DelphiCommonToken(
+            input, state.type, state.channel, state.tokenStartCharIndex, getCharIndex() - 1);
+    t.setLine(state.tokenStartLine);
+    t.setText(state.text);
+    t.setCharPositionInLine(state.tokenStartCharPositionInLine);
+    emit(t);
+    return t;
+  }
+
   @Override
   public void reportError(RecognitionException e) {
     String hdr = this.getErrorHeader(e);
@@ -447,7 +462,7 @@ declSection                  : labelDeclSection
                              | constSection
                              | typeSection
                              | varSection
-                             | routineImplementation
+                             | (routineImplementation)=> routineImplementation
                              | exportsSection
                              | attributeList
                              ;
@@ -455,12 +470,12 @@ interfaceDecl                : constSection
                              | typeSection
                              | varSection
                              | exportsSection
-                             | routineInterface
+                             | (routineInterface)=> routineInterface
                              | attributeList
                              ;
 labelDeclSection             : LABEL<LabelDeclarationNodeImpl>^ labelNameDeclaration (',' labelNameDeclaration)* ';'
                              ;
-constSection                 : (CONST<ConstSectionNodeImpl>^ | RESOURCESTRING<ConstSectionNodeImpl>^) constDeclaration*
+constSection                 : (CONST<ConstSectionNodeImpl>^ | RESOURCESTRING<ConstSectionNodeImpl>^) ((constDeclaration)=> constDeclaration)*
                              // constSection was changed at some point from "constDeclaration+" to "constDeclaration*" to cater to invalid includes
                              // example: "const {$include versioninfo.inc}"
                              // Is this really the appropriate solution?
@@ -468,16 +483,16 @@ constSection                 : (CONST<ConstSectionNodeImpl>^ | RESOURCESTRING<Co
 constDeclaration             : attributeList? nameDeclaration (':' varType)? '=' constExpression portabilityDirective* ';'
                              -> ^(TkConstDeclaration<ConstDeclarationNodeImpl> nameDeclaration constExpression varType? attributeList? portabilityDirective*)
                              ;
-typeSection                  : TYPE<TypeSectionNodeImpl>^ typeDeclaration+
+typeSection                  : TYPE<TypeSectionNodeImpl>^ ((typeDeclaration)=> typeDeclaration)+
                              ;
-innerTypeSection             : TYPE<TypeSectionNodeImpl>^ typeDeclaration*
+innerTypeSection             : TYPE<TypeSectionNodeImpl>^ ((typeDeclaration)=> typeDeclaration)*
                              ;
 typeDeclaration              : attributeList? genericNameDeclaration '=' typeDecl portabilityDirective* ';'
                              -> ^(TkTypeDeclaration<TypeDeclarationNodeImpl> genericNameDeclaration typeDecl attributeList? portabilityDirective*)
                              ;
-varSection                   : (VAR<VarSectionNodeImpl>^ | THREADVAR<VarSectionNodeImpl>^) varDeclaration varDeclaration*
+varSection                   : (VAR<VarSectionNodeImpl>^ | THREADVAR<VarSectionNodeImpl>^) varDeclaration ((varDeclaration)=> varDeclaration)*
                              ;
-varDeclaration               : attributeList? nameDeclarationList ':' varType portabilityDirective* varValueSpec? portabilityDirective* ';'
+varDeclaration               : attributeList? nameDeclarationList ':' varType ((portabilityDirective)=> portabilityDirective)* varValueSpec? portabilityDirective* ';'
                              -> ^(TkVarDeclaration<VarDeclarationNodeImpl> nameDeclarationList varType varValueSpec? attributeList?)
                              ;
 varValueSpec                 : ABSOLUTE constExpression
@@ -493,19 +508,19 @@ exportItem                   : ('(' formalParameterList ')')? (INDEX expression)
 //----------------------------------------------------------------------------
 typeDecl                     : arrayType
                              | setType
-                             | fileType
-                             | classHelperType
-                             | classReferenceType
+                             | (fileType)=> fileType
+                             | (classHelperType)=> classHelperType
+                             | (classReferenceType)=> classReferenceType
                              | classType
                              | interfaceType
                              | objectType
-                             | recordType
+                             | (recordType)=> recordType
                              | recordHelperType
                              | pointerType
-                             | stringType
-                             | procedureType
-                             | subRangeType
-                             | typeOfType
+                             | (stringType)=> stringType
+                             | (procedureType)=> procedureType
+                             | (subRangeType)=> subRangeType
+                             | (typeOfType)=> typeOfType
                              | strongAliasType
                              | weakAliasType
                              | enumType
@@ -513,17 +528,17 @@ typeDecl                     : arrayType
                              ;
 varType                      : arrayType
                              | setType
-                             | fileType
+                             | (fileType)=> fileType
                              | recordType
-                             | pointerType
-                             | procedureType
-                             | subRangeType
+                             | (pointerType)=> pointerType
+                             | (procedureType)=> procedureType
+                             | (subRangeType)=> subRangeType
                              | typeReference
                              | enumType
                              | PACKED varType^
                              ;
-parameterType                : stringType
-                             | fileType
+parameterType                : (stringType)=> stringType
+                             | (fileType)=> fileType
                              | arrayType
                              | typeReference
                              | PACKED parameterType^
@@ -549,20 +564,20 @@ fileType                     : FILE<FileTypeNodeImpl>^ (OF varType)?
                              ;
 pointerType                  : '^'<PointerTypeNodeImpl>^ varType
                              ;
-stringType                   : STRING<StringTypeNodeImpl>^ (lbrack! expression rbrack!)?
+stringType                   : STRING<StringTypeNodeImpl>^ ((lbrack expression rbrack)=> lbrack! expression rbrack!)?
                              ;
-procedureType                : procedureOfObject
+procedureType                : (procedureOfObject)=> procedureOfObject
                              | procedureReference
                              | simpleProcedureType
                              ;
-procedureOfObject            : procedureTypeHeading OF OBJECT<ProcedureOfObjectTypeNodeImpl>^ ((';')? interfaceDirective)*
+procedureOfObject            : procedureTypeHeading OF OBJECT<ProcedureOfObjectTypeNodeImpl>^ ((';'? interfaceDirective)=> (';')? interfaceDirective)*
                              ;
 procedureReference           : REFERENCE<ProcedureReferenceTypeNodeImpl>^ TO! procedureTypeHeading
                              ;
 simpleProcedureType          : procedureTypeHeading -> ^(TkProcedureType<ProcedureTypeNodeImpl> procedureTypeHeading)
                              ;
-procedureTypeHeading         : FUNCTION<ProcedureTypeHeadingNodeImpl>^ routineParameters? routineReturnType? ((';')? interfaceDirective)*
-                             | PROCEDURE<ProcedureTypeHeadingNodeImpl>^ routineParameters? ((';')? interfaceDirective)*
+procedureTypeHeading         : FUNCTION<ProcedureTypeHeadingNodeImpl>^ ((routineParameters)=> routineParameters)? routineReturnType? ((';'? interfaceDirective)=> (';')? interfaceDirective)*
+                             | PROCEDURE<ProcedureTypeHeadingNodeImpl>^ ((routineParameters)=> routineParameters)? ((';'? interfaceDirective)=> (';')? interfaceDirective)*
                              ;
 typeOfType                   : TYPE<TypeOfTypeNodeImpl>^ OF typeDecl
                              ;
@@ -599,11 +614,11 @@ classParent                  : '(' typeReference (',' typeReference)* ')'
                              ;
 visibilitySection            : visibilitySection_ -> ^(TkVisibilitySection<VisibilitySectionNodeImpl> visibilitySection_)
                              ;
-visibilitySection_           : visibility visibilitySectionItem*
-                             | visibilitySectionItem+
+visibilitySection_           : visibility ((visibilitySectionItem)=> visibilitySectionItem)*
+                             | ((visibilitySectionItem)=> visibilitySectionItem)+
                              ;
-visibilitySectionItem        : fieldSection
-                             | routineInterface
+visibilitySectionItem        : (fieldSection)=> fieldSection
+                             | (routineInterface)=> routineInterface
                              | methodResolutionClause
                              | property
                              | constSection
@@ -612,26 +627,26 @@ visibilitySectionItem        : fieldSection
 fieldSectionKey              : VAR
                              | THREADVAR
                              ;
-fieldSection                 : CLASS? fieldSectionKey fieldDecl* -> ^(TkFieldSection<FieldSectionNodeImpl> CLASS? fieldSectionKey fieldDecl*)
-                             | fieldDecl+ -> ^(TkFieldSection<FieldSectionNodeImpl> fieldDecl+)
+fieldSection                 : CLASS? fieldSectionKey ((fieldDecl)=> fieldDecl)* -> ^(TkFieldSection<FieldSectionNodeImpl> CLASS? fieldSectionKey fieldDecl*)
+                             | ((fieldDecl)=> fieldDecl)+ -> ^(TkFieldSection<FieldSectionNodeImpl> fieldDecl+)
                              ;
 fieldDecl                    : attributeList? nameDeclarationList ':' varType portabilityDirective* ';'?
                              -> ^(TkFieldDeclaration<FieldDeclarationNodeImpl> nameDeclarationList varType portabilityDirective* attributeList? ';'?)
                              ;
 classHelperType              : CLASS<ClassHelperTypeNodeImpl>^ HELPER classParent? FOR typeReference visibilitySection* END
                              ;
-interfaceType                : (INTERFACE<InterfaceTypeNodeImpl>^ | DISPINTERFACE<InterfaceTypeNodeImpl>^) classParent? (interfaceGuid? interfaceItems? END)?
+interfaceType                : (INTERFACE<InterfaceTypeNodeImpl>^ | DISPINTERFACE<InterfaceTypeNodeImpl>^) classParent? (((interfaceGuid)=> interfaceGuid)? ((interfaceItems)=> interfaceItems)? END)?
                              ;
 interfaceGuid                : lbrack expression rbrack -> ^(TkGuid<InterfaceGuidNodeImpl> expression)
                              ;
 interfaceItems               : interfaceItem+ -> ^(TkVisibilitySection<VisibilitySectionNodeImpl> interfaceItem+)
                              ;
-interfaceItem                : routineInterface
+interfaceItem                : (routineInterface)=> routineInterface
                              | property
                              ;
 objectType                   : OBJECT<ObjectTypeNodeImpl>^ classParent? visibilitySection* END // Obselete, kept for backwards compatibility with Turbo Pascal
                              ;                                                                 // See: https://www.oreilly.com/library/view/delphi-in-a/1565926595/re192.html
-recordType                   : RECORD<RecordTypeNodeImpl>^ visibilitySection* recordVariantSection? END (ALIGN constExpression)?
+recordType                   : RECORD<RecordTypeNodeImpl>^ visibilitySection* recordVariantSection? END ((ALIGN constExpression)=> ALIGN constExpression)?
                              ;
 recordVariantSection         : CASE<RecordVariantSectionNodeImpl>^ recordVariantTag OF recordVariant+
                              ;
@@ -705,8 +720,8 @@ routineInterface             : routineInterfaceHeading
                                     routineInterfaceHeading
                                  )
                              ;
-routineImplementation        : fullRoutineImplementation
-                             | externalRoutine
+routineImplementation        : (fullRoutineImplementation)=> fullRoutineImplementation
+                             | (externalRoutine)=> externalRoutine
                              | forwardRoutine
                              ;
 fullRoutineImplementation    : routineImplementationHeading routineBody
@@ -785,7 +800,7 @@ routineKey                   : PROCEDURE
                              ;
 routineReturnType            : ':' attributeList? returnType -> ^(TkRoutineReturn<RoutineReturnTypeNodeImpl> returnType attributeList?)
                              ;
-returnType                   : stringType
+returnType                   : (stringType)=> stringType
                              | typeReference
                              ;
 routineParameters            : '(' formalParameterList? ')' -> ^(TkRoutineParameters<RoutineParametersNodeImpl> '(' formalParameterList? ')')
@@ -805,13 +820,13 @@ routineBody                  : block ';' -> ^(TkRoutineBody<RoutineBodyNodeImpl>
 //----------------------------------------------------------------------------
 // Attributes
 //----------------------------------------------------------------------------
-attributeList                : attributeGroup+
+attributeList                : ((attributeGroup)=> attributeGroup)+
                              -> ^(TkAttributeList<AttributeListNodeImpl> attributeGroup+)
                              ;
 attributeGroup               : lbrack (attribute ','?)+ rbrack
                              -> ^(TkAttributeGroup<AttributeGroupNodeImpl> attribute+)
                              ;
-attribute                    : (ASSEMBLY ':')? nameReference argumentList? (':' nameReference argumentList?)*
+attribute                    : ((ASSEMBLY ':')=> ASSEMBLY ':')? nameReference argumentList? (':' nameReference argumentList?)*
                              -> ^(TkAttribute<AttributeNodeImpl> ASSEMBLY? nameReference argumentList? (':' nameReference argumentList?)*)
                              ;
 
@@ -826,22 +841,22 @@ expression                   : relationalExpression
 // token range only contains the operator. resetBinaryExpressionTokens is needed
 // to reset the start and end tokens so that they must be recalculated
 // when retrieved (i.e., after their children have been correctly assigned).
-relationalExpression         : additiveExpression (relationalOperator^ additiveExpression)* { resetBinaryExpressionTokens(root_0); }
+relationalExpression         : additiveExpression ((relationalOperator additiveExpression)=> relationalOperator^ additiveExpression)* { resetBinaryExpressionTokens(root_0); }
                              ;
-additiveExpression           : multiplicativeExpression (addOperator^ multiplicativeExpression)* { resetBinaryExpressionTokens(root_0); }
+additiveExpression           : multiplicativeExpression ((addOperator multiplicativeExpression)=> addOperator^ multiplicativeExpression)* { resetBinaryExpressionTokens(root_0); }
                              ;
 multiplicativeExpression     : unaryExpression (multOperator^ unaryExpression)* { resetBinaryExpressionTokens(root_0); }
                              ;
 unaryExpression              : unaryOperator^ unaryExpression
                              | primaryExpression
                              ;
-primaryExpression            : atom -> ^(TkPrimaryExpression<PrimaryExpressionNodeImpl> atom)
+primaryExpression            : (atom)=> atom -> ^(TkPrimaryExpression<PrimaryExpressionNodeImpl> atom)
                              | parenthesizedExpression
-                             | INHERITED (nameReference? particleItem*)? -> ^(TkPrimaryExpression<PrimaryExpressionNodeImpl> INHERITED (nameReference? particleItem*)?)
+                             | INHERITED ((nameReference? particleItem*)=> ((nameReference)=> nameReference)? ((particleItem)=> particleItem)*)? -> ^(TkPrimaryExpression<PrimaryExpressionNodeImpl> INHERITED (nameReference? particleItem*)?)
                              ;
 parenthesizedExpression      : '(' expression ')' -> ^(TkNestedExpression<ParenthesizedExpressionNodeImpl> '(' expression ')')
                              ;
-atom                         : particle particleItem*
+atom                         : particle ((particleItem)=> particleItem)*
                              ;
 particle                     : intNum
                              | realNum
@@ -851,7 +866,7 @@ particle                     : intNum
                              | arrayConstructor
                              | STRING
                              | FILE
-                             | parenthesizedExpression particleItem+
+                             | parenthesizedExpression ((particleItem)=> particleItem)+
                              ; // parenthesizedExpressions are a special case.
                                // If they are followed by particleItems then we want to consider them as particles so a PrimaryExpressionNode is created to wrap it.
                                // Otherwise, we flatten it to a ParenthesizedExpressionNode.
@@ -868,7 +883,7 @@ argumentList                 : '('<ArgumentListNodeImpl>^ (argument (',' argumen
 argument                     : argumentName? argumentExpression
                              -> ^(TkArgument<ArgumentNodeImpl> argumentName? argumentExpression)
                              ;
-argumentName                 : ident ':='!
+argumentName                 : (ident ':=')=> ident ':='!
                              | keywords ':=' -> ^({changeTokenType(TkIdentifier, -2)})
                              ;
 argumentExpression           : expression writeArguments?
@@ -887,8 +902,8 @@ expressionOrRangeList        : (expressionOrRange (','!)?)+
 textLiteral                  : singleLineTextLiteral -> ^(TkTextLiteral<TextLiteralNodeImpl> singleLineTextLiteral)
                              | multilineTextLiteral -> ^(TkTextLiteral<TextLiteralNodeImpl> multilineTextLiteral)
                              ;
-singleLineTextLiteral        : TkQuotedString (escapedCharacter+ TkQuotedString)* escapedCharacter*
-                             | escapedCharacter+ (TkQuotedString escapedCharacter+)* TkQuotedString?
+singleLineTextLiteral        : TkQuotedString ((escapedCharacter+ TkQuotedString)=> escapedCharacter+ TkQuotedString)* ((escapedCharacter)=> escapedCharacter)*
+                             | ((escapedCharacter)=> escapedCharacter)+ ((TkQuotedString escapedCharacter)=> TkQuotedString ((escapedCharacter)=> escapedCharacter)+)* ((TkQuotedString)=> TkQuotedString)?
                              ;
 multilineTextLiteral         : TkMultilineString
                              ;
@@ -928,8 +943,8 @@ relationalOperator           : '='<BinaryExpressionNodeImpl>
                              | IN<BinaryExpressionNodeImpl>
                              | IS<BinaryExpressionNodeImpl>
                              ;
-constExpression              : expression
-                             | recordExpression
+constExpression              : (expression)=> expression
+                             | (recordExpression)=> recordExpression
                              | arrayExpression
                              ;
 recordExpression             : '('<RecordExpressionNodeImpl>^ (recordExpressionItem (';')?)+ ')'
@@ -955,12 +970,12 @@ statement                    : ifStatement
                              | raiseStatement
                              | assemblerStatement
                              | compoundStatement
-                             | labelStatement
-                             | assignmentStatement
+                             | (labelStatement)=> labelStatement
+                             | (assignmentStatement)=> assignmentStatement
                              | expressionStatement
                              | gotoStatement
                              ;
-ifStatement                  : IF<IfStatementNodeImpl>^ expression THEN statement? (ELSE statement?)?
+ifStatement                  : IF<IfStatementNodeImpl>^ expression THEN ((statement)=> statement)? ((ELSE)=> ELSE ((statement)=> statement)?)?
                              ;
 varStatement                 : VAR attributeList? nameDeclarationList (':' varType)? (':=' expression)?
                              -> ^(VAR<VarStatementNodeImpl> nameDeclarationList (':' varType)? (':=' expression)? attributeList?)
@@ -972,20 +987,20 @@ caseStatement                : CASE<CaseStatementNodeImpl>^ expression OF caseIt
                              ;
 elseBlock                    : ELSE<ElseBlockNodeImpl>^ statementList
                              ;
-caseItem                     : expressionOrRangeList ':' (statement)? (';')? -> ^(TkCaseItem<CaseItemStatementNodeImpl> expressionOrRangeList (statement)? (';')? )
+caseItem                     : expressionOrRangeList ':' ((statement)=> statement)? (';')? -> ^(TkCaseItem<CaseItemStatementNodeImpl> expressionOrRangeList (statement)? (';')? )
                              ;
 repeatStatement              : REPEAT<RepeatStatementNodeImpl>^ statementList UNTIL expression
                              ;
-whileStatement               : WHILE<WhileStatementNodeImpl>^ expression DO statement?
+whileStatement               : WHILE<WhileStatementNodeImpl>^ expression DO ((statement)=> statement)?
                              ;
-forStatement                 : FOR<ForToStatementNodeImpl>^ forVar ':=' expression TO expression DO statement?
-                             | FOR<ForToStatementNodeImpl>^ forVar ':=' expression DOWNTO expression DO statement?
-                             | FOR<ForInStatementNodeImpl>^ forVar IN expression DO statement?
+forStatement                 : (FOR forVar ':=' expression TO)=> FOR<ForToStatementNodeImpl>^ forVar ':=' expression TO expression DO ((statement)=> statement)?
+                             | (FOR forVar ':=' expression DOWNTO)=> FOR<ForToStatementNodeImpl>^ forVar ':=' expression DOWNTO expression DO ((statement)=> statement)?
+                             | FOR<ForInStatementNodeImpl>^ forVar IN expression DO ((statement)=> statement)?
                              ;
 forVar                       : VAR nameDeclaration (':' varType)? -> ^(TkForLoopVar<ForLoopVarDeclarationNodeImpl> nameDeclaration varType?)
                              | simpleNameReference -> ^(TkForLoopVar<ForLoopVarReferenceNodeImpl> simpleNameReference)
                              ;
-withStatement                : WITH<WithStatementNodeImpl>^ expressionList DO statement?
+withStatement                : WITH<WithStatementNodeImpl>^ expressionList DO ((statement)=> statement)?
                              ;
 compoundStatement            : BEGIN<CompoundStatementNodeImpl>^ statementList END
                              ;
@@ -993,7 +1008,7 @@ statementList                : delimitedStatements? -> ^(TkStatementList<Stateme
                              ;
 delimitedStatements          : (statement | ';')+
                              ;
-labelStatement               : {input.LA(2) == COLON}? => labelNameReference ':' statement?
+labelStatement               : {input.LA(2) == COLON}? => labelNameReference ':' ((statement)=> statement)?
                              -> ^(TkLabelStatement<LabelStatementNodeImpl> labelNameReference ':' statement?)
                              ;
 assignmentStatement          : expression ':='<AssignmentStatementNodeImpl>^ expression
@@ -1008,12 +1023,12 @@ exceptBlock                  : EXCEPT<ExceptBlockNodeImpl>^ handlerList
                              ;
 finallyBlock                 : FINALLY<FinallyBlockNodeImpl>^ statementList
                              ;
-handlerList                  : handler+ elseBlock?
+handlerList                  : (handler)=> handler+ elseBlock?
                              | statementList
                              ;
 handler                      : ON<ExceptItemNodeImpl>^ (nameDeclaration ':'!)? typeReference DO statement? (';')?
                              ;
-raiseStatement               : RAISE<RaiseStatementNodeImpl>^ expression? (AT! expression)?
+raiseStatement               : RAISE<RaiseStatementNodeImpl>^ ((expression)=> expression)? ((AT expression)=> AT! expression)?
                              ;
 assemblerStatement           : ASM<AsmStatementNodeImpl>^ assemblerInstructions END
                              ;
@@ -1023,16 +1038,16 @@ assemblerInstructions        : ~(END)* // Skip asm statements
 //----------------------------------------------------------------------------
 // Directives
 //----------------------------------------------------------------------------
-implDirectiveSection         : (';'? implDirective)* ';'
+implDirectiveSection         : ((';'? implDirective)* ';')=> (';'? implDirective)* ';'
                              | (';' implDirective)+
                              ;
-interfaceDirectiveSection    : (';'? interfaceDirective)* ';'
+interfaceDirectiveSection    : ((';'? interfaceDirective)* ';')=> (';'? interfaceDirective)* ';'
                              | (';' interfaceDirective)+
                              ;
-externalDirectiveSection      : (';'? implDirective)* ';'? externalDirective (';'? implDirective)*';'
+externalDirectiveSection      : ((';'? implDirective)* ';'? externalDirective (';'? implDirective)* ';')=> (';'? implDirective)* ';'? externalDirective (';'? implDirective)*';'
                              | (';' implDirective)* ';' externalDirective (';' implDirective)*
                              ;
-forwardDirectiveSection      : (';'? implDirective)* ';'? FORWARD (';'? implDirective)*';'
+forwardDirectiveSection      : ((';'? implDirective)* ';'? FORWARD (';'? implDirective)* ';')=> (';'? implDirective)* ';'? FORWARD (';'? implDirective)*';'
                              | (';' implDirective)* ';' FORWARD (';' implDirective)*
                              ;
 implDirective                : OVERLOAD
@@ -1075,12 +1090,12 @@ oldCallConventionDirective   : FAR // deprecated
                              | LOCAL // deprecated. Introduced in the Kylix Linux compiler, makes function non-exportable. (No effect in Windows)
                              | NEAR // deprecated
                              ;
-portabilityDirective         : DEPRECATED^ textLiteral?
+portabilityDirective         : DEPRECATED^ ((textLiteral)=> textLiteral)?
                              | EXPERIMENTAL
                              | PLATFORM
                              | LIBRARY
                              ;
-externalDirective            : EXTERNAL^ dllName? externalSpecifier*
+externalDirective            : EXTERNAL^ dllName? ((externalSpecifier)=> externalSpecifier)*
                              ;
 dllName                      : {!input.LT(1).getText().equals("name")}? expression
                              ;
@@ -1135,16 +1150,16 @@ specialOpNameDeclaration     : specialOperatorName
                              ;
 specialOperatorName          : IN -> ^({changeTokenType(TkIdentifier)})
                              ;
-nameReference                : ident genericArguments? ('.' extendedNameReference)?
+nameReference                : ident ((genericArguments)=> genericArguments)? (('.' extendedNameReference)=> '.' extendedNameReference)?
                              -> ^(TkNameReference<NameReferenceNodeImpl> ident genericArguments? ('.' extendedNameReference)?)
                              ;
 simpleNameReference          : ident
                              -> ^(TkNameReference<NameReferenceNodeImpl> ident)
                              ;
-extendedNameReference        : extendedIdent genericArguments? ('.' extendedNameReference)?
+extendedNameReference        : extendedIdent ((genericArguments)=> genericArguments)? (('.' extendedNameReference)=> '.' extendedNameReference)?
                              -> ^(TkNameReference<NameReferenceNodeImpl> extendedIdent genericArguments? ('.' extendedNameReference)?)
                              ;
-extendedIdent                : ident
+extendedIdent                : (ident)=> ident
                              | keywords -> ^({changeTokenType(TkIdentifier)})
                              ;
 labelIdent                   : ident
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
+import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 
@@ -42,12 +43,15 @@ public final class DelphiProperties {
   public static final String TEST_ATTRIBUTE_KEY = "sonar.delphi.testAttribute";
   public static final String NUNIT_REPORT_PATHS_PROPERTY = "sonar.delphi.nunit.reportPaths";
   public static final String COVERAGE_REPORT_KEY = "sonar.delphi.coverage.reportPaths";
+  public static final String RETAINED_FILES_KEY = "sonar.delphi.analysis.retainedFiles";
+  public static final String ANALYSIS_THREADS_KEY = "sonar.delphi.analysis.threads";
 
   private static final String DELPHI_CATEGORY = "Delphi";
   private static final String GENERAL_SUBCATEGORY = "General";
   private static final String TOOLCHAIN_SUBCATEGORY = "Toolchain";
   private static final String PROJECT_OPTIONS_SUBCATEGORY = "Project Options";
   private static final String TEST_SUBCATEGORY = "Test and Coverage";
+  private static final String ANALYSIS_SUBCATEGORY = "Analysis";
 
   public static final String EXCLUSIONS_DEFAULT_VALUE = "**/__history/**,**/__recovery/**";
   private static final String INSTALLATION_PATH_DEFAULT =
@@ -57,6 +61,8 @@ public final class DelphiProperties {
       CompilerVersion.fromVersionSymbol("VER350");
   private static final String TEST_TYPE_DEFAULT = "TestFramework.TTestCase";
   private static final String TEST_ATTRIBUTE_DEFAULT = "DUnitX.Attributes.TestFixtureAttribute";
+  public static final int RETAINED_FILES_DEFAULT = 0;
+  public static final int ANALYSIS_THREADS_DEFAULT = 1;
 
   private DelphiProperties() {
     // hide public constructor
@@ -202,6 +208,30 @@ public final class DelphiProperties {
                     + " Each path may be absolute or relative to the project base directory")
             .multiValues(true)
             .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(DelphiProperties.RETAINED_FILES_KEY)
+            .category(DELPHI_CATEGORY)
+            .subCategory(ANALYSIS_SUBCATEGORY)
+            .defaultValue(String.valueOf(RETAINED_FILES_DEFAULT))
+            .name("Retained files")
+            .description(
+                "Maximum number of source files whose parsed representation is retained after"
+                    + " symbol table construction and reused during analysis, rather than being"
+                    + " parsed a second time. Higher values trade memory for speed.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(DelphiProperties.ANALYSIS_THREADS_KEY)
+            .category(DELPHI_CATEGORY)
+            .subCategory(ANALYSIS_SUBCATEGORY)
+            .defaultValue(String.valueOf(ANALYSIS_THREADS_DEFAULT))
+            .name("Analysis threads")
+            .description(
+                "Number of threads used to parse files ahead of symbol table construction, and to"
+                    + " analyze source files concurrently once the symbol table has been"
+                    + " constructed.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
             .build());
   }
 }
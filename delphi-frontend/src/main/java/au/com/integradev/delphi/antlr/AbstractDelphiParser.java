@@ -0,0 +1,61 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr;
+
+import org.antlr.runtime.IntStream;
+import org.antlr.runtime.Parser;
+import org.antlr.runtime.RecognizerSharedState;
+import org.antlr.runtime.TokenStream;
+
+/**
+ * Base class of the generated {@link DelphiParser}.
+ *
+ * <p>Replaces the ANTLR runtime's rule memoization, which keeps a boxed {@code Map<Integer,
+ * Integer>} per rule, with a single {@link RuleMemoTable}. Memoization happens on every rule
+ * invocation while backtracking, so this is one of the largest allocation sources while parsing.
+ */
+public abstract class AbstractDelphiParser extends Parser {
+  private final RuleMemoTable ruleMemo = new RuleMemoTable();
+
+  protected AbstractDelphiParser(TokenStream input, RecognizerSharedState state) {
+    super(input, state);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    ruleMemo.clear();
+  }
+
+  @Override
+  public int getRuleMemoization(int ruleIndex, int ruleStartIndex) {
+    return ruleMemo.get(ruleIndex, ruleStartIndex);
+  }
+
+  @Override
+  public void memoize(IntStream input, int ruleIndex, int ruleStartIndex) {
+    int stopTokenIndex = state.failed ? MEMO_RULE_FAILED : input.index() - 1;
+    ruleMemo.put(ruleIndex, ruleStartIndex, stopTokenIndex);
+  }
+
+  @Override
+  public int getRuleMemoizationCacheSize() {
+    return ruleMemo.size();
+  }
+}
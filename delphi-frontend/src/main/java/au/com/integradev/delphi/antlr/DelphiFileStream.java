@@ -18,18 +18,33 @@
  */
 package au.com.integradev.delphi.antlr;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
 import org.antlr.runtime.ANTLRStringStream;
 import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.input.BOMInputStream;
 
 public class DelphiFileStream extends ANTLRStringStream {
+  private static final ByteOrderMark[] BYTE_ORDER_MARKS = {
+    // UTF-32LE must be checked before UTF-16LE, which shares its first 2 bytes.
+    ByteOrderMark.UTF_32LE,
+    ByteOrderMark.UTF_32BE,
+    ByteOrderMark.UTF_8,
+    ByteOrderMark.UTF_16LE,
+    ByteOrderMark.UTF_16BE
+  };
+
   private final String fileName;
   private final String encoding;
+  private List<String> lines;
 
   public DelphiFileStream(String fileName, String encoding) throws IOException {
     this.fileName = fileName;
@@ -38,36 +53,62 @@ public class DelphiFileStream extends ANTLRStringStream {
 
   private String load(String fileName, String encoding) throws IOException {
     if (fileName != null) {
-      File f = new File(fileName);
-      int size = (int) f.length();
-      try (BOMInputStream input =
-          new BOMInputStream(
-              new FileInputStream(fileName),
-              false,
-              ByteOrderMark.UTF_8,
-              ByteOrderMark.UTF_16LE,
-              ByteOrderMark.UTF_16BE,
-              ByteOrderMark.UTF_32LE,
-              ByteOrderMark.UTF_32BE)) {
-
-        ByteOrderMark bom = input.getBOM();
-        if (bom != null) {
-          encoding = bom.getCharsetName();
-        }
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Path.of(fileName)));
 
-        if (encoding == null) {
-          encoding = Charset.defaultCharset().name();
-        }
+      ByteOrderMark bom = readByteOrderMark(buffer);
+      if (bom != null) {
+        encoding = bom.getCharsetName();
+      }
 
-        try (InputStreamReader reader = new InputStreamReader(input, encoding)) {
-          this.data = new char[size];
-          super.n = reader.read(this.data);
-        }
+      if (encoding == null) {
+        encoding = Charset.defaultCharset().name();
+      }
+
+      CharBuffer chars =
+          Charset.forName(encoding)
+              .newDecoder()
+              .onMalformedInput(CodingErrorAction.REPLACE)
+              .onUnmappableCharacter(CodingErrorAction.REPLACE)
+              .decode(buffer);
+
+      super.n = chars.limit();
+      this.data = chars.array();
+      if (this.data.length != super.n) {
+        // The decoder over-allocates, so trim the backing array to the decoded length.
+        this.data = Arrays.copyOf(this.data, super.n);
       }
     }
     return encoding;
   }
 
+  /**
+   * Consumes the byte order mark at the start of the buffer, if there is one.
+   *
+   * @param buffer the file contents
+   * @return the byte order mark, or null if the buffer doesn't start with one
+   */
+  private static ByteOrderMark readByteOrderMark(ByteBuffer buffer) {
+    for (ByteOrderMark bom : BYTE_ORDER_MARKS) {
+      if (startsWith(buffer, bom)) {
+        buffer.position(bom.length());
+        return bom;
+      }
+    }
+    return null;
+  }
+
+  private static boolean startsWith(ByteBuffer buffer, ByteOrderMark bom) {
+    if (buffer.remaining() < bom.length()) {
+      return false;
+    }
+    for (int i = 0; i < bom.length(); ++i) {
+      if ((buffer.get(i) & 0xFF) != bom.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public String getSourceName() {
     return this.fileName;
@@ -76,4 +117,89 @@ public class DelphiFileStream extends ANTLRStringStream {
   public String getEncoding() {
     return this.encoding;
   }
+
+  /**
+   * Returns the lines of the file, split on any Unicode line break sequence.
+   *
+   * <p>Only the line offsets are computed up front. Each line is copied out of the underlying
+   * character data the first time it's requested.
+   *
+   * @return unmodifiable list of lines
+   */
+  public List<String> getLines() {
+    if (lines == null) {
+      lines = new Lines(data, n);
+    }
+    return lines;
+  }
+
+  private static final class Lines extends AbstractList<String> implements RandomAccess {
+    private final char[] data;
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] cache;
+
+    private Lines(char[] data, int length) {
+      this.data = data;
+
+      int count = 1;
+      for (int i = 0; i < length; ++i) {
+        int breakLength = lineBreakLength(data, i, length);
+        if (breakLength > 0) {
+          ++count;
+          i += breakLength - 1;
+        }
+      }
+
+      this.starts = new int[count];
+      this.ends = new int[count];
+      this.cache = new String[count];
+
+      int line = 0;
+      for (int i = 0; i < length; ++i) {
+        int breakLength = lineBreakLength(data, i, length);
+        if (breakLength > 0) {
+          ends[line] = i;
+          starts[++line] = i + breakLength;
+          i += breakLength - 1;
+        }
+      }
+      ends[line] = length;
+    }
+
+    /**
+     * Returns the length of the line break at the given position, matching the {@code \R} linebreak
+     * matcher.
+     */
+    private static int lineBreakLength(char[] data, int index, int length) {
+      switch (data[index]) {
+        case '\r':
+          return (index + 1 < length && data[index + 1] == '\n') ? 2 : 1;
+        case '\n':
+        case '\u000B':
+        case '\u000C':
+        case '\u0085':
+        case '\u2028':
+        case '\u2029':
+          return 1;
+        default:
+          return 0;
+      }
+    }
+
+    @Override
+    public String get(int index) {
+      String result = cache[index];
+      if (result == null) {
+        result = new String(data, starts[index], ends[index] - starts[index]);
+        cache[index] = result;
+      }
+      return result;
+    }
+
+    @Override
+    public int size() {
+      return starts.length;
+    }
+  }
 }
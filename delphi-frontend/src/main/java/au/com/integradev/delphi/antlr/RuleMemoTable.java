@@ -0,0 +1,123 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr;
+
+import java.util.Arrays;
+import org.antlr.runtime.BaseRecognizer;
+
+/**
+ * Rule memoization table for a backtracking parser.
+ *
+ * <p>Maps a (rule index, start token index) pair to the stop token index recorded for it, using a
+ * single open-addressed table of primitives instead of a boxed map per rule.
+ */
+final class RuleMemoTable {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final long EMPTY = 0L;
+
+  private long[] keys = new long[INITIAL_CAPACITY];
+  private int[] values = new int[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Returns the memoized stop index for a rule invocation.
+   *
+   * @param ruleIndex index of the rule
+   * @param startIndex token index that the rule was invoked at
+   * @return the memoized stop index, or {@link BaseRecognizer#MEMO_RULE_UNKNOWN} if the invocation
+   *     has not been memoized
+   */
+  int get(int ruleIndex, int startIndex) {
+    long key = key(ruleIndex, startIndex);
+    int mask = keys.length - 1;
+    for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+    }
+    return BaseRecognizer.MEMO_RULE_UNKNOWN;
+  }
+
+  /**
+   * Memoizes the stop index for a rule invocation, replacing any previous value.
+   *
+   * @param ruleIndex index of the rule
+   * @param startIndex token index that the rule was invoked at
+   * @param stopIndex token index that the rule stopped at, or {@link
+   *     BaseRecognizer#MEMO_RULE_FAILED} if the rule failed
+   */
+  void put(int ruleIndex, int startIndex, int stopIndex) {
+    if (2 * (size + 1) > keys.length) {
+      grow();
+    }
+    long key = key(ruleIndex, startIndex);
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == key) {
+        values[slot] = stopIndex;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = stopIndex;
+    ++size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(keys, EMPTY);
+      size = 0;
+    }
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldValues.length * 2];
+
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; ++i) {
+      long key = oldKeys[i];
+      if (key != EMPTY) {
+        int slot = slot(key, mask);
+        while (keys[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static long key(int ruleIndex, int startIndex) {
+    // Rule indices are offset by one so that no valid key collides with the empty marker.
+    return ((long) (ruleIndex + 1) << 32) | (startIndex & 0xFFFFFFFFL);
+  }
+
+  private static int slot(long key, int mask) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+}
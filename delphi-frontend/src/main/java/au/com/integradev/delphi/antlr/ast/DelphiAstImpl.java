@@ -24,7 +24,9 @@ package au.com.integradev.delphi.antlr.ast;
 
 import au.com.integradev.delphi.antlr.DelphiLexer;
 import au.com.integradev.delphi.antlr.ast.node.DelphiNodeImpl;
+import au.com.integradev.delphi.antlr.ast.node.DescendantIndex;
 import au.com.integradev.delphi.antlr.ast.visitors.DelphiParserVisitor;
+import au.com.integradev.delphi.antlr.ast.visitors.MetricsVisitor;
 import au.com.integradev.delphi.file.DelphiFile;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,6 +43,8 @@ import org.sonar.plugins.communitydelphi.api.token.DelphiToken;
 /** DelphiLanguage AST tree. */
 public class DelphiAstImpl extends DelphiNodeImpl implements DelphiAst {
   private final DelphiFile delphiFile;
+  private final DescendantIndex descendantIndex = new DescendantIndex(this);
+  private MetricsVisitor.Data metrics;
 
   /**
    * Constructor.
@@ -55,6 +59,8 @@ public class DelphiAstImpl extends DelphiNodeImpl implements DelphiAst {
     if (root != null) {
       root.getChildren().forEach(this::addChild);
     }
+
+    trimChildren();
   }
 
   @Override
@@ -115,6 +121,29 @@ public class DelphiAstImpl extends DelphiNodeImpl implements DelphiAst {
     return getFileHeader() instanceof PackageDeclarationNode;
   }
 
+  /**
+   * Returns the index used to answer descendant queries for nodes in this tree. The tree is
+   * numbered on the first query, so the index must only be queried once the tree is complete.
+   *
+   * @return descendant index for this tree
+   */
+  public DescendantIndex getDescendantIndex() {
+    return descendantIndex;
+  }
+
+  /**
+   * Returns the metrics of this file. They are computed on first use, so the metrics executor and
+   * the routine complexity checks share a single traversal.
+   *
+   * @return metrics of this file
+   */
+  public synchronized MetricsVisitor.Data getMetrics() {
+    if (metrics == null) {
+      metrics = new MetricsVisitor().visit(this, new MetricsVisitor.Data());
+    }
+    return metrics;
+  }
+
   public List<DelphiToken> getCommentsInsideNode(DelphiNode node) {
     return getCommentsBetweenTokens(node.getFirstToken(), node.getLastToken());
   }
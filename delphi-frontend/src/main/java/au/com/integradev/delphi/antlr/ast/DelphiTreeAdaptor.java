@@ -66,8 +66,8 @@ public class DelphiTreeAdaptor extends BaseTreeAdaptor {
   @Override
   public void setTokenBoundaries(Object node, Token startToken, Token stopToken) {
     if (node != null) {
-      ((MutableDelphiNode) node).setFirstToken(new DelphiTokenImpl(startToken));
-      ((MutableDelphiNode) node).setLastToken(new DelphiTokenImpl(stopToken));
+      ((MutableDelphiNode) node).setFirstToken(DelphiTokenImpl.of(startToken));
+      ((MutableDelphiNode) node).setLastToken(DelphiTokenImpl.of(stopToken));
     }
   }
 
@@ -27,9 +27,11 @@ import au.com.integradev.delphi.antlr.ast.token.DelphiTokenImpl;
 import au.com.integradev.delphi.antlr.ast.visitors.DelphiParserVisitor;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.antlr.runtime.CommonToken;
 import org.antlr.runtime.Token;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
@@ -40,13 +42,19 @@ import org.sonar.plugins.communitydelphi.api.token.DelphiTokenType;
 import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
 
 public abstract class DelphiNodeImpl implements MutableDelphiNode {
+  private static final DelphiNodeImpl[] NO_CHILDREN = new DelphiNodeImpl[0];
+
   private final DelphiToken token;
   protected DelphiNode parent;
-  private List<DelphiNode> children;
+  private DelphiNodeImpl[] children = NO_CHILDREN;
+  private int childCount;
+  private List<DelphiNode> childrenView;
   private int childIndex;
   private DelphiToken firstToken;
   private DelphiToken lastToken;
   private DelphiScope scope;
+  private int preorderIndex = -1;
+  private int lastDescendantIndex = -1;
 
   /**
    * All nodes must implement this constructor. Used to create a node with a concrete token. Also
@@ -55,7 +63,7 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
    * @param token Token to create the node with
    */
   protected DelphiNodeImpl(Token token) {
-    this.token = new DelphiTokenImpl(token);
+    this.token = DelphiTokenImpl.of(token);
   }
 
   /**
@@ -116,25 +124,70 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
 
   @Override
   public void addChild(@Nonnull DelphiNode node) {
-    if (this.children == null) {
-      this.children = new ArrayList<>();
-    }
-
     DelphiNodeImpl child = (DelphiNodeImpl) node;
     if (child.getToken().isNil()) {
-      boolean sameChildren = this.children.equals(child.children);
+      boolean sameChildren =
+          child.childCount > 0
+              && Arrays.equals(
+                  this.children, 0, this.childCount, child.children, 0, child.childCount);
       Preconditions.checkArgument(!sameChildren, "Cannot add child list to itself!");
-      for (DelphiNode grandchild : child.getChildren()) {
-        ((DelphiNodeImpl) grandchild).setParent(this);
-        ((DelphiNodeImpl) grandchild).setChildIndex(this.children.size());
-        this.children.add(grandchild);
+      for (int i = 0; i < child.childCount; ++i) {
+        DelphiNodeImpl grandchild = child.children[i];
+        grandchild.setParent(this);
+        appendChild(grandchild);
       }
     } else {
-      child.setChildIndex(this.children.size());
-      this.children.add(child);
+      appendChild(child);
     }
 
-    ((DelphiNodeImpl) node).setParent(this);
+    child.setParent(this);
+  }
+
+  private void appendChild(DelphiNodeImpl child) {
+    if (childCount == children.length) {
+      children = Arrays.copyOf(children, Math.max(4, childCount * 2));
+    }
+    child.setChildIndex(childCount);
+    children[childCount++] = child;
+    childrenView = null;
+  }
+
+  /**
+   * Trims the child storage of this node and all of its descendants down to size. Called once the
+   * tree is complete, since no more children will be added.
+   */
+  protected void trimChildren() {
+    if (children.length != childCount) {
+      children = childCount == 0 ? NO_CHILDREN : Arrays.copyOf(children, childCount);
+      childrenView = null;
+    }
+    for (int i = 0; i < childCount; ++i) {
+      children[i].trimChildren();
+    }
+  }
+
+  int getChildCount() {
+    return childCount;
+  }
+
+  DelphiNodeImpl getChildAt(int index) {
+    return children[index];
+  }
+
+  int getPreorderIndex() {
+    return preorderIndex;
+  }
+
+  void setPreorderIndex(int preorderIndex) {
+    this.preorderIndex = preorderIndex;
+  }
+
+  int getLastDescendantIndex() {
+    return lastDescendantIndex;
+  }
+
+  void setLastDescendantIndex(int lastDescendantIndex) {
+    this.lastDescendantIndex = lastDescendantIndex;
   }
 
   @Override
@@ -167,8 +220,8 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
     DelphiToken result = this.token;
     int index = result.getIndex();
 
-    for (int i = 0; i < getChildren().size(); ++i) {
-      DelphiToken childToken = getChild(i).getFirstToken();
+    for (int i = 0; i < childCount; ++i) {
+      DelphiToken childToken = children[i].getFirstToken();
       if (!childToken.isImaginary() && childToken.getIndex() < index) {
         result = childToken;
       }
@@ -181,8 +234,8 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
     DelphiToken result = this.getFirstToken();
     int index = result.getIndex();
 
-    for (DelphiNode child : getChildren()) {
-      DelphiToken childToken = child.getLastToken();
+    for (int i = 0; i < childCount; ++i) {
+      DelphiToken childToken = children[i].getLastToken();
       if (!childToken.isImaginary() && childToken.getIndex() > index) {
         result = childToken;
       }
@@ -192,9 +245,9 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
 
   @Override
   public DelphiNode getFirstChildWithTokenType(DelphiTokenType tokenType) {
-    for (DelphiNode child : getChildren()) {
-      if (child.getToken().getType() == tokenType) {
-        return child;
+    for (int i = 0; i < childCount; ++i) {
+      if (children[i].getToken().getType() == tokenType) {
+        return children[i];
       }
     }
     return null;
@@ -220,8 +273,8 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
 
   @Override
   public <T> T childrenAccept(DelphiParserVisitor<T> visitor, T data) {
-    for (DelphiNode child : getChildren()) {
-      child.accept(visitor, data);
+    for (int i = 0; i < childCount; ++i) {
+      children[i].accept(visitor, data);
     }
     return data;
   }
@@ -248,13 +301,20 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
 
   @Override
   public List<DelphiNode> getChildren() {
-    return children == null ? Collections.emptyList() : Collections.unmodifiableList(children);
+    if (childCount == 0) {
+      return Collections.emptyList();
+    }
+    if (childrenView == null) {
+      childrenView =
+          Collections.unmodifiableList(Arrays.<DelphiNode>asList(children).subList(0, childCount));
+    }
+    return childrenView;
   }
 
   @Override
   public DelphiNode getChild(int index) {
-    if (index >= 0 && index < getChildren().size()) {
-      return this.children.get(index);
+    if (index >= 0 && index < childCount) {
+      return children[index];
     }
     return null;
   }
@@ -304,21 +364,38 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
     return parents;
   }
 
+  @Nullable
+  private DescendantIndex findDescendantIndex() {
+    DelphiAst ast = getAst();
+    if (ast instanceof DelphiAstImpl) {
+      DescendantIndex index = ((DelphiAstImpl) ast).getDescendantIndex();
+      if (index.contains(this)) {
+        return index;
+      }
+    }
+    return null;
+  }
+
   @Override
   public <T> List<T> findDescendantsOfType(Class<T> targetType) {
+    DescendantIndex index = findDescendantIndex();
+    if (index != null) {
+      return index.findDescendantsOfType(this, targetType);
+    }
+
     List<T> list = new ArrayList<>();
-    findDescendantsOfType(this, targetType, list);
+    findDescendantsOfType(targetType, list);
     return list;
   }
 
-  private static <T> void findDescendantsOfType(
-      DelphiNode node, Class<T> targetType, List<T> results) {
-    for (DelphiNode child : node.getChildren()) {
-      if (targetType.isAssignableFrom(child.getClass())) {
+  private <T> void findDescendantsOfType(Class<T> targetType, List<T> results) {
+    for (int i = 0; i < childCount; ++i) {
+      DelphiNodeImpl child = children[i];
+      if (targetType.isInstance(child)) {
         results.add(targetType.cast(child));
       }
 
-      findDescendantsOfType(child, targetType, results);
+      child.findDescendantsOfType(targetType, results);
     }
   }
 
@@ -326,9 +403,9 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
   public <T> List<T> findChildrenOfType(Class<T> targetType) {
     List<T> list = new ArrayList<>();
 
-    for (DelphiNode child : getChildren()) {
-      if (targetType.isInstance(child)) {
-        list.add(targetType.cast(child));
+    for (int i = 0; i < childCount; ++i) {
+      if (targetType.isInstance(children[i])) {
+        list.add(targetType.cast(children[i]));
       }
     }
 
@@ -337,27 +414,22 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
 
   @Override
   public <T> T getFirstDescendantOfType(Class<T> descendantType) {
-    return getFirstDescendantOfType(descendantType, this);
-  }
-
-  @Override
-  public <T> T getFirstChildOfType(Class<T> childType) {
-    for (DelphiNode child : getChildren()) {
-      if (childType.isInstance(child)) {
-        return childType.cast(child);
-      }
+    DescendantIndex index = findDescendantIndex();
+    if (index != null) {
+      return index.getFirstDescendantOfType(this, descendantType);
     }
-
-    return null;
+    return findFirstDescendantOfType(descendantType);
   }
 
-  private static <T> T getFirstDescendantOfType(Class<T> descendantType, DelphiNode node) {
-    for (DelphiNode child : node.getChildren()) {
-      if (descendantType.isAssignableFrom(child.getClass())) {
+  @Nullable
+  private <T> T findFirstDescendantOfType(Class<T> descendantType) {
+    for (int i = 0; i < childCount; ++i) {
+      DelphiNodeImpl child = children[i];
+      if (descendantType.isInstance(child)) {
         return descendantType.cast(child);
       }
 
-      T descendant = getFirstDescendantOfType(descendantType, child);
+      T descendant = child.findFirstDescendantOfType(descendantType);
       if (descendant != null) {
         return descendant;
       }
@@ -366,6 +438,17 @@ public abstract class DelphiNodeImpl implements MutableDelphiNode {
     return null;
   }
 
+  @Override
+  public <T> T getFirstChildOfType(Class<T> childType) {
+    for (int i = 0; i < childCount; ++i) {
+      if (childType.isInstance(children[i])) {
+        return childType.cast(children[i]);
+      }
+    }
+
+    return null;
+  }
+
   @Override
   public final <T> boolean hasDescendantOfType(Class<T> type) {
     return this.getFirstDescendantOfType(type) != null;
@@ -0,0 +1,148 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr.ast.node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the nodes in a tree, keyed by node type.
+ *
+ * <p>Nodes are numbered in preorder the first time the index is queried. Each queried type is then
+ * mapped to the preorder-sorted array of nodes that are instances of it, so the descendants of any
+ * node can be answered with a binary search over the range of preorder numbers it spans instead of
+ * a walk over its subtree.
+ *
+ * <p>The tree must not be modified after the index has been queried.
+ */
+public final class DescendantIndex {
+  private static final DelphiNodeImpl[] NO_NODES = new DelphiNodeImpl[0];
+
+  private final DelphiNodeImpl root;
+  private final Map<Class<?>, DelphiNodeImpl[]> nodesByType = new ConcurrentHashMap<>();
+  private volatile DelphiNodeImpl[] nodes;
+
+  public DescendantIndex(DelphiNodeImpl root) {
+    this.root = root;
+  }
+
+  /**
+   * Determines whether a node is part of the indexed tree, numbering the tree if it has not been
+   * numbered yet.
+   *
+   * @param node the node to check
+   * @return true if the node is part of the indexed tree
+   */
+  boolean contains(DelphiNodeImpl node) {
+    DelphiNodeImpl[] all = getNodes();
+    int index = node.getPreorderIndex();
+    return index >= 0 && index < all.length && all[index] == node;
+  }
+
+  /**
+   * Finds the descendants of a node that are instances of the given type, in preorder.
+   *
+   * @param node node within the indexed tree
+   * @param type type of the descendants to find
+   * @return descendants of the node that are instances of the type
+   */
+  <T> List<T> findDescendantsOfType(DelphiNodeImpl node, Class<T> type) {
+    DelphiNodeImpl[] candidates = getNodesOfType(type);
+    int from = lowerBound(candidates, node.getPreorderIndex() + 1);
+    int to = lowerBound(candidates, node.getLastDescendantIndex() + 1);
+
+    List<T> result = new ArrayList<>(to - from);
+    for (int i = from; i < to; ++i) {
+      result.add(type.cast(candidates[i]));
+    }
+    return result;
+  }
+
+  /**
+   * Finds the first descendant of a node that is an instance of the given type, in preorder.
+   *
+   * @param node node within the indexed tree
+   * @param type type of the descendant to find
+   * @return the first descendant of the node that is an instance of the type, or null if there is
+   *     no such descendant
+   */
+  @Nullable
+  <T> T getFirstDescendantOfType(DelphiNodeImpl node, Class<T> type) {
+    DelphiNodeImpl[] candidates = getNodesOfType(type);
+    int index = lowerBound(candidates, node.getPreorderIndex() + 1);
+    if (index < candidates.length
+        && candidates[index].getPreorderIndex() <= node.getLastDescendantIndex()) {
+      return type.cast(candidates[index]);
+    }
+    return null;
+  }
+
+  private DelphiNodeImpl[] getNodesOfType(Class<?> type) {
+    return nodesByType.computeIfAbsent(type, this::indexType);
+  }
+
+  private DelphiNodeImpl[] getNodes() {
+    DelphiNodeImpl[] result = nodes;
+    if (result == null) {
+      synchronized (this) {
+        result = nodes;
+        if (result == null) {
+          List<DelphiNodeImpl> numbered = new ArrayList<>();
+          number(root, numbered);
+          result = numbered.toArray(NO_NODES);
+          nodes = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void number(DelphiNodeImpl node, List<DelphiNodeImpl> result) {
+    node.setPreorderIndex(result.size());
+    result.add(node);
+    for (int i = 0; i < node.getChildCount(); ++i) {
+      number(node.getChildAt(i), result);
+    }
+    node.setLastDescendantIndex(result.size() - 1);
+  }
+
+  private DelphiNodeImpl[] indexType(Class<?> type) {
+    DelphiNodeImpl[] matches =
+        Arrays.stream(getNodes()).filter(type::isInstance).toArray(DelphiNodeImpl[]::new);
+    return matches.length == 0 ? NO_NODES : matches;
+  }
+
+  private static int lowerBound(DelphiNodeImpl[] candidates, int preorderIndex) {
+    int low = 0;
+    int high = candidates.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (candidates[middle].getPreorderIndex() < preorderIndex) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
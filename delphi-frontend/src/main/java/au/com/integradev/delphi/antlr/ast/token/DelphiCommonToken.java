@@ -0,0 +1,46 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr.ast.token;
+
+import org.antlr.runtime.CharStream;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+
+/**
+ * A token which holds on to its {@link DelphiTokenImpl} wrapper, so that every node and token list
+ * referring to the token shares a single wrapper.
+ */
+public class DelphiCommonToken extends CommonToken {
+  private DelphiTokenImpl wrapper;
+
+  public DelphiCommonToken(CharStream input, int type, int channel, int start, int stop) {
+    super(input, type, channel, start, stop);
+  }
+
+  public DelphiCommonToken(Token oldToken) {
+    super(oldToken);
+  }
+
+  DelphiTokenImpl getWrapper() {
+    if (wrapper == null) {
+      wrapper = new DelphiTokenImpl(this);
+    }
+    return wrapper;
+  }
+}
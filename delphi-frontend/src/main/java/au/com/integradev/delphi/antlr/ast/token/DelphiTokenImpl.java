@@ -26,13 +26,13 @@ import org.sonar.plugins.communitydelphi.api.token.DelphiTokenType;
 import org.sonarsource.analyzer.commons.TokenLocation;
 
 public class DelphiTokenImpl implements DelphiToken {
+  private static final long UNKNOWN_POSITION = Long.MIN_VALUE;
+
   private final Token token;
   private final DelphiTokenType tokenType;
   private String image;
-  private Integer beginLine;
-  private Integer beginColumn;
-  private Integer endLine;
-  private Integer endColumn;
+  private long beginPosition = UNKNOWN_POSITION;
+  private long endPosition = UNKNOWN_POSITION;
 
   public DelphiTokenImpl(Token token) {
     this.token = token;
@@ -42,6 +42,19 @@ public class DelphiTokenImpl implements DelphiToken {
             : DelphiTokenTypeFactory.createTokenType(token.getType());
   }
 
+  /**
+   * Returns the wrapper for a token, reusing the existing wrapper where the token has one.
+   *
+   * @param token the ANTLR token to wrap
+   * @return wrapper for the token
+   */
+  public static DelphiTokenImpl of(Token token) {
+    if (token instanceof DelphiCommonToken) {
+      return ((DelphiCommonToken) token).getWrapper();
+    }
+    return new DelphiTokenImpl(token);
+  }
+
   @Override
   public String getImage() {
     if (image == null && !isNil()) {
@@ -52,58 +65,68 @@ public class DelphiTokenImpl implements DelphiToken {
 
   @Override
   public int getBeginLine() {
-    if (beginLine == null) {
-      calculatePosition();
-    }
-    return beginLine;
+    return line(getBeginPosition());
   }
 
   @Override
   public int getBeginColumn() {
-    if (beginColumn == null) {
-      calculatePosition();
-    }
-    return beginColumn;
+    return column(getBeginPosition());
   }
 
   @Override
   public int getEndLine() {
-    if (endLine == null) {
-      calculatePosition();
-    }
-    return endLine;
+    return line(getEndPosition());
   }
 
   @Override
   public int getEndColumn() {
-    if (endColumn == null) {
+    return column(getEndPosition());
+  }
+
+  private long getBeginPosition() {
+    if (beginPosition == UNKNOWN_POSITION) {
+      calculatePosition();
+    }
+    return beginPosition;
+  }
+
+  private long getEndPosition() {
+    if (endPosition == UNKNOWN_POSITION) {
       calculatePosition();
     }
-    return endColumn;
+    return endPosition;
   }
 
   private void calculatePosition() {
     if (isIncludedToken()) {
       FilePosition insertionPosition = ((IncludeToken) token).getInsertionPosition();
-      beginLine = insertionPosition.getBeginLine();
-      beginColumn = insertionPosition.getBeginColumn();
-      endLine = insertionPosition.getEndLine();
-      endColumn = insertionPosition.getEndColumn();
+      beginPosition = pack(insertionPosition.getBeginLine(), insertionPosition.getBeginColumn());
+      endPosition = pack(insertionPosition.getEndLine(), insertionPosition.getEndColumn());
     } else if (isComment() || isCompilerDirective()) {
       TokenLocation location =
           new TokenLocation(token.getLine(), token.getCharPositionInLine(), token.getText());
-      beginLine = location.startLine();
-      beginColumn = location.startLineOffset();
-      endLine = location.endLine();
-      endColumn = location.endLineOffset();
+      beginPosition = pack(location.startLine(), location.startLineOffset());
+      endPosition = pack(location.endLine(), location.endLineOffset());
     } else {
-      beginLine = token.getLine();
-      beginColumn = token.getCharPositionInLine();
-      endLine = beginLine;
-      endColumn = beginColumn + getImage().length();
+      int line = token.getLine();
+      int column = token.getCharPositionInLine();
+      beginPosition = pack(line, column);
+      endPosition = pack(line, column + getImage().length());
     }
   }
 
+  private static long pack(int line, int column) {
+    return ((long) line << 32) | (column & 0xFFFFFFFFL);
+  }
+
+  private static int line(long position) {
+    return (int) (position >> 32);
+  }
+
+  private static int column(long position) {
+    return (int) position;
+  }
+
   @Override
   public boolean isEof() {
     return !isNil() && token.getType() == Token.EOF;
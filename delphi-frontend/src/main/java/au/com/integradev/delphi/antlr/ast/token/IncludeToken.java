@@ -18,12 +18,11 @@
  */
 package au.com.integradev.delphi.antlr.ast.token;
 
-import org.antlr.runtime.CommonToken;
 import org.antlr.runtime.Token;
 import org.sonar.plugins.communitydelphi.api.check.FilePosition;
 import org.sonar.plugins.communitydelphi.api.token.DelphiToken;
 
-public class IncludeToken extends CommonToken {
+public class IncludeToken extends DelphiCommonToken {
   private final FilePosition insertionPosition;
 
   public IncludeToken(Token token, DelphiToken insertionToken) {
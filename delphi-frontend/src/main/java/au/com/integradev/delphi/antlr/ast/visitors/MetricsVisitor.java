@@ -19,28 +19,75 @@
 package au.com.integradev.delphi.antlr.ast.visitors;
 
 import au.com.integradev.delphi.antlr.ast.visitors.MetricsVisitor.Data;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.sonar.plugins.communitydelphi.api.ast.AnonymousMethodNode;
+import org.sonar.plugins.communitydelphi.api.ast.BinaryExpressionNode;
+import org.sonar.plugins.communitydelphi.api.ast.CaseItemStatementNode;
+import org.sonar.plugins.communitydelphi.api.ast.CaseStatementNode;
 import org.sonar.plugins.communitydelphi.api.ast.ClassTypeNode;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
+import org.sonar.plugins.communitydelphi.api.ast.ExceptBlockNode;
+import org.sonar.plugins.communitydelphi.api.ast.ExceptItemNode;
+import org.sonar.plugins.communitydelphi.api.ast.ExpressionNode;
+import org.sonar.plugins.communitydelphi.api.ast.ForStatementNode;
+import org.sonar.plugins.communitydelphi.api.ast.IfStatementNode;
+import org.sonar.plugins.communitydelphi.api.ast.RepeatStatementNode;
 import org.sonar.plugins.communitydelphi.api.ast.RoutineBodyNode;
 import org.sonar.plugins.communitydelphi.api.ast.RoutineImplementationNode;
 import org.sonar.plugins.communitydelphi.api.ast.StatementNode;
+import org.sonar.plugins.communitydelphi.api.ast.WhileStatementNode;
+import org.sonar.plugins.communitydelphi.api.operator.BinaryOperator;
 import org.sonar.plugins.communitydelphi.api.token.DelphiToken;
 
+/**
+ * Computes the metrics of a file in a single traversal.
+ *
+ * <p>Cyclomatic and cognitive complexity are computed the same way as {@link
+ * CyclomaticComplexityVisitor} and {@link CognitiveComplexityVisitor}, both for the whole file and
+ * for each routine implementation. The complexity of a routine excludes its declaration section, so
+ * sub-procedures are only counted towards their own complexity.
+ */
 public class MetricsVisitor implements DelphiParserVisitor<Data> {
   private static final Pattern NEW_LINE_PATTERN = Pattern.compile("\r\n|\n|\r");
 
+  public static class RoutineComplexity {
+    private int complexity;
+    private int cognitiveComplexity;
+
+    public int getComplexity() {
+      return complexity;
+    }
+
+    public int getCognitiveComplexity() {
+      return cognitiveComplexity;
+    }
+  }
+
   public static class Data {
     private int classes;
     private int routines;
     private int complexity;
     private int cognitiveComplexity;
-    private final Set<Integer> codeLines = new HashSet<>();
-    private final Set<Integer> commentLines = new HashSet<>();
+    private final BitSet codeLines = new BitSet();
+    private final BitSet commentLines = new BitSet();
     private int statements;
+    private final Map<RoutineImplementationNode, RoutineComplexity> routineComplexities =
+        new HashMap<>();
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final Set<DelphiNode> ignoredLogicalExpressions = new HashSet<>();
+    private int nesting = 1;
+    private int cognitiveSuppression;
 
     public int getClasses() {
       return classes;
@@ -59,29 +106,81 @@ public class MetricsVisitor implements DelphiParserVisitor<Data> {
     }
 
     public int getCommentLines() {
-      return commentLines.size();
+      return commentLines.cardinality();
     }
 
     public int getStatements() {
       return statements;
     }
 
-    public Set<Integer> getCodeLines() {
+    public BitSet getCodeLines() {
       return codeLines;
     }
+
+    /**
+     * Returns the complexity of a routine implementation in this file.
+     *
+     * @param routine routine implementation in this file
+     * @return complexity of the routine, or null if the routine is not in this file
+     */
+    @Nullable
+    public RoutineComplexity getRoutineComplexity(RoutineImplementationNode routine) {
+      return routineComplexities.get(routine);
+    }
+
+    private void increaseComplexity() {
+      ++complexity;
+      RoutineComplexity routine = currentRoutine();
+      if (routine != null) {
+        ++routine.complexity;
+      }
+    }
+
+    private void increaseCognitiveComplexityByNesting(int adjustment) {
+      if (cognitiveSuppression == 0) {
+        cognitiveComplexity += nesting + adjustment;
+        RoutineComplexity routine = currentRoutine();
+        if (routine != null) {
+          routine.cognitiveComplexity += nesting - frames.peek().baseNesting + 1 + adjustment;
+        }
+      }
+    }
+
+    private void increaseCognitiveComplexityByOne() {
+      if (cognitiveSuppression == 0) {
+        ++cognitiveComplexity;
+        RoutineComplexity routine = currentRoutine();
+        if (routine != null) {
+          ++routine.cognitiveComplexity;
+        }
+      }
+    }
+
+    private RoutineComplexity currentRoutine() {
+      Frame frame = frames.peek();
+      return frame == null ? null : frame.routine;
+    }
   }
 
-  @Override
-  public Data visit(DelphiAst ast, Data data) {
-    var cyclomaticVisitor = new CyclomaticComplexityVisitor();
-    var cyclomaticComplexity = cyclomaticVisitor.visit(ast, new CyclomaticComplexityVisitor.Data());
-    data.complexity = cyclomaticComplexity.getComplexity();
+  /**
+   * The routine whose complexity is currently being counted, or a frame without a routine for the
+   * declaration section of a routine body.
+   */
+  private static final class Frame {
+    private final RoutineComplexity routine;
+    private final int baseNesting;
 
-    var cognitiveVisitor = new CognitiveComplexityVisitor();
-    var cognitiveComplexity = cognitiveVisitor.visit(ast, new CognitiveComplexityVisitor.Data());
-    data.cognitiveComplexity = cognitiveComplexity.getComplexity();
+    private Frame(RoutineComplexity routine, int baseNesting) {
+      this.routine = routine;
+      this.baseNesting = baseNesting;
+    }
+  }
 
-    return DelphiParserVisitor.super.visit(ast, data);
+  @Override
+  public Data visit(DelphiAst ast, Data data) {
+    DelphiParserVisitor.super.visit(ast, data);
+    data.ignoredLogicalExpressions.clear();
+    return data;
   }
 
   @Override
@@ -91,19 +190,43 @@ public class MetricsVisitor implements DelphiParserVisitor<Data> {
       String[] commentLines = NEW_LINE_PATTERN.split(token.getImage(), -1);
       for (String commentLine : commentLines) {
         if (StringUtils.isNotBlank(commentLine)) {
-          data.commentLines.add(line);
+          data.commentLines.set(line);
         }
         ++line;
       }
     } else if (!token.isImaginary() && !token.isWhitespace() && !token.isCompilerDirective()) {
-      data.codeLines.add(token.getBeginLine());
+      data.codeLines.set(token.getBeginLine());
     }
   }
 
   @Override
   public Data visit(RoutineImplementationNode routine, Data data) {
     ++data.routines;
-    return DelphiParserVisitor.super.visit(routine, data);
+
+    RoutineComplexity complexity = new RoutineComplexity();
+    data.routineComplexities.put(routine, complexity);
+    data.frames.push(new Frame(complexity, data.nesting));
+    data.increaseComplexity();
+    DelphiParserVisitor.super.visit(routine, data);
+    data.frames.pop();
+
+    return data;
+  }
+
+  @Override
+  public Data visit(RoutineBodyNode body, Data data) {
+    DelphiNode block = body.getBlock();
+    for (DelphiNode child : body.getChildren()) {
+      if (child == block) {
+        child.accept(this, data);
+      } else {
+        // The declaration section doesn't count towards the complexity of the routine.
+        data.frames.push(new Frame(null, data.nesting));
+        child.accept(this, data);
+        data.frames.pop();
+      }
+    }
+    return data;
   }
 
   @Override
@@ -114,9 +237,157 @@ public class MetricsVisitor implements DelphiParserVisitor<Data> {
 
   @Override
   public Data visit(StatementNode statement, Data data) {
+    countStatement(statement, data);
+    return DelphiParserVisitor.super.visit(statement, data);
+  }
+
+  private static void countStatement(StatementNode statement, Data data) {
     if (!(statement.getParent() instanceof RoutineBodyNode)) {
       ++data.statements;
     }
+  }
+
+  @Override
+  public Data visit(AnonymousMethodNode anonymous, Data data) {
+    data.increaseComplexity();
+    ++data.nesting;
+    DelphiParserVisitor.super.visit(anonymous, data);
+    --data.nesting;
+    return data;
+  }
+
+  @Override
+  public Data visit(CaseItemStatementNode statement, Data data) {
+    data.increaseComplexity();
     return DelphiParserVisitor.super.visit(statement, data);
   }
+
+  @Override
+  public Data visit(CaseStatementNode statement, Data data) {
+    return visitNestingStatement(statement, data);
+  }
+
+  @Override
+  public Data visit(ForStatementNode statement, Data data) {
+    data.increaseComplexity();
+    return visitNestingStatement(statement, data);
+  }
+
+  @Override
+  public Data visit(WhileStatementNode statement, Data data) {
+    data.increaseComplexity();
+    return visitNestingStatement(statement, data);
+  }
+
+  @Override
+  public Data visit(RepeatStatementNode statement, Data data) {
+    data.increaseComplexity();
+    return visitNestingStatement(statement, data);
+  }
+
+  private Data visitNestingStatement(StatementNode statement, Data data) {
+    data.increaseCognitiveComplexityByNesting(0);
+    ++data.nesting;
+    visit(statement, data);
+    --data.nesting;
+    return data;
+  }
+
+  @Override
+  public Data visit(IfStatementNode statement, Data data) {
+    countStatement(statement, data);
+    data.increaseComplexity();
+    data.increaseCognitiveComplexityByNesting(0);
+
+    StatementNode thenBranch = statement.getThenStatement();
+    StatementNode elseBranch = statement.getElseStatement();
+    boolean bareElse = elseBranch != null && !(elseBranch instanceof IfStatementNode);
+
+    for (DelphiNode child : statement.getChildren()) {
+      if (child == thenBranch) {
+        ++data.nesting;
+        child.accept(this, data);
+        --data.nesting;
+      } else if (child == elseBranch && bareElse) {
+        data.increaseCognitiveComplexityByOne();
+        ++data.nesting;
+        child.accept(this, data);
+        --data.nesting;
+      } else if (child == elseBranch) {
+        data.increaseCognitiveComplexityByNesting(-1);
+        child.accept(this, data);
+      } else {
+        child.accept(this, data);
+      }
+    }
+
+    return data;
+  }
+
+  @Override
+  public Data visit(ExceptBlockNode exceptBlock, Data data) {
+    if (!exceptBlock.hasHandlers()) {
+      return DelphiParserVisitor.super.visit(exceptBlock, data);
+    }
+
+    exceptBlock.getHandlers().forEach(handler -> data.increaseCognitiveComplexityByNesting(0));
+    for (DelphiNode child : exceptBlock.getChildren()) {
+      if (child instanceof ExceptItemNode) {
+        ++data.nesting;
+        child.accept(this, data);
+        --data.nesting;
+      } else {
+        // Only the handlers count towards cognitive complexity.
+        ++data.cognitiveSuppression;
+        child.accept(this, data);
+        --data.cognitiveSuppression;
+      }
+    }
+    return data;
+  }
+
+  @Override
+  public Data visit(BinaryExpressionNode expression, Data data) {
+    if (isAndOrExpression(expression)) {
+      data.increaseComplexity();
+
+      if (!data.ignoredLogicalExpressions.contains(expression)) {
+        BinaryOperator previous = null;
+        for (BinaryExpressionNode current : flattenLogicalExpression(expression, data)) {
+          if (previous != current.getOperator()) {
+            data.increaseCognitiveComplexityByOne();
+          }
+          previous = current.getOperator();
+        }
+      }
+    }
+    return DelphiParserVisitor.super.visit(expression, data);
+  }
+
+  private static Iterable<BinaryExpressionNode> flattenLogicalExpression(
+      BinaryExpressionNode expression, Data data) {
+    Deque<BinaryExpressionNode> result = new ArrayDeque<>();
+    addLogicalExpressions(expression, data, result);
+    return result;
+  }
+
+  private static void addLogicalExpressions(
+      ExpressionNode expression, Data data, Deque<BinaryExpressionNode> result) {
+    if (isAndOrExpression(expression)) {
+      data.ignoredLogicalExpressions.add(expression);
+
+      BinaryExpressionNode binaryExpr = (BinaryExpressionNode) expression;
+      addLogicalExpressions(binaryExpr.getLeft().skipParentheses(), data, result);
+      result.add(binaryExpr);
+      addLogicalExpressions(binaryExpr.getRight().skipParentheses(), data, result);
+    }
+  }
+
+  private static boolean isAndOrExpression(ExpressionNode expression) {
+    if (expression instanceof BinaryExpressionNode) {
+      BinaryOperator operator = ((BinaryExpressionNode) expression).getOperator();
+      return operator == BinaryOperator.AND || operator == BinaryOperator.OR;
+    }
+    return false;
+  }
 }
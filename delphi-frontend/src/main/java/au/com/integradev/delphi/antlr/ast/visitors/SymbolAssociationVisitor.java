@@ -42,7 +42,8 @@ import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclarat
  * link between symbols and their relevant AST nodes. (Scope associations, NameReferenceNode links,
  * NameDeclarationNode links...)
  *
- * <p>This visitor re-attaches applicable symbol information to the nodes of a fresh AST.
+ * <p>This visitor re-attaches applicable symbol information to the nodes of a fresh AST, or of an
+ * AST that was retained from the SymbolTableBuilder's first pass.
  */
 public class SymbolAssociationVisitor implements DelphiParserVisitor<Data> {
   public static class Data {
@@ -21,6 +21,7 @@ package au.com.integradev.delphi.check;
 import au.com.integradev.delphi.file.DelphiFile.DelphiInputFile;
 import au.com.integradev.delphi.preprocessor.CompilerSwitchRegistry;
 import au.com.integradev.delphi.reporting.DelphiIssueBuilderImpl;
+import au.com.integradev.delphi.reporting.TestCodeIndex;
 import java.util.List;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
@@ -37,6 +38,8 @@ public class DelphiCheckContextImpl implements DelphiCheckContext {
   private final DelphiInputFile delphiFile;
   private final CompilerDirectiveParser compilerDirectiveParser;
   private final MasterCheckRegistrar checkRegistrar;
+  private final boolean traversalShared;
+  private final TestCodeIndex testCodeIndex;
 
   public DelphiCheckContextImpl(
       DelphiCheck check,
@@ -44,11 +47,36 @@ public class DelphiCheckContextImpl implements DelphiCheckContext {
       DelphiInputFile delphiFile,
       CompilerDirectiveParser compilerDirectiveParser,
       MasterCheckRegistrar checkRegistrar) {
+    this(
+        check,
+        sensorContext,
+        delphiFile,
+        compilerDirectiveParser,
+        checkRegistrar,
+        false,
+        new TestCodeIndex(sensorContext::config, delphiFile.getAst()));
+  }
+
+  public DelphiCheckContextImpl(
+      DelphiCheck check,
+      SensorContext sensorContext,
+      DelphiInputFile delphiFile,
+      CompilerDirectiveParser compilerDirectiveParser,
+      MasterCheckRegistrar checkRegistrar,
+      boolean traversalShared,
+      TestCodeIndex testCodeIndex) {
     this.check = check;
     this.sensorContext = sensorContext;
     this.delphiFile = delphiFile;
     this.compilerDirectiveParser = compilerDirectiveParser;
     this.checkRegistrar = checkRegistrar;
+    this.traversalShared = traversalShared;
+    this.testCodeIndex = testCodeIndex;
+  }
+
+  @Override
+  public boolean isTraversalShared() {
+    return traversalShared;
   }
 
   @Override
@@ -83,6 +111,7 @@ public class DelphiCheckContextImpl implements DelphiCheckContext {
 
   @Override
   public DelphiIssueBuilder newIssue() {
-    return new DelphiIssueBuilderImpl(check, sensorContext, delphiFile, checkRegistrar);
+    return new DelphiIssueBuilderImpl(
+        check, sensorContext, delphiFile, checkRegistrar, testCodeIndex);
   }
 }
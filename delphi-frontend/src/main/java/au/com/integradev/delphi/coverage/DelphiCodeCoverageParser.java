@@ -23,104 +23,274 @@
 package au.com.integradev.delphi.coverage;
 
 import au.com.integradev.delphi.msbuild.DelphiProjectHelper;
-import com.google.common.base.Splitter;
 import java.io.File;
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.coverage.NewCoverage;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
+/**
+ * Parses Delphi Code Coverage XML reports.
+ *
+ * <p>Reports are streamed rather than loaded into a document, and the {@code line=hits} pairs in
+ * each {@code file} element are read straight from the character stream. Line hits are merged per
+ * file across all reports, so the coverage of each file is saved once.
+ */
 public class DelphiCodeCoverageParser implements DelphiCoverageParser {
   private static final Logger LOG = LoggerFactory.getLogger(DelphiCodeCoverageParser.class);
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
   private final DelphiProjectHelper delphiProjectHelper;
+  private final Map<String, Optional<InputFile>> inputFilesByName = new ConcurrentHashMap<>();
 
   public DelphiCodeCoverageParser(DelphiProjectHelper delphiProjectHelper) {
     this.delphiProjectHelper = delphiProjectHelper;
   }
 
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
   @Override
-  public void parse(SensorContext context, File reportFile) {
+  public void parse(SensorContext context, Collection<File> reportFiles) {
+    Map<InputFile, LineHits> coverage = new ConcurrentHashMap<>();
+    reportFiles.parallelStream()
+        .map(this::parseReportFile)
+        .forEach(
+            report -> report.forEach((file, hits) -> coverage.merge(file, hits, LineHits::add)));
+
+    coverage.forEach((file, hits) -> saveCoverage(context, file, hits));
+  }
+
+  private Map<InputFile, LineHits> parseReportFile(File reportFile) {
     if (!reportFile.exists()) {
       LOG.warn("Report file '{}' does not exist", reportFile);
-      return;
+      return Collections.emptyMap();
     }
 
     LOG.info("Parsing coverage report: {}", reportFile);
-    parseReportFile(context, reportFile);
-  }
-
-  private void parseReportFile(SensorContext sensorContext, File reportFile) {
-    try {
-      DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-      docBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-      docBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-      docBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-      DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-      Document doc = docBuilder.parse(reportFile);
-
-      doc.getDocumentElement().normalize();
-
-      NodeList dataNodes = doc.getElementsByTagName("linehits");
-      Element lineHits = (Element) dataNodes.item(0);
-      if (lineHits == null) {
-        LOG.warn("'linehits' element not found in coverage report: {}", reportFile);
-        return;
+    try (InputStream inputStream = Files.newInputStream(reportFile.toPath())) {
+      XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+      try {
+        return parseReport(reader, reportFile);
+      } finally {
+        reader.close();
       }
-
-      NodeList files = lineHits.getElementsByTagName("file");
-      for (int i = 0; i < files.getLength(); i++) {
-        parseFileNode(sensorContext, files.item(i));
-      }
-    } catch (SAXException e) {
+    } catch (XMLStreamException e) {
       LOG.error("Failed to parse coverage report: ", e);
     } catch (Exception e) {
       LOG.error("Unexpected exception while parsing coverage reports: ", e);
     }
+    return Collections.emptyMap();
   }
 
-  private void parseFileNode(SensorContext sensorContext, Node srcFile) {
-    String fileName = srcFile.getAttributes().getNamedItem("name").getTextContent();
-    InputFile sourceFile = delphiProjectHelper.getFileFromBasename(fileName);
+  private Map<InputFile, LineHits> parseReport(XMLStreamReader reader, File reportFile)
+      throws XMLStreamException {
+    Map<InputFile, LineHits> result = new HashMap<>();
+    boolean foundLineHits = false;
+    boolean inLineHits = false;
+
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String name = reader.getLocalName();
+        if (name.equals("linehits")) {
+          foundLineHits = true;
+          inLineHits = true;
+        } else if (inLineHits && name.equals("file")) {
+          parseFileElement(reader, result);
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT
+          && reader.getLocalName().equals("linehits")) {
+        inLineHits = false;
+      }
+    }
+
+    if (!foundLineHits) {
+      LOG.warn("'linehits' element not found in coverage report: {}", reportFile);
+    }
+    return result;
+  }
+
+  private void parseFileElement(XMLStreamReader reader, Map<InputFile, LineHits> result)
+      throws XMLStreamException {
+    String fileName = reader.getAttributeValue(null, "name");
+    InputFile sourceFile = fileName == null ? null : getInputFile(fileName);
 
     if (sourceFile == null) {
       LOG.debug("File not found in project: {}", fileName);
+      skipElement(reader);
       return;
     }
     LOG.debug("Parsing line hit information for file: {}", fileName);
 
-    NewCoverage newCoverage = sensorContext.newCoverage();
-    newCoverage.onFile(sourceFile);
+    LineHits hits = new LineHits(sourceFile.lines());
+    LineHitsReader lineHitsReader = new LineHitsReader(hits);
+
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        ++depth;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        --depth;
+      } else if (depth == 1
+          && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+        lineHitsReader.read(
+            reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+    lineHitsReader.finish();
+
+    result.merge(sourceFile, hits, LineHits::add);
+  }
+
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        ++depth;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        --depth;
+      }
+    }
+  }
 
-    parseValue(srcFile.getTextContent(), newCoverage, sourceFile.lines());
+  private InputFile getInputFile(String fileName) {
+    return inputFilesByName
+        .computeIfAbsent(
+            fileName, name -> Optional.ofNullable(delphiProjectHelper.getFileFromBasename(name)))
+        .orElse(null);
+  }
+
+  private static void saveCoverage(SensorContext context, InputFile file, LineHits hits) {
+    NewCoverage newCoverage = context.newCoverage();
+    newCoverage.onFile(file);
+    hits.forEach(newCoverage::lineHits);
     newCoverage.save();
   }
 
-  private static void parseValue(String lineCoverage, NewCoverage newCoverage, int numLines) {
-    Splitter.on(';')
-        .split(lineCoverage)
-        .forEach(lineHit -> parseLineHit(lineHit, numLines, newCoverage));
+  /** Hits per line of a file, where lines without any coverage information are negative. */
+  private static final class LineHits {
+    private final int[] hits;
+
+    private LineHits(int lines) {
+      hits = new int[lines + 1];
+      Arrays.fill(hits, -1);
+    }
+
+    private int lines() {
+      return hits.length - 1;
+    }
+
+    private void set(int line, int lineHits) {
+      // Only the first hit count for a line is kept within a single report.
+      if (hits[line] < 0) {
+        hits[line] = lineHits;
+      }
+    }
+
+    private LineHits add(LineHits other) {
+      for (int line = 1; line < hits.length; ++line) {
+        int otherHits = other.hits[line];
+        if (otherHits >= 0) {
+          hits[line] = hits[line] < 0 ? otherHits : saturatedAdd(hits[line], otherHits);
+        }
+      }
+      return this;
+    }
+
+    private void forEach(LineHitsConsumer consumer) {
+      for (int line = 1; line < hits.length; ++line) {
+        if (hits[line] >= 0) {
+          consumer.accept(line, hits[line]);
+        }
+      }
+    }
+
+    private static int saturatedAdd(int a, int b) {
+      long sum = (long) a + b;
+      return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+  }
+
+  @FunctionalInterface
+  private interface LineHitsConsumer {
+    void accept(int line, int hits);
   }
 
-  private static void parseLineHit(String lineHit, int numLines, NewCoverage newCoverage) {
-    int eq = lineHit.indexOf('=');
-    if (eq > 0) {
-      int lineNumber = Integer.parseInt(lineHit.substring(0, eq));
-      int lineHits = Integer.parseInt(lineHit.substring(eq + 1));
-      if (lineNumber > numLines) {
-        LOG.debug(
-            "skipping line hit on line {} because it's beyond the end of the file", lineNumber);
-      } else {
-        newCoverage.lineHits(lineNumber, lineHits);
+  /**
+   * Reads {@code line=hits} pairs separated by semicolons, which may be split across any number of
+   * text chunks. Malformed pairs are skipped.
+   */
+  private static final class LineHitsReader {
+    private final LineHits lineHits;
+    private long line;
+    private long hits;
+    private boolean readingHits;
+    private boolean hasDigits;
+    private boolean malformed;
+
+    private LineHitsReader(LineHits lineHits) {
+      this.lineHits = lineHits;
+    }
+
+    private void read(char[] text, int start, int length) {
+      for (int i = start; i < start + length; ++i) {
+        read(text[i]);
+      }
+    }
+
+    private void read(char c) {
+      if (c >= '0' && c <= '9') {
+        if (readingHits) {
+          hits = Math.min(hits * 10 + (c - '0'), Integer.MAX_VALUE + 1L);
+        } else {
+          line = Math.min(line * 10 + (c - '0'), Integer.MAX_VALUE + 1L);
+        }
+        hasDigits = true;
+      } else if (c == '=') {
+        malformed |= readingHits || !hasDigits;
+        readingHits = true;
+        hasDigits = false;
+      } else if (c == ';') {
+        finish();
+      } else if (!Character.isWhitespace(c)) {
+        malformed = true;
+      }
+    }
+
+    private void finish() {
+      if (readingHits && hasDigits && !malformed && hits <= Integer.MAX_VALUE && line >= 1) {
+        if (line > lineHits.lines()) {
+          LOG.debug("skipping line hit on line {} because it's beyond the end of the file", line);
+        } else {
+          lineHits.set((int) line, (int) hits);
+        }
       }
+      line = 0;
+      hits = 0;
+      readingHits = false;
+      hasDigits = false;
+      malformed = false;
     }
   }
 }
@@ -23,8 +23,27 @@
 package au.com.integradev.delphi.coverage;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.List;
 import org.sonar.api.batch.sensor.SensorContext;
 
 public interface DelphiCoverageParser {
-  void parse(SensorContext context, File reportFile);
+  /**
+   * Parses a coverage report and saves the coverage it contains.
+   *
+   * @param context the sensor context
+   * @param reportFile the coverage report
+   */
+  default void parse(SensorContext context, File reportFile) {
+    parse(context, List.of(reportFile));
+  }
+
+  /**
+   * Parses coverage reports and saves the coverage they contain. Coverage of a file that appears in
+   * several reports is merged and saved once.
+   *
+   * @param context the sensor context
+   * @param reportFiles the coverage reports
+   */
+  void parse(SensorContext context, Collection<File> reportFiles);
 }
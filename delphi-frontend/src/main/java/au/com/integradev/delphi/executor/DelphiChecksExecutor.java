@@ -24,8 +24,18 @@ import au.com.integradev.delphi.compiler.Platform;
 import au.com.integradev.delphi.file.DelphiFile.DelphiInputFile;
 import au.com.integradev.delphi.msbuild.DelphiProjectHelper;
 import au.com.integradev.delphi.preprocessor.directive.CompilerDirectiveParserImpl;
+import au.com.integradev.delphi.reporting.TestCodeIndex;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.SonarProduct;
@@ -33,8 +43,10 @@ import org.sonar.api.SonarRuntime;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.rule.RuleScope;
 import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.check.RuleProperty;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 import org.sonar.plugins.communitydelphi.api.check.SonarLintUnsupported;
 import org.sonar.plugins.communitydelphi.api.directive.CompilerDirectiveParser;
 
@@ -44,6 +56,10 @@ public class DelphiChecksExecutor implements Executor {
   private final DelphiProjectHelper delphiProjectHelper;
   private final MasterCheckRegistrar checkRegistrar;
   private final SonarRuntime sonarRuntime;
+  private final Set<DelphiCheck> claimedChecks = ConcurrentHashMap.newKeySet();
+  private final Set<DelphiCheck> uncopyableChecks = new HashSet<>();
+  private final ThreadLocal<Map<DelphiCheck, DelphiCheck>> threadConfinedChecks =
+      ThreadLocal.withInitial(IdentityHashMap::new);
 
   public DelphiChecksExecutor(
       DelphiProjectHelper delphiProjectHelper,
@@ -54,49 +70,173 @@ public class DelphiChecksExecutor implements Executor {
     this.sonarRuntime = sonarRuntime;
   }
 
+  @Override
+  public void setup() {
+    uncopyableChecks.clear();
+    if (delphiProjectHelper.getAnalysisThreads() <= 1) {
+      return;
+    }
+
+    for (RuleScope scope : RuleScope.values()) {
+      for (DelphiCheck check : checkRegistrar.getChecks(scope)) {
+        if (!canCopy(check)) {
+          LOG.warn(
+              "Check {} cannot be copied for concurrent analysis, so it will only be run on one"
+                  + " file at a time.",
+              check.getClass().getSimpleName());
+          uncopyableChecks.add(check);
+        }
+      }
+    }
+  }
+
   @Override
   public void execute(Context context, DelphiInputFile delphiFile) {
     Platform platform = delphiProjectHelper.getToolchain().platform;
     CompilerDirectiveParser compilerDirectiveParser =
         new CompilerDirectiveParserImpl(platform, delphiFile.getTextBlockLineEndingModeRegistry());
-    Function<DelphiCheck, DelphiCheckContext> createCheckContext =
-        check ->
+    TestCodeIndex testCodeIndex =
+        new TestCodeIndex(() -> context.sensorContext().config(), delphiFile.getAst());
+    BiFunction<DelphiCheck, Boolean, DelphiCheckContext> createCheckContext =
+        (check, traversalShared) ->
             new DelphiCheckContextImpl(
                 check,
                 context.sensorContext(),
                 delphiFile,
                 compilerDirectiveParser,
-                checkRegistrar);
+                checkRegistrar,
+                traversalShared,
+                testCodeIndex);
 
-    runChecks(RuleScope.ALL, createCheckContext);
+    List<DelphiCheck> checks = new ArrayList<>(checkRegistrar.getChecks(RuleScope.ALL));
     // Main files may contain test code.
-    runChecks(RuleScope.TEST, createCheckContext);
+    checks.addAll(checkRegistrar.getChecks(RuleScope.TEST));
     // Test files do not contain main code.
     if (delphiFile.getInputFile().type() != InputFile.Type.TEST) {
-      runChecks(RuleScope.MAIN, createCheckContext);
+      checks.addAll(checkRegistrar.getChecks(RuleScope.MAIN));
     }
-  }
 
-  private void runChecks(
-      RuleScope scope, Function<DelphiCheck, DelphiCheckContext> createCheckContext) {
-    checkRegistrar.getChecks(scope).stream()
+    SharedCheckTraversal sharedTraversal = new SharedCheckTraversal();
+
+    checks.stream()
         .filter(this::isCheckSupportedOnPlatform)
         .forEach(
             check -> {
-              DelphiCheckContext context = createCheckContext.apply(check);
-              try {
-                check.start(context);
-                check.visit(context.getAst(), context);
-                check.end(context);
-              } catch (Exception e) {
-                LOG.error(
-                    "Error occurred while running check {} on file: {}",
-                    check.getClass().getSimpleName(),
-                    context.getAst().getDelphiFile().getSourceCodeFile().getName(),
-                    e);
-                LOG.info("Continuing with next check.");
+              if (uncopyableChecks.contains(check)) {
+                // There is only one instance of this check, so it can't be visited concurrently.
+                synchronized (check) {
+                  runCheck(check, createCheckContext.apply(check, false));
+                }
+              } else if (AnnotationUtils.getAnnotation(check, ManualTraversal.class) == null) {
+                DelphiCheckContext checkContext = createCheckContext.apply(check, true);
+                try {
+                  sharedTraversal.add(getThreadConfinedCheck(check), checkContext);
+                } catch (Exception e) {
+                  logCheckError(check, checkContext, e);
+                }
+              } else {
+                runCheck(check, createCheckContext.apply(check, false));
               }
             });
+
+    sharedTraversal.run(delphiFile.getAst());
+  }
+
+  private void runCheck(DelphiCheck check, DelphiCheckContext context) {
+    try {
+      DelphiCheck instance = getThreadConfinedCheck(check);
+      instance.start(context);
+      instance.visit(context.getAst(), context);
+      instance.end(context);
+    } catch (Exception e) {
+      logCheckError(check, context, e);
+    }
+  }
+
+  static void logCheckError(DelphiCheck check, DelphiCheckContext context, Exception e) {
+    LOG.error(
+        "Error occurred while running check {} on file: {}",
+        check.getClass().getSimpleName(),
+        context.getAst().getDelphiFile().getSourceCodeFile().getName(),
+        e);
+    LOG.info("Continuing with next check.");
+  }
+
+  /**
+   * Checks are stateful, so each analysis thread needs its own instance of every check.
+   *
+   * <p>The first thread to run a check uses the instance created by the check factory, and any
+   * other threads use a copy of it. Issues are still reported against the original check, which is
+   * the instance known to the check registrar. Checks that can't be copied are only ever run with
+   * the original instance, one file at a time.
+   *
+   * @param check The check instance created by the check factory
+   * @return an instance of the check that is confined to the current thread
+   */
+  private DelphiCheck getThreadConfinedCheck(DelphiCheck check) {
+    if (uncopyableChecks.contains(check)) {
+      return check;
+    }
+    return threadConfinedChecks
+        .get()
+        .computeIfAbsent(
+            check, original -> claimedChecks.add(original) ? original : copy(original));
+  }
+
+  /**
+   * Determines whether a check can be copied without losing any of its configuration.
+   *
+   * <p>Copies are created with the no-arg constructor, and only {@link RuleProperty} fields are
+   * carried over. A check without a no-arg constructor, or with any other field whose value differs
+   * from a freshly constructed instance (injected dependencies, for example), can't be copied.
+   *
+   * @param check The check instance created by the check factory, before it has been run
+   * @return true if the check can be copied for use on other analysis threads
+   */
+  private static boolean canCopy(DelphiCheck check) {
+    DelphiCheck copy;
+    try {
+      copy = copy(check);
+    } catch (RuntimeException e) {
+      LOG.debug("Failed to copy check {}:", check.getClass().getName(), e);
+      return false;
+    }
+
+    try {
+      for (Class<?> type = check.getClass(); type != Object.class; type = type.getSuperclass()) {
+        for (Field field : type.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            field.setAccessible(true);
+            if (!Objects.deepEquals(field.get(check), field.get(copy))) {
+              return false;
+            }
+          }
+        }
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("Failed to compare check {} with its copy:", check.getClass().getName(), e);
+      return false;
+    }
+
+    return true;
+  }
+
+  private static DelphiCheck copy(DelphiCheck check) {
+    try {
+      DelphiCheck copy = check.getClass().getDeclaredConstructor().newInstance();
+      for (Class<?> type = check.getClass(); type != Object.class; type = type.getSuperclass()) {
+        for (Field field : type.getDeclaredFields()) {
+          if (field.isAnnotationPresent(RuleProperty.class)) {
+            field.setAccessible(true);
+            field.set(copy, field.get(check));
+          }
+        }
+      }
+      return copy;
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(
+          "Failed to copy check " + check.getClass().getName() + " for concurrent analysis", e);
+    }
   }
 
   private boolean isCheckSupportedOnPlatform(DelphiCheck check) {
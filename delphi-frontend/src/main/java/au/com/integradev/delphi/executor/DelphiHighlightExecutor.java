@@ -26,32 +26,58 @@ import org.sonar.plugins.communitydelphi.api.token.DelphiToken;
 import org.sonar.plugins.communitydelphi.api.token.DelphiTokenType;
 
 public class DelphiHighlightExecutor extends DelphiTokenExecutor {
-  private NewHighlighting highlighter;
-  private boolean insideAsmBlock;
-
   @Override
-  public void onFile(SensorContext context, DelphiInputFile delphiFile) {
-    highlighter = context.newHighlighting().onFile(delphiFile.getInputFile());
-    insideAsmBlock = false;
+  protected TokenHandler onFile(SensorContext context, DelphiInputFile delphiFile) {
+    return new HighlightTokenHandler(context.newHighlighting().onFile(delphiFile.getInputFile()));
   }
 
-  @Override
-  public void handleToken(DelphiToken token) {
-    if (shouldSkip(token)) {
-      return;
+  private static class HighlightTokenHandler implements TokenHandler {
+    private final NewHighlighting highlighter;
+    private boolean insideAsmBlock;
+
+    private HighlightTokenHandler(NewHighlighting highlighter) {
+      this.highlighter = highlighter;
     }
 
-    TypeOfText highlightType = getHighlightingType(token);
-    if (highlightType == null) {
-      return;
+    @Override
+    public void handleToken(DelphiToken token) {
+      if (shouldSkip(token)) {
+        return;
+      }
+
+      TypeOfText highlightType = getHighlightingType(token);
+      if (highlightType == null) {
+        return;
+      }
+
+      highlighter.highlight(
+          token.getBeginLine(),
+          token.getBeginColumn(),
+          token.getEndLine(),
+          token.getEndColumn(),
+          highlightType);
+    }
+
+    private boolean shouldSkip(DelphiToken token) {
+      DelphiTokenType type = token.getType();
+
+      if (type == DelphiTokenType.ASM) {
+        // We still want to highlight the asm keyword
+        insideAsmBlock = true;
+        return false;
+      }
+
+      if (insideAsmBlock) {
+        insideAsmBlock = (type != DelphiTokenType.END);
+      }
+
+      return insideAsmBlock && !token.isComment();
     }
 
-    highlighter.highlight(
-        token.getBeginLine(),
-        token.getBeginColumn(),
-        token.getEndLine(),
-        token.getEndColumn(),
-        highlightType);
+    @Override
+    public void save() {
+      highlighter.save();
+    }
   }
 
   private static TypeOfText getHighlightingType(DelphiToken token) {
@@ -83,25 +109,4 @@ public class DelphiHighlightExecutor extends DelphiTokenExecutor {
         return false;
     }
   }
-
-  private boolean shouldSkip(DelphiToken token) {
-    DelphiTokenType type = token.getType();
-
-    if (type == DelphiTokenType.ASM) {
-      // We still want to highlight the asm keyword
-      insideAsmBlock = true;
-      return false;
-    }
-
-    if (insideAsmBlock) {
-      insideAsmBlock = (type != DelphiTokenType.END);
-    }
-
-    return insideAsmBlock && !token.isComment();
-  }
-
-  @Override
-  public void save() {
-    highlighter.save();
-  }
 }
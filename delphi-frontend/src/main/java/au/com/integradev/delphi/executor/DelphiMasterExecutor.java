@@ -30,11 +30,9 @@ import org.sonar.plugins.communitydelphi.api.FatalAnalysisError;
 public class DelphiMasterExecutor implements Executor {
   private static final Logger LOG = LoggerFactory.getLogger(DelphiMasterExecutor.class);
   private final List<Executor> executors;
-  private final Set<Class<? extends Executor>> executed;
 
   public DelphiMasterExecutor(Executor... allExecutors) {
     executors = Arrays.asList(allExecutors);
-    executed = new HashSet<>();
   }
 
   @Override
@@ -46,10 +44,11 @@ public class DelphiMasterExecutor implements Executor {
 
   @Override
   public void execute(Context context, DelphiInputFile file) {
-    executed.clear();
+    // Tracked per-file so that multiple files can be executed concurrently.
+    Set<Class<? extends Executor>> executed = new HashSet<>();
     for (Executor executor : executors) {
       try {
-        executeExecutor(executor, context, file);
+        executeExecutor(executor, context, file, executed);
       } catch (FatalAnalysisError e) {
         throw e;
       } catch (Exception e) {
@@ -68,15 +67,23 @@ public class DelphiMasterExecutor implements Executor {
     }
   }
 
-  private void executeExecutor(Executor executor, Context context, DelphiInputFile file) {
+  private void executeExecutor(
+      Executor executor,
+      Context context,
+      DelphiInputFile file,
+      Set<Class<? extends Executor>> executed) {
     if (!executed.contains(executor.getClass())) {
-      executeDependencies(executor, context, file);
+      executeDependencies(executor, context, file, executed);
       executor.execute(context, file);
       executed.add(executor.getClass());
     }
   }
 
-  private void executeDependencies(Executor executor, Context context, DelphiInputFile file) {
+  private void executeDependencies(
+      Executor executor,
+      Context context,
+      DelphiInputFile file,
+      Set<Class<? extends Executor>> executed) {
     for (Class<? extends Executor> dependency : executor.dependencies()) {
       if (executed.contains(dependency)) {
         continue;
@@ -89,7 +96,7 @@ public class DelphiMasterExecutor implements Executor {
               .orElseThrow(() -> new UnsatisfiedExecutorDependencyException(executor, dependency));
 
       try {
-        executeExecutor(dependencyExecutor, context, file);
+        executeExecutor(dependencyExecutor, context, file, executed);
       } catch (FatalAnalysisError e) {
         throw e;
       } catch (Exception e) {
@@ -43,7 +43,9 @@ public class DelphiNoSonarExecutor implements Executor {
       }
     }
     if (!noSonarLines.isEmpty()) {
-      noSonarFilter.noSonarInFile(delphiFile.getInputFile(), noSonarLines);
+      synchronized (context.sensorContext()) {
+        noSonarFilter.noSonarInFile(delphiFile.getInputFile(), noSonarLines);
+      }
     }
   }
 }
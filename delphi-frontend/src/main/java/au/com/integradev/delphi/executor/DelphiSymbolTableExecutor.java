@@ -22,6 +22,7 @@ import au.com.integradev.delphi.antlr.ast.visitors.SonarSymbolTableVisitor;
 import au.com.integradev.delphi.antlr.ast.visitors.SymbolAssociationVisitor;
 import au.com.integradev.delphi.antlr.ast.visitors.SymbolAssociationVisitor.Data;
 import au.com.integradev.delphi.file.DelphiFile.DelphiInputFile;
+import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
 
 public class DelphiSymbolTableExecutor implements Executor {
@@ -34,9 +35,11 @@ public class DelphiSymbolTableExecutor implements Executor {
     ASSOCIATE_VISITOR.visit(file.getAst(), new Data(context.symbolTable()));
 
     // Provide symbol information to the Sonar API, which can be viewed in the web interface.
-    NewSymbolTable sonarSymbolTable =
-        context.sensorContext().newSymbolTable().onFile(file.getInputFile());
+    SensorContext sensorContext = context.sensorContext();
+    NewSymbolTable sonarSymbolTable = sensorContext.newSymbolTable().onFile(file.getInputFile());
     SONAR_VISITOR.visit(file.getAst(), sonarSymbolTable);
-    sonarSymbolTable.save();
+    synchronized (sensorContext) {
+      sonarSymbolTable.save();
+    }
   }
 }
@@ -26,16 +26,31 @@ public abstract class DelphiTokenExecutor implements Executor {
 
   @Override
   public void execute(Context context, DelphiInputFile delphiFile) {
-    onFile(context.sensorContext(), delphiFile);
+    SensorContext sensorContext = context.sensorContext();
+    TokenHandler handler = onFile(sensorContext, delphiFile);
     for (DelphiToken token : delphiFile.getTokens()) {
-      handleToken(token);
+      handler.handleToken(token);
+    }
+    synchronized (sensorContext) {
+      handler.save();
     }
-    save();
   }
 
-  protected abstract void onFile(SensorContext context, DelphiInputFile file);
+  /**
+   * Creates a handler for the tokens of a file.
+   *
+   * <p>Handlers hold all of the per-file state, so that multiple files can be executed
+   * concurrently.
+   *
+   * @param context The sensor context
+   * @param file The file whose tokens will be handled
+   * @return a new token handler
+   */
+  protected abstract TokenHandler onFile(SensorContext context, DelphiInputFile file);
 
-  protected abstract void handleToken(DelphiToken token);
+  protected interface TokenHandler {
+    void handleToken(DelphiToken token);
 
-  protected abstract void save();
+    void save();
+  }
 }
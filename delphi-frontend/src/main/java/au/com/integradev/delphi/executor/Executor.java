@@ -43,6 +43,9 @@ public interface Executor {
     /**
      * Returns the sensor context
      *
+     * <p>NOTE: Files may be executed concurrently, so anything that is saved to the sensor context
+     * must be saved while holding its monitor.
+     *
      * @return Sensor context
      */
     SensorContext sensorContext();
@@ -0,0 +1,174 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.executor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
+import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
+import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+
+/**
+ * Visits many checks in a single traversal of the AST.
+ *
+ * <p>The root node is visited by every check, so tokens are still visited as usual. Below the root,
+ * each node is only dispatched to the checks that override a {@code visit} method which is
+ * applicable to the node type. The checks must be visited with a context that reports the traversal
+ * as shared, so that they don't descend into the children of visited nodes themselves.
+ *
+ * @see org.sonar.plugins.communitydelphi.api.check.ManualTraversal
+ */
+class SharedCheckTraversal {
+  private static final Map<Class<?>, Set<Class<?>>> VISITED_TYPES_BY_CHECK_TYPE =
+      new ConcurrentHashMap<>();
+
+  private final List<CheckVisit> visits = new ArrayList<>();
+  private final Map<Class<?>, List<CheckVisit>> visitsByNodeType = new HashMap<>();
+
+  void add(DelphiCheck check, DelphiCheckContext context) {
+    visits.add(new CheckVisit(check, context));
+  }
+
+  void run(DelphiAst ast) {
+    for (CheckVisit visit : visits) {
+      visit.start();
+    }
+
+    for (CheckVisit visit : visits) {
+      visit.visitRoot(ast);
+    }
+
+    for (DelphiNode child : ast.getChildren()) {
+      dispatch(child);
+    }
+
+    for (CheckVisit visit : visits) {
+      visit.end();
+    }
+  }
+
+  private void dispatch(DelphiNode node) {
+    for (CheckVisit visit : getVisits(node)) {
+      visit.visit(node);
+    }
+
+    for (DelphiNode child : node.getChildren()) {
+      dispatch(child);
+    }
+  }
+
+  private List<CheckVisit> getVisits(DelphiNode node) {
+    return visitsByNodeType.computeIfAbsent(
+        node.getClass(),
+        nodeType ->
+            visits.stream()
+                .filter(visit -> visit.isApplicableTo(nodeType))
+                .collect(Collectors.toList()));
+  }
+
+  private static Set<Class<?>> getVisitedTypes(Class<?> checkType) {
+    return VISITED_TYPES_BY_CHECK_TYPE.computeIfAbsent(
+        checkType, SharedCheckTraversal::findVisitedTypes);
+  }
+
+  private static Set<Class<?>> findVisitedTypes(Class<?> checkType) {
+    Set<Class<?>> result = new HashSet<>();
+    for (Class<?> type = checkType; type != DelphiCheck.class; type = type.getSuperclass()) {
+      for (Method method : type.getDeclaredMethods()) {
+        if (method.isBridge() || method.isSynthetic() || method.getParameterCount() != 2) {
+          continue;
+        }
+
+        Class<?> parameterType = method.getParameterTypes()[0];
+        if (method.getName().equals("visit") && DelphiNode.class.isAssignableFrom(parameterType)) {
+          result.add(parameterType);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static final class CheckVisit {
+    private final DelphiCheck check;
+    private final DelphiCheckContext context;
+    private final Set<Class<?>> visitedTypes;
+    private boolean failed;
+
+    private CheckVisit(DelphiCheck check, DelphiCheckContext context) {
+      this.check = check;
+      this.context = context;
+      this.visitedTypes = getVisitedTypes(check.getClass());
+    }
+
+    private boolean isApplicableTo(Class<?> nodeType) {
+      return visitedTypes.stream().anyMatch(type -> type.isAssignableFrom(nodeType));
+    }
+
+    private void start() {
+      try {
+        check.start(context);
+      } catch (Exception e) {
+        fail(e);
+      }
+    }
+
+    private void visitRoot(DelphiAst ast) {
+      if (!failed) {
+        try {
+          check.visit(ast, context);
+        } catch (Exception e) {
+          fail(e);
+        }
+      }
+    }
+
+    private void visit(DelphiNode node) {
+      if (!failed) {
+        try {
+          node.accept(check, context);
+        } catch (Exception e) {
+          fail(e);
+        }
+      }
+    }
+
+    private void end() {
+      if (!failed) {
+        try {
+          check.end(context);
+        } catch (Exception e) {
+          fail(e);
+        }
+      }
+    }
+
+    private void fail(Exception e) {
+      failed = true;
+      DelphiChecksExecutor.logCheckError(check, context, e);
+    }
+  }
+}
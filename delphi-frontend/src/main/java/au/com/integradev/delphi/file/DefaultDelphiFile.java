@@ -21,7 +21,10 @@ package au.com.integradev.delphi.file;
 import au.com.integradev.delphi.preprocessor.CompilerSwitchRegistry;
 import au.com.integradev.delphi.preprocessor.TextBlockLineEndingModeRegistry;
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
 import org.sonar.plugins.communitydelphi.api.token.DelphiToken;
 import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
@@ -36,6 +39,7 @@ class DefaultDelphiFile implements DelphiFile {
   private TextBlockLineEndingModeRegistry textBlockLineEndingModeRegistry;
   private TypeFactory typeFactory;
   private String encoding;
+  private Set<Path> includeFiles;
 
   DefaultDelphiFile() {
     // package-private constructor
@@ -86,12 +90,17 @@ class DefaultDelphiFile implements DelphiFile {
     return typeFactory;
   }
 
+  @Override
+  public Set<Path> getIncludeFiles() {
+    return includeFiles;
+  }
+
   void setSourceCodeFile(File sourceCodeFile) {
     this.sourceCodeFile = sourceCodeFile;
   }
 
   void setSourceCodeLines(List<String> sourceCodeLines) {
-    this.sourceCodeLines = List.copyOf(sourceCodeLines);
+    this.sourceCodeLines = Collections.unmodifiableList(sourceCodeLines);
   }
 
   void setSourceCodeEncoding(String encoding) {
@@ -122,4 +131,8 @@ class DefaultDelphiFile implements DelphiFile {
   void setTypeFactory(TypeFactory typeFactory) {
     this.typeFactory = typeFactory;
   }
+
+  void setIncludeFiles(Set<Path> includeFiles) {
+    this.includeFiles = Set.copyOf(includeFiles);
+  }
 }
@@ -31,9 +31,9 @@ import au.com.integradev.delphi.preprocessor.DelphiPreprocessorFactory;
 import au.com.integradev.delphi.preprocessor.TextBlockLineEndingModeRegistry;
 import au.com.integradev.delphi.preprocessor.search.SearchPath;
 import au.com.integradev.delphi.utils.DelphiUtils;
-import com.google.common.base.Splitter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -67,6 +67,8 @@ public interface DelphiFile {
 
   TypeFactory getTypeFactory();
 
+  Set<Path> getIncludeFiles();
+
   interface DelphiInputFile extends DelphiFile {
     InputFile getInputFile();
 
@@ -78,6 +80,42 @@ public interface DelphiFile {
       return delphiFile;
     }
 
+    /**
+     * Creates a DelphiInputFile from a DelphiFile that has already been constructed, avoiding the
+     * need to lex, preprocess and parse the source file again.
+     *
+     * @param inputFile The input file
+     * @param delphiFile A DelphiFile constructed from the same source file
+     * @return a DelphiInputFile sharing the AST and tokens of the provided DelphiFile
+     */
+    static DelphiInputFile from(InputFile inputFile, DelphiFile delphiFile) {
+      DefaultDelphiInputFile result = new DefaultDelphiInputFile();
+      result.setSourceCodeFile(delphiFile.getSourceCodeFile());
+      result.setSourceCodeEncoding(delphiFile.getSourceCodeFileEncoding());
+      result.setTypeFactory(delphiFile.getTypeFactory());
+      result.setAst(delphiFile.getAst());
+      result.setCompilerSwitchRegistry(delphiFile.getCompilerSwitchRegistry());
+      result.setTextBlockLineEndingModeRegistry(delphiFile.getTextBlockLineEndingModeRegistry());
+      result.setSourceCodeLines(delphiFile.getSourceCodeFileLines());
+      result.setTokens(delphiFile.getTokens());
+      result.setComments(delphiFile.getComments());
+      result.setIncludeFiles(delphiFile.getIncludeFiles());
+      result.setInputFile(inputFile);
+      return result;
+    }
+
+    /**
+     * Returns whether a DelphiFile constructed with the provided config can be reused for an input
+     * file, which is only the case if the input file doesn't override the config's encoding.
+     *
+     * @param inputFile The input file
+     * @param config The config that was used to construct the DelphiFile
+     * @return true if a DelphiFile constructed with the config is valid for the input file
+     */
+    static boolean canReuse(InputFile inputFile, DelphiFileConfig config) {
+      return useInputFileEncoding(inputFile, config) == config;
+    }
+
     private static DelphiFileConfig useInputFileEncoding(
         InputFile inputFile, DelphiFileConfig config) {
       if (inputFile.charset() != null && !inputFile.charset().name().equals(config.getEncoding())) {
@@ -150,9 +188,10 @@ public interface DelphiFile {
       delphiFile.setCompilerSwitchRegistry(preprocessor.getCompilerSwitchRegistry());
       delphiFile.setTextBlockLineEndingModeRegistry(
           preprocessor.getTextBlockLineEndingModeRegistry());
-      delphiFile.setSourceCodeLines(getSourceCodeLines(fileStream));
+      delphiFile.setSourceCodeLines(fileStream.getLines());
       delphiFile.setTokens(preprocessor.getRawTokens());
       delphiFile.setComments(extractComments(delphiFile.getTokens()));
+      delphiFile.setIncludeFiles(preprocessor.getIncludeFiles());
     } catch (IOException
         | RecognitionException
         | LexerException
@@ -199,10 +238,6 @@ public interface DelphiFile {
     return new DelphiAstImpl(delphiFile, root);
   }
 
-  private static List<String> getSourceCodeLines(DelphiFileStream fileStream) {
-    return Splitter.onPattern("\\R").splitToList(fileStream.substring(0, fileStream.size() - 1));
-  }
-
   private static List<DelphiToken> extractComments(List<DelphiToken> tokenList) {
     return tokenList.stream()
         .filter(DelphiToken::isComment)
@@ -347,6 +347,33 @@ public class DelphiProjectHelper {
     return unitAliases;
   }
 
+  /**
+   * Gets the maximum number of parsed source files that should be retained after symbol table
+   * construction, so they can be reused during analysis
+   *
+   * @return retained file limit
+   */
+  public int getRetainedFileLimit() {
+    return Math.max(
+        0,
+        settings
+            .getInt(DelphiProperties.RETAINED_FILES_KEY)
+            .orElse(DelphiProperties.RETAINED_FILES_DEFAULT));
+  }
+
+  /**
+   * Gets the number of threads that should be used to analyze source files
+   *
+   * @return number of analysis threads
+   */
+  public int getAnalysisThreads() {
+    return Math.max(
+        1,
+        settings
+            .getInt(DelphiProperties.ANALYSIS_THREADS_KEY)
+            .orElse(DelphiProperties.ANALYSIS_THREADS_DEFAULT));
+  }
+
   public List<Path> getReferencedFiles() {
     indexProjects();
     return referencedFiles;
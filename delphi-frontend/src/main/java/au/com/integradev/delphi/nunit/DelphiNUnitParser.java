@@ -20,28 +20,36 @@ package au.com.integradev.delphi.nunit;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Collections;
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.TrueFileFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
 /** Parses NUnit test reports from XML files. */
 public final class DelphiNUnitParser {
   private static final Logger LOG = LoggerFactory.getLogger(DelphiNUnitParser.class);
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
 
   private DelphiNUnitParser() {
     // Utility class
   }
 
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
   public static ResultsAggregator collect(File reportsDir) {
     LOG.info("Processing reports in {}", reportsDir);
     return parseFiles(getReports(reportsDir));
@@ -63,8 +71,8 @@ public final class DelphiNUnitParser {
         dir, FileFilterUtils.suffixFileFilter(".xml"), TrueFileFilter.INSTANCE);
   }
 
-  private static NUnitFileParser getParserForFile(Document doc) {
-    String rootElementName = doc.getDocumentElement().getNodeName();
+  private static NUnitFileParser getParserForFile(XMLStreamReader reader) {
+    String rootElementName = reader.getLocalName();
 
     if (rootElementName.equals("test-run")) {
       return new NUnit3FileParser();
@@ -76,31 +84,34 @@ public final class DelphiNUnitParser {
   }
 
   private static void parse(File reportFile, ResultsAggregator results) {
-    try {
-      LOG.debug("Parsing NUnit report {}", reportFile);
-      DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-      docBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-      docBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-      docBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-      DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-      Document doc = docBuilder.parse(reportFile);
-
-      doc.getDocumentElement().normalize();
-
-      NUnitFileParser parser = getParserForFile(doc);
-      if (parser != null) {
-        parser.parse(doc, results);
-      } else {
-        LOG.error("Report '{}' is not a recognised NUnit format, skipping.", reportFile);
+    LOG.debug("Parsing NUnit report {}", reportFile);
+    try (InputStream inputStream = Files.newInputStream(reportFile.toPath())) {
+      XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+      try {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+          // Skip the prolog
+        }
+        NUnitFileParser parser = getParserForFile(reader);
+        if (parser != null) {
+          // Results are only published once the whole report has been read, so that a report
+          // which turns out to be malformed contributes nothing.
+          ResultsAggregator reportResults = new ResultsAggregator();
+          parser.parse(reader, reportResults);
+          results.addAll(reportResults);
+        } else {
+          LOG.error("Report '{}' is not a recognised NUnit format, skipping.", reportFile);
+        }
+      } finally {
+        reader.close();
       }
-    } catch (SAXException | ParserConfigurationException | IOException e) {
+    } catch (XMLStreamException | IOException e) {
       LOG.error("Error while parsing report '{}':", reportFile, e);
     }
   }
 
   private static ResultsAggregator parseFiles(Collection<File> reports) {
     ResultsAggregator results = new ResultsAggregator();
-    reports.forEach(report -> parse(report, results));
+    reports.parallelStream().forEach(report -> parse(report, results));
     return results;
   }
 }
@@ -20,13 +20,14 @@ package au.com.integradev.delphi.nunit;
 
 import au.com.integradev.delphi.nunit.TestResult.Status;
 
+/** Accumulates test results. Results may be added concurrently from multiple threads. */
 public final class ResultsAggregator {
   private int failures;
   private int skipped;
   private int tests;
   private double durationSeconds;
 
-  public ResultsAggregator add(TestResult result) {
+  public synchronized ResultsAggregator add(TestResult result) {
     this.tests++;
     this.durationSeconds += result.getDuration();
 
@@ -39,19 +40,42 @@ public final class ResultsAggregator {
     return this;
   }
 
-  public int getFailures() {
+  public ResultsAggregator addAll(ResultsAggregator other) {
+    int otherFailures;
+    int otherSkipped;
+    int otherTests;
+    double otherDurationSeconds;
+
+    synchronized (other) {
+      otherFailures = other.failures;
+      otherSkipped = other.skipped;
+      otherTests = other.tests;
+      otherDurationSeconds = other.durationSeconds;
+    }
+
+    synchronized (this) {
+      this.failures += otherFailures;
+      this.skipped += otherSkipped;
+      this.tests += otherTests;
+      this.durationSeconds += otherDurationSeconds;
+    }
+
+    return this;
+  }
+
+  public synchronized int getFailures() {
     return this.failures;
   }
 
-  public int getSkipped() {
+  public synchronized int getSkipped() {
     return this.skipped;
   }
 
-  public int getTestsRun() {
+  public synchronized int getTestsRun() {
     return this.tests - this.skipped;
   }
 
-  public double getDurationSeconds() {
+  public synchronized double getDurationSeconds() {
     return this.durationSeconds;
   }
 }
@@ -24,13 +24,18 @@ import static au.com.integradev.delphi.type.intrinsic.IntrinsicArgumentMatcher.P
 import static org.sonar.plugins.communitydelphi.api.type.TypeFactory.untypedType;
 
 import au.com.integradev.delphi.type.factory.TypeFactoryImpl;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.sonar.plugins.communitydelphi.api.operator.BinaryOperator;
 import org.sonar.plugins.communitydelphi.api.operator.Operator;
 import org.sonar.plugins.communitydelphi.api.operator.UnaryOperator;
@@ -48,11 +53,22 @@ import org.sonar.plugins.communitydelphi.api.type.Type.StructType;
 import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
 
 public class OperatorInvocableCollector {
+  private static final Cache<TypeFactory, Cache<IntrinsicKey, Set<Invocable>>> INTRINSICS =
+      CacheBuilder.newBuilder().weakKeys().build();
+  private static final int INTRINSICS_PER_TYPE_FACTORY = 2048;
+
   private final TypeFactory typeFactory;
+  private final Cache<IntrinsicKey, Set<Invocable>> intrinsics;
   private List<Type> operands;
 
   public OperatorInvocableCollector(TypeFactory typeFactory) {
     this.typeFactory = typeFactory;
+    this.intrinsics =
+        INTRINSICS
+            .asMap()
+            .computeIfAbsent(
+                typeFactory,
+                key -> CacheBuilder.newBuilder().maximumSize(INTRINSICS_PER_TYPE_FACTORY).build());
   }
 
   public Set<Invocable> collect(BinaryOperator operator, Type left, Type right) {
@@ -88,7 +104,7 @@ public class OperatorInvocableCollector {
     } else if (type.isPointer()) {
       result.addAll(createPointerMath((PointerType) type, operator));
     } else if (type.isVariant() && operator != BinaryOperator.IN && operator != BinaryOperator.AS) {
-      result.add(createVariantBinary(operator));
+      result.addAll(createVariantBinary(operator));
     } else if (type.isSet() || type.isArrayConstructor()) {
       result.addAll(createSetLike(type, operator));
     } else if (type.isDynamicArray()) {
@@ -105,25 +121,25 @@ public class OperatorInvocableCollector {
 
     switch (operator) {
       case EQUAL:
-        result.add(createComparison("Equal"));
+        result.addAll(createComparison("Equal"));
         break;
       case GREATER_THAN:
-        result.add(createComparison("GreaterThan"));
+        result.addAll(createComparison("GreaterThan"));
         break;
       case LESS_THAN:
-        result.add(createComparison("LessThan"));
+        result.addAll(createComparison("LessThan"));
         break;
       case GREATER_THAN_EQUAL:
-        result.add(createComparison("GreaterThanEqual"));
+        result.addAll(createComparison("GreaterThanEqual"));
         break;
       case LESS_THAN_EQUAL:
-        result.add(createComparison("LessThanEqual"));
+        result.addAll(createComparison("LessThanEqual"));
         break;
       case NOT_EQUAL:
-        result.add(createComparison("NotEqual"));
+        result.addAll(createComparison("NotEqual"));
         break;
       case IN:
-        result.add(createIn());
+        result.addAll(createIn());
         break;
       default:
         // do nothing
@@ -148,22 +164,61 @@ public class OperatorInvocableCollector {
         .collect(Collectors.toSet());
   }
 
+  /**
+   * Returns the operator intrinsics for a key, creating them on first use.
+   *
+   * <p>Operator intrinsics only depend on the key and the type factory, so they are shared by every
+   * collector using the same type factory instead of being recreated for each expression.
+   *
+   * <p>Type-specific intrinsics are only shared for the intrinsic types of the type factory. Other
+   * types are declared in source code, so there is a distinct instance for every declaration and
+   * specialization. Entries keyed by them would rarely be reused, and would keep them reachable.
+   *
+   * @param name identifies the intrinsics being created
+   * @param type the type the intrinsics were created for, or null if they are not type-specific
+   * @param supplier creates the intrinsics
+   * @return the operator intrinsics for the key
+   */
+  private Set<Invocable> cached(
+      String name, @Nullable Type type, Supplier<Set<Invocable>> supplier) {
+    if (type != null && !((TypeFactoryImpl) typeFactory).isIntrinsic(type)) {
+      return supplier.get();
+    }
+
+    IntrinsicKey key = new IntrinsicKey(name, type);
+    Set<Invocable> result = intrinsics.getIfPresent(key);
+    if (result == null) {
+      result = Collections.unmodifiableSet(supplier.get());
+      intrinsics.put(key, result);
+    }
+    return result;
+  }
+
+  private Set<Invocable> cached(String name, Supplier<Set<Invocable>> supplier) {
+    return cached(name, null, supplier);
+  }
+
   private Set<Invocable> createPointerMath(PointerType type, BinaryOperator operator) {
     if (!type.allowsPointerMath()) {
-      return Sets.newHashSet();
+      return Collections.emptySet();
     }
 
     switch (operator) {
       case ADD:
-        return createPointerMathAdd(type);
+        return cached("Pointer::Add", type, () -> createPointerMathAdd(type));
       case SUBTRACT:
-        return createPointerMathSubtract(type);
+        return cached("Pointer::Subtract", type, () -> createPointerMathSubtract(type));
       default:
-        return Sets.newHashSet();
+        return Collections.emptySet();
     }
   }
 
-  private Invocable createVariantBinary(BinaryOperator operator) {
+  private Set<Invocable> createVariantBinary(BinaryOperator operator) {
+    return cached(
+        "VariantBinary::" + operator.name(), () -> createVariantBinaryIntrinsic(operator));
+  }
+
+  private Set<Invocable> createVariantBinaryIntrinsic(BinaryOperator operator) {
     final String PREFIX = "Variant::";
     Type variant = typeFactory.getIntrinsic(IntrinsicType.VARIANT);
     List<Type> arguments = List.of(variant, variant);
@@ -180,7 +235,7 @@ public class OperatorInvocableCollector {
       default:
         returnType = variant;
     }
-    return new OperatorIntrinsic(PREFIX + operator.name(), arguments, returnType);
+    return Sets.newHashSet(new OperatorIntrinsic(PREFIX + operator.name(), arguments, returnType));
   }
 
   private Set<Invocable> createPointerMathAdd(PointerType type) {
@@ -203,48 +258,55 @@ public class OperatorInvocableCollector {
   }
 
   private Set<Invocable> createSetLike(Type type, BinaryOperator operator) {
-    String name;
+    String name = getSetLikeOperatorName(operator);
+    if (name == null) {
+      return Collections.emptySet();
+    }
 
+    if (type.isArrayConstructor()) {
+      // Array constructors are normalized to their largest element type, so key them by it
+      Type elementType = largestElementType((ArrayConstructorType) type);
+      return cached(
+          "ArrayConstructor::" + name,
+          elementType,
+          () -> createSetLike(name, typeFactory.arrayConstructor(List.of(elementType))));
+    }
+
+    return cached("Set::" + name, type, () -> createSetLike(name, type));
+  }
+
+  @Nullable
+  private static String getSetLikeOperatorName(BinaryOperator operator) {
     switch (operator) {
       case ADD:
-        name = "Add";
-        break;
+        return "Add";
       case SUBTRACT:
-        name = "Subtract";
-        break;
+        return "Subtract";
       case MULTIPLY:
-        name = "Multiply";
-        break;
+        return "Multiply";
       default:
-        name = null;
-    }
-
-    Set<Invocable> result = new HashSet<>();
-
-    if (name != null) {
-      if (type.isArrayConstructor()) {
-        type = normalizeArrayConstructor((ArrayConstructorType) type);
-      }
-      result.add(new OperatorIntrinsic(name, List.of(type, type), type));
+        return null;
     }
+  }
 
-    return result;
+  private static Set<Invocable> createSetLike(String name, Type type) {
+    return Sets.newHashSet(new OperatorIntrinsic(name, List.of(type, type), type));
   }
 
-  private Type normalizeArrayConstructor(ArrayConstructorType type) {
-    Type elementType =
-        type.elementTypes().stream()
-            .max(Comparator.comparingInt(Type::size))
-            .orElse(TypeFactory.voidType());
-    return typeFactory.arrayConstructor(List.of(elementType));
+  private static Type largestElementType(ArrayConstructorType type) {
+    return type.elementTypes().stream()
+        .max(Comparator.comparingInt(Type::size))
+        .orElse(TypeFactory.voidType());
   }
 
-  private static Set<Invocable> createDynamicArray(CollectionType type, Operator operator) {
-    Set<Invocable> result = new HashSet<>();
+  private Set<Invocable> createDynamicArray(CollectionType type, Operator operator) {
     if (operator == BinaryOperator.ADD) {
-      result.add(new OperatorIntrinsic("Add", List.of(type, type), type));
+      return cached(
+          "DynamicArray::Add",
+          type,
+          () -> Sets.newHashSet(new OperatorIntrinsic("Add", List.of(type, type), type)));
     }
-    return result;
+    return Collections.emptySet();
   }
 
   private Set<Invocable> createIntegerBinary(BinaryOperator operator) {
@@ -272,7 +334,7 @@ public class OperatorInvocableCollector {
       case SHR:
         return createShift("Right");
       default:
-        return Sets.newHashSet();
+        return Collections.emptySet();
     }
   }
 
@@ -287,7 +349,7 @@ public class OperatorInvocableCollector {
       case DIVIDE:
         return createDivide();
       default:
-        return Sets.newHashSet();
+        return Collections.emptySet();
     }
   }
 
@@ -300,17 +362,20 @@ public class OperatorInvocableCollector {
       case XOR:
         return createLogical("Xor");
       default:
-        return Sets.newHashSet();
+        return Collections.emptySet();
     }
   }
 
   private Set<Invocable> createString(BinaryOperator operator) {
-    Set<Invocable> result = Sets.newHashSet();
     if (operator == BinaryOperator.ADD) {
-      Type string = typeFactory.getIntrinsic(IntrinsicType.STRING);
-      result.add(new OperatorIntrinsic("Add", List.of(string, string), string));
+      return cached("String::Add", this::createStringAdd);
     }
-    return result;
+    return Collections.emptySet();
+  }
+
+  private Set<Invocable> createStringAdd() {
+    Type string = typeFactory.getIntrinsic(IntrinsicType.STRING);
+    return Sets.newHashSet(new OperatorIntrinsic("Add", List.of(string, string), string));
   }
 
   private Set<Invocable> createBitwiseAnd() {
@@ -321,6 +386,14 @@ public class OperatorInvocableCollector {
       return result;
     }
 
+    return cached("Integer::" + NAME, this::createIntegerBitwiseAnd);
+  }
+
+  private Set<Invocable> createIntegerBitwiseAnd() {
+    final String NAME = "BitwiseAnd";
+
+    Set<Invocable> result = new HashSet<>();
+
     Type int8 = typeFactory.getIntrinsic(IntrinsicType.SHORTINT);
     Type int16 = typeFactory.getIntrinsic(IntrinsicType.SMALLINT);
     Type int32 = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
@@ -356,6 +429,12 @@ public class OperatorInvocableCollector {
       return result;
     }
 
+    return cached("Integer::" + name, () -> createIntegerBitwiseOr(name));
+  }
+
+  private Set<Invocable> createIntegerBitwiseOr(String name) {
+    Set<Invocable> result = new HashSet<>();
+
     Type int8 = typeFactory.getIntrinsic(IntrinsicType.SHORTINT);
     Type int16 = typeFactory.getIntrinsic(IntrinsicType.SMALLINT);
     Type int32 = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
@@ -392,20 +471,22 @@ public class OperatorInvocableCollector {
   }
 
   private Set<Invocable> createNativeIntegerBinary(String name) {
-    Set<Invocable> result = Sets.newHashSet();
-
     Type nativeInt = typeFactory.getIntrinsic(IntrinsicType.NATIVEINT);
     Type nativeUInt = typeFactory.getIntrinsic(IntrinsicType.NATIVEUINT);
 
     if (!nativeInt.isWeakAlias()) {
       if (operands.stream().allMatch(o -> skipAlias(o).is(nativeInt))) {
-        result.add(new OperatorIntrinsic(name, List.of(nativeInt, nativeInt), nativeInt));
+        return cached("NativeInt::" + name, () -> createSameTypeBinary(name, nativeInt));
       } else if (operands.stream().allMatch(o -> skipAlias(o).is(nativeUInt))) {
-        result.add(new OperatorIntrinsic(name, List.of(nativeUInt, nativeUInt), nativeUInt));
+        return cached("NativeUInt::" + name, () -> createSameTypeBinary(name, nativeUInt));
       }
     }
 
-    return result;
+    return Collections.emptySet();
+  }
+
+  private static Set<Invocable> createSameTypeBinary(String name, Type type) {
+    return Sets.newHashSet(new OperatorIntrinsic(name, List.of(type, type), type));
   }
 
   private Set<Invocable> createIntegerArithmeticBinary(String name) {
@@ -423,6 +504,13 @@ public class OperatorInvocableCollector {
       return result;
     }
 
+    return cached(
+        "Integer::" + name, () -> createIntegerArithmeticIntrinsics(name, uint31ReturnType));
+  }
+
+  private Set<Invocable> createIntegerArithmeticIntrinsics(String name, Type uint31ReturnType) {
+    Set<Invocable> result = new HashSet<>();
+
     IntegerType integer = (IntegerType) typeFactory.getIntrinsic(IntrinsicType.INTEGER);
     Type int64 = typeFactory.getIntrinsic(IntrinsicType.INT64);
     Type cardinal = typeFactory.getIntrinsic(IntrinsicType.CARDINAL);
@@ -456,6 +544,10 @@ public class OperatorInvocableCollector {
   }
 
   private Set<Invocable> createRealArithmeticBinary(String name) {
+    return cached("Real::" + name, () -> createRealArithmeticIntrinsics(name));
+  }
+
+  private Set<Invocable> createRealArithmeticIntrinsics(String name) {
     Type integer = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
     Type extended = typeFactory.getIntrinsic(IntrinsicType.EXTENDED);
 
@@ -480,23 +572,42 @@ public class OperatorInvocableCollector {
   }
 
   private Set<Invocable> createDivide() {
-    Type extended = typeFactory.getIntrinsic(IntrinsicType.EXTENDED);
-    return Sets.newHashSet(new OperatorIntrinsic("Divide", List.of(extended, extended), extended));
+    return cached(
+        "Divide",
+        () -> {
+          Type extended = typeFactory.getIntrinsic(IntrinsicType.EXTENDED);
+          return Sets.newHashSet(
+              new OperatorIntrinsic("Divide", List.of(extended, extended), extended));
+        });
   }
 
   private Set<Invocable> createLogical(String suffix) {
-    Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
-    return Sets.newHashSet(new OperatorIntrinsic("Logical" + suffix, List.of(bool, bool), bool));
-  }
-
-  private Invocable createComparison(String name) {
-    Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
-    return new OperatorIntrinsic(name, List.of(untypedType(), untypedType()), bool);
-  }
-
-  private Invocable createIn() {
-    Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
-    return new OperatorIntrinsic("In", List.of(ANY_ORDINAL, ANY_SET), bool);
+    String name = "Logical" + suffix;
+    return cached(
+        name,
+        () -> {
+          Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
+          return Sets.newHashSet(new OperatorIntrinsic(name, List.of(bool, bool), bool));
+        });
+  }
+
+  private Set<Invocable> createComparison(String name) {
+    return cached(
+        name,
+        () -> {
+          Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
+          return Sets.newHashSet(
+              new OperatorIntrinsic(name, List.of(untypedType(), untypedType()), bool));
+        });
+  }
+
+  private Set<Invocable> createIn() {
+    return cached(
+        "In",
+        () -> {
+          Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
+          return Sets.newHashSet(new OperatorIntrinsic("In", List.of(ANY_ORDINAL, ANY_SET), bool));
+        });
   }
 
   private Set<Invocable> createShift(String prefix) {
@@ -509,10 +620,18 @@ public class OperatorInvocableCollector {
     if (!nativeInt.isWeakAlias()) {
       Type type = skipAlias(operands.get(0));
       if (type.is(nativeInt) || type.is(nativeUInt)) {
-        return Sets.newHashSet(new OperatorIntrinsic(name, List.of(type, integer), type));
+        return cached(
+            name,
+            type,
+            () -> Sets.newHashSet(new OperatorIntrinsic(name, List.of(type, integer), type)));
       }
     }
 
+    return cached("Integer::" + name, () -> createIntegerShift(name));
+  }
+
+  private Set<Invocable> createIntegerShift(String name) {
+    Type integer = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
     Type int64 = typeFactory.getIntrinsic(IntrinsicType.INT64);
     Type cardinal = typeFactory.getIntrinsic(IntrinsicType.CARDINAL);
     Type uint64 = typeFactory.getIntrinsic(IntrinsicType.UINT64);
@@ -536,7 +655,7 @@ public class OperatorInvocableCollector {
     } else if (type.isBoolean()) {
       result.addAll(createBooleanUnary(operator));
     } else if (type.isVariant()) {
-      result.add(createVariantUnary(operator));
+      result.addAll(createVariantUnary(operator));
     } else if (type.isStruct()) {
       result.addAll(collectOperatorOverloads((StructType) type, operator));
     }
@@ -570,9 +689,15 @@ public class OperatorInvocableCollector {
     Type operand = operands.get(0);
 
     if (operand.size() > 4) {
-      return Sets.newHashSet(new OperatorIntrinsic(NAME, List.of(operand), operand));
+      return cached(NAME, operand, () -> createSameTypeUnary(NAME, operand));
     }
 
+    return cached("Integer::" + NAME, this::createIntegerNegative);
+  }
+
+  private Set<Invocable> createIntegerNegative() {
+    final String NAME = "Negative";
+
     Type int32 = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
     Type uint32 = typeFactory.getIntrinsic(IntrinsicType.CARDINAL);
     Type int64 = typeFactory.getIntrinsic(IntrinsicType.INT64);
@@ -588,9 +713,15 @@ public class OperatorInvocableCollector {
     Type operand = operands.get(0);
 
     if (operand.size() >= 4) {
-      return Sets.newHashSet(new OperatorIntrinsic(NAME, List.of(operand), operand));
+      return cached(NAME, operand, () -> createSameTypeUnary(NAME, operand));
     }
 
+    return cached("Integer::" + NAME, this::createIntegerPositive);
+  }
+
+  private Set<Invocable> createIntegerPositive() {
+    final String NAME = "Positive";
+
     Type int32 = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
     Type uint31 = ((TypeFactoryImpl) typeFactory).anonymousUInt31();
 
@@ -601,42 +732,72 @@ public class OperatorInvocableCollector {
 
   private Set<Invocable> createBitwiseNot() {
     Type operand = operands.get(0);
-    return Sets.newHashSet(new OperatorIntrinsic("OnesComplement", List.of(operand), operand));
+    return cached("OnesComplement", operand, () -> createSameTypeUnary("OnesComplement", operand));
   }
 
-  private Set<Invocable> createRealUnary(UnaryOperator operator) {
-    Set<Invocable> result = Sets.newHashSet();
-
-    Type extended = typeFactory.getIntrinsic(IntrinsicType.EXTENDED);
+  private static Set<Invocable> createSameTypeUnary(String name, Type type) {
+    return Sets.newHashSet(new OperatorIntrinsic(name, List.of(type), type));
+  }
 
+  private Set<Invocable> createRealUnary(UnaryOperator operator) {
     switch (operator) {
       case PLUS:
-        result.add(new OperatorIntrinsic("Positive", List.of(extended), extended));
-        break;
+        return cached("Real::Positive", () -> createRealUnaryIntrinsic("Positive"));
       case NEGATE:
-        result.add(new OperatorIntrinsic("Negative", List.of(extended), extended));
-        break;
+        return cached("Real::Negative", () -> createRealUnaryIntrinsic("Negative"));
       default:
-        // do nothing
+        return Collections.emptySet();
     }
+  }
 
-    return result;
+  private Set<Invocable> createRealUnaryIntrinsic(String name) {
+    return createSameTypeUnary(name, typeFactory.getIntrinsic(IntrinsicType.EXTENDED));
   }
 
   private Set<Invocable> createBooleanUnary(UnaryOperator operator) {
-    Set<Invocable> result = Sets.newHashSet();
-
     if (operator == UnaryOperator.NOT) {
-      Type bool = typeFactory.getIntrinsic(IntrinsicType.BOOLEAN);
-      result.add(new OperatorIntrinsic("LogicalNot", List.of(bool), bool));
+      return cached(
+          "LogicalNot",
+          () -> createSameTypeUnary("LogicalNot", typeFactory.getIntrinsic(IntrinsicType.BOOLEAN)));
     }
-
-    return result;
+    return Collections.emptySet();
   }
 
-  private Invocable createVariantUnary(UnaryOperator operator) {
+  private Set<Invocable> createVariantUnary(UnaryOperator operator) {
     final String PREFIX = "Variant::";
-    Type variant = typeFactory.getIntrinsic(IntrinsicType.VARIANT);
-    return new OperatorIntrinsic(PREFIX + operator.name(), List.of(variant, variant), variant);
+    return cached(
+        "VariantUnary::" + operator.name(),
+        () -> {
+          Type variant = typeFactory.getIntrinsic(IntrinsicType.VARIANT);
+          return Sets.newHashSet(
+              new OperatorIntrinsic(PREFIX + operator.name(), List.of(variant, variant), variant));
+        });
+  }
+
+  private static final class IntrinsicKey {
+    private final String name;
+    private final Type type;
+
+    private IntrinsicKey(String name, @Nullable Type type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof IntrinsicKey)) {
+        return false;
+      }
+      IntrinsicKey that = (IntrinsicKey) o;
+      return name.equals(that.name) && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * name.hashCode() + System.identityHashCode(type);
+    }
   }
 }
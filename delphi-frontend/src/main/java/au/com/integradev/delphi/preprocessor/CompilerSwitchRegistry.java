@@ -18,25 +18,121 @@
  */
 package au.com.integradev.delphi.preprocessor;
 
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.Range;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
 import org.sonar.plugins.communitydelphi.api.directive.SwitchDirective.SwitchKind;
 
 public class CompilerSwitchRegistry {
-  private final Multimap<SwitchKind, Range<Integer>> rangesBySwitchKind;
+  private final Map<SwitchKind, List<int[]>> rangesBySwitchKind;
+  private volatile Map<SwitchKind, SwitchRanges> index;
 
   CompilerSwitchRegistry() {
-    rangesBySwitchKind = Multimaps.newSetMultimap(Maps.newEnumMap(SwitchKind.class), HashSet::new);
+    rangesBySwitchKind = new EnumMap<>(SwitchKind.class);
   }
 
   void addSwitch(SwitchKind kind, int startIndex, int endIndex) {
-    rangesBySwitchKind.put(kind, Range.closed(startIndex, endIndex));
+    rangesBySwitchKind
+        .computeIfAbsent(kind, k -> new ArrayList<>())
+        .add(new int[] {startIndex, endIndex});
+    index = null;
   }
 
   public boolean isActiveSwitch(SwitchKind kind, int tokenIndex) {
-    return rangesBySwitchKind.get(kind).stream().anyMatch(range -> range.contains(tokenIndex));
+    SwitchRanges ranges = getIndex().get(kind);
+    return ranges != null && ranges.contains(tokenIndex, tokenIndex);
+  }
+
+  /**
+   * Returns the switches that are active at a token.
+   *
+   * @param tokenIndex index of the token
+   * @return the switches active at the token
+   */
+  public Set<SwitchKind> getActiveSwitches(int tokenIndex) {
+    return getActiveSwitches(tokenIndex, tokenIndex);
+  }
+
+  /**
+   * Returns the switches that are active for every token in a span.
+   *
+   * @param startIndex index of the first token in the span
+   * @param endIndex index of the last token in the span
+   * @return the switches active throughout the span
+   */
+  public Set<SwitchKind> getActiveSwitches(int startIndex, int endIndex) {
+    Set<SwitchKind> result = EnumSet.noneOf(SwitchKind.class);
+    getIndex()
+        .forEach(
+            (kind, ranges) -> {
+              if (ranges.contains(startIndex, endIndex)) {
+                result.add(kind);
+              }
+            });
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Returns the switches that are active for every token in a node.
+   *
+   * @param node the node
+   * @return the switches active throughout the node
+   */
+  public Set<SwitchKind> getActiveSwitches(DelphiNode node) {
+    return getActiveSwitches(node.getFirstToken().getIndex(), node.getLastToken().getIndex());
+  }
+
+  private Map<SwitchKind, SwitchRanges> getIndex() {
+    Map<SwitchKind, SwitchRanges> result = index;
+    if (result == null) {
+      result = new EnumMap<>(SwitchKind.class);
+      for (Map.Entry<SwitchKind, List<int[]>> entry : rangesBySwitchKind.entrySet()) {
+        result.put(entry.getKey(), new SwitchRanges(entry.getValue()));
+      }
+      index = result;
+    }
+    return result;
+  }
+
+  /** Sorted, non-overlapping token index ranges in which a switch is active. */
+  private static final class SwitchRanges {
+    private final int[] starts;
+    private final int[] ends;
+
+    private SwitchRanges(List<int[]> ranges) {
+      int[][] sorted = ranges.toArray(new int[0][]);
+      Arrays.sort(sorted, Comparator.comparingInt(range -> range[0]));
+
+      int[] mergedStarts = new int[sorted.length];
+      int[] mergedEnds = new int[sorted.length];
+      int count = 0;
+      for (int[] range : sorted) {
+        if (count > 0 && range[0] <= mergedEnds[count - 1] + 1) {
+          mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], range[1]);
+        } else {
+          mergedStarts[count] = range[0];
+          mergedEnds[count] = range[1];
+          ++count;
+        }
+      }
+
+      this.starts = Arrays.copyOf(mergedStarts, count);
+      this.ends = Arrays.copyOf(mergedEnds, count);
+    }
+
+    private boolean contains(int startIndex, int endIndex) {
+      int position = Arrays.binarySearch(starts, startIndex);
+      if (position < 0) {
+        position = -position - 2;
+      }
+      return position >= 0 && endIndex <= ends[position];
+    }
   }
 }
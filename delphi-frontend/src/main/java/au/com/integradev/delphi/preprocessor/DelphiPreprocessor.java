@@ -18,9 +18,6 @@
  */
 package au.com.integradev.delphi.preprocessor;
 
-import static java.util.Comparator.comparingInt;
-
-import au.com.integradev.delphi.antlr.DelphiFileStream;
 import au.com.integradev.delphi.antlr.DelphiLexer;
 import au.com.integradev.delphi.antlr.DelphiTokenStream;
 import au.com.integradev.delphi.antlr.ast.token.DelphiTokenImpl;
@@ -41,12 +38,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.antlr.runtime.Token;
+import org.antlr.runtime.TokenSource;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,7 +59,7 @@ import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
 
 public class DelphiPreprocessor {
   private static final Logger LOG = LoggerFactory.getLogger(DelphiPreprocessor.class);
-  private final DelphiLexer lexer;
+  private final TokenSource tokenSource;
   private final DelphiFileConfig config;
   private final Platform platform;
   private final Set<String> definitions;
@@ -68,14 +68,27 @@ public class DelphiPreprocessor {
   private final Map<SwitchKind, Integer> currentSwitches;
   private final CompilerSwitchRegistry switchRegistry;
   private final TextBlockLineEndingModeRegistry textBlockLineEndingModeRegistry;
+  private final IncludeTokenCache includeTokenCache;
+  private final Set<Path> includeFiles;
   private final boolean processingIncludeFile;
 
   private DelphiTokenStream tokenStream;
-  private Set<Token> tokens;
+  private List<Token> tokens;
+  private Set<Token> deletedTokens;
+  private IdentityHashMap<Token, List<Token>> includedTokens;
   private List<Token> rawTokens;
   private int tokenIndex;
+  private int includeOffset;
 
   DelphiPreprocessor(DelphiLexer lexer, DelphiFileConfig config, Platform platform) {
+    this(lexer, config, platform, new IncludeTokenCache());
+  }
+
+  DelphiPreprocessor(
+      DelphiLexer lexer,
+      DelphiFileConfig config,
+      Platform platform,
+      IncludeTokenCache includeTokenCache) {
     this(
         lexer,
         config,
@@ -87,25 +100,29 @@ public class DelphiPreprocessor {
             platform == Platform.WINDOWS
                 ? TextBlockLineEndingMode.CRLF
                 : TextBlockLineEndingMode.LF),
+        includeTokenCache,
         0,
         false);
   }
 
   private DelphiPreprocessor(
-      DelphiLexer lexer,
+      TokenSource tokenSource,
       DelphiFileConfig config,
       Platform platform,
       Set<String> definitions,
       Map<SwitchKind, Integer> currentSwitches,
       CompilerSwitchRegistry switchRegistry,
       TextBlockLineEndingModeRegistry textBlockLineEndingModeRegistry,
+      IncludeTokenCache includeTokenCache,
       int tokenIndexStart,
       boolean processingIncludeFile) {
-    this.lexer = lexer;
+    this.tokenSource = tokenSource;
     this.config = config;
     this.platform = platform;
     this.switchRegistry = switchRegistry;
     this.textBlockLineEndingModeRegistry = textBlockLineEndingModeRegistry;
+    this.includeTokenCache = includeTokenCache;
+    this.includeFiles = new LinkedHashSet<>();
     this.definitions = definitions;
     this.directives = new ArrayList<>();
     this.parentDirective = new ArrayDeque<>();
@@ -123,16 +140,19 @@ public class DelphiPreprocessor {
   public void process() {
     Preconditions.checkState(
         tokenStream == null, "DelphiPreprocessor.process cannot be called twice.");
-    tokenStream = new DelphiTokenStream(lexer);
+    tokenStream = new DelphiTokenStream(tokenSource);
 
     tokenStream.fill();
-    tokens = extractTokens(tokenStream);
+    tokens = new ArrayList<>(tokenStream.getTokens());
+    deletedTokens = Collections.newSetFromMap(new IdentityHashMap<>());
+    includedTokens = new IdentityHashMap<>();
     rawTokens = List.copyOf(tokens);
     tokens.forEach(this::processToken);
     directives.stream()
         .map(CompilerDirectiveImpl.class::cast)
         .forEach(directive -> directive.execute(this));
-    tokenStream.setTokens(new ArrayList<>(tokens));
+    tokens = spliceTokens();
+    tokenStream.setTokens(tokens);
     tokenStream.reset();
 
     if (!processingIncludeFile) {
@@ -140,19 +160,54 @@ public class DelphiPreprocessor {
     }
   }
 
-  private static Set<Token> extractTokens(DelphiTokenStream tokenStream) {
-    Set<Token> result = new TreeSet<>(comparingInt(Token::getTokenIndex));
-    result.addAll(tokenStream.getTokens());
+  /**
+   * Builds the final token list by dropping deleted tokens and splicing the token runs of resolved
+   * include files in place of their include directives.
+   *
+   * <p>Token indices are only assigned here, once, rather than shifted on every include. Each token
+   * is offset by the combined length of the include runs that precede it, which matches the indices
+   * handed out by {@link #toFinalIndex} while the directives were being executed.
+   *
+   * @return the preprocessed token list
+   */
+  private List<Token> spliceTokens() {
+    List<Token> result = new ArrayList<>(tokens.size());
+    int offset = 0;
+    for (Token token : tokens) {
+      List<Token> include = includedTokens.get(token);
+      if (include != null) {
+        result.addAll(include);
+        offset += getTokenOffset(include);
+      } else {
+        token.setTokenIndex(token.getTokenIndex() + offset);
+        if (!deletedTokens.contains(token)) {
+          result.add(token);
+        }
+      }
+    }
     return result;
   }
 
+  /**
+   * Translates the index of a token in this file into its index in the final token list.
+   *
+   * <p>Directives are executed in token order, so every include that precedes the token has already
+   * been resolved and accounted for in {@code includeOffset}.
+   *
+   * @param tokenIndex index of the token before any includes were spliced in
+   * @return index of the token once includes have been spliced in
+   */
+  private int toFinalIndex(int tokenIndex) {
+    return tokenIndex + includeOffset;
+  }
+
   private void processToken(Token token) {
     token.setTokenIndex(tokenIndex);
     tokenIndex++;
 
     if (token.getType() == DelphiLexer.TkCompilerDirective) {
       var parser = new CompilerDirectiveParserImpl(platform, getTextBlockLineEndingModeRegistry());
-      DelphiToken directiveToken = new DelphiTokenImpl(token);
+      DelphiToken directiveToken = DelphiTokenImpl.of(token);
       parser.parse(directiveToken).ifPresent(this::processDirective);
     } else if (!parentDirective.isEmpty()) {
       parentDirective.peek().addToken(token);
@@ -185,15 +240,15 @@ public class DelphiPreprocessor {
   }
 
   public void deleteToken(Token token) {
-    tokens.remove(token);
+    deletedTokens.add(token);
   }
 
   public void resolveInclude(Token insertionToken, String includeFilePath) {
     includeFilePath =
         DelphiUtils.normalizeFileName(
-            includeFilePath.replace("*", FilenameUtils.getBaseName(lexer.getSourceName())));
+            includeFilePath.replace("*", FilenameUtils.getBaseName(tokenSource.getSourceName())));
 
-    String currentParentPath = Path.of(lexer.getSourceName()).getParent().toString();
+    String currentParentPath = Path.of(tokenSource.getSourceName()).getParent().toString();
     Path includeFile = Path.of(includeFilePath);
     if (!includeFile.isAbsolute()) {
       includeFile = Path.of(currentParentPath, includeFilePath);
@@ -203,12 +258,12 @@ public class DelphiPreprocessor {
     String includeFileName = includeFile.getFileName().toString();
     Path includePath = includeFile.getParent();
 
-    DelphiToken location = new DelphiTokenImpl(insertionToken);
-    List<Token> includeTokens = processIncludeFile(includeFileName, includePath, location);
+    int locationIndex = toFinalIndex(insertionToken.getTokenIndex());
+    List<Token> includeTokens =
+        processIncludeFile(includeFileName, includePath, insertionToken, locationIndex);
 
-    offsetTokenIndices(location.getIndex(), getTokenOffset(includeTokens));
-    deleteToken(insertionToken);
-    tokens.addAll(includeTokens);
+    includedTokens.put(insertionToken, includeTokens);
+    includeOffset += getTokenOffset(includeTokens);
   }
 
   private static int getTokenOffset(List<Token> tokens) {
@@ -218,40 +273,39 @@ public class DelphiPreprocessor {
     return 0;
   }
 
-  private void offsetTokenIndices(int startIndex, int offset) {
-    tokens.stream()
-        .filter(token -> token.getTokenIndex() > startIndex)
-        .forEach(token -> token.setTokenIndex(token.getTokenIndex() + offset));
-  }
-
-  private List<Token> processIncludeFile(String filename, Path includePath, DelphiToken location) {
+  private List<Token> processIncludeFile(
+      String filename, Path includePath, Token insertionToken, int locationIndex) {
     try {
       Path includeFile = config.getSearchPath().search(filename, includePath);
 
       if (includeFile != null) {
         String path = includeFile.toAbsolutePath().normalize().toString();
 
-        if (path.equals(lexer.getSourceName())) {
+        if (path.equals(tokenSource.getSourceName())) {
           throw new SelfReferencingIncludeFileException(
               "Include file <" + includeFile.toAbsolutePath() + "> references itself");
         }
 
-        DelphiFileStream fileStream = new DelphiFileStream(path, config.getEncoding());
-        DelphiLexer includeLexer = new DelphiLexer(fileStream);
+        includeFiles.add(Path.of(path));
+        TokenSource includeTokenSource =
+            includeTokenCache.getTokenSource(Path.of(path), config.getEncoding());
         DelphiPreprocessor preprocessor =
             new DelphiPreprocessor(
-                includeLexer,
+                includeTokenSource,
                 config,
                 platform,
                 definitions,
                 currentSwitches,
                 switchRegistry,
                 textBlockLineEndingModeRegistry,
-                location.getIndex(),
+                includeTokenCache,
+                locationIndex,
                 true);
 
         preprocessor.process();
+        includeFiles.addAll(preprocessor.getIncludeFiles());
 
+        DelphiToken location = DelphiTokenImpl.of(insertionToken);
         List<Token> includeTokens = preprocessor.getTokenStream().getTokens();
         return includeTokens.stream()
             .limit(includeTokens.size() - 1L)
@@ -299,6 +353,10 @@ public class DelphiPreprocessor {
   }
 
   public void handleSwitch(SwitchKind kind, int tokenIndex, boolean value) {
+    registerSwitch(kind, toFinalIndex(tokenIndex), value);
+  }
+
+  private void registerSwitch(SwitchKind kind, int tokenIndex, boolean value) {
     if (value) {
       currentSwitches.put(kind, tokenIndex);
       return;
@@ -313,7 +371,7 @@ public class DelphiPreprocessor {
   private void registerCurrentCompilerSwitches() {
     if (!tokens.isEmpty()) {
       int lastTokenIndex = Iterables.getLast(tokens).getTokenIndex();
-      currentSwitches.forEach((type, index) -> handleSwitch(type, lastTokenIndex, false));
+      currentSwitches.forEach((type, index) -> registerSwitch(type, lastTokenIndex, false));
     }
   }
 
@@ -333,7 +391,8 @@ public class DelphiPreprocessor {
         lineEndingMode = nativeLineEnding();
         break;
     }
-    textBlockLineEndingModeRegistry.registerLineEndingMode(lineEndingMode, tokenIndex);
+    textBlockLineEndingModeRegistry.registerLineEndingMode(
+        lineEndingMode, toFinalIndex(tokenIndex));
   }
 
   private TextBlockLineEndingMode nativeLineEnding() {
@@ -356,10 +415,20 @@ public class DelphiPreprocessor {
     return config.getTypeFactory();
   }
 
+  /**
+   * Returns the include files that were resolved while preprocessing, including those resolved from
+   * within other include files.
+   *
+   * @return absolute paths of the resolved include files, in the order they were first included
+   */
+  public Set<Path> getIncludeFiles() {
+    return Collections.unmodifiableSet(includeFiles);
+  }
+
   public List<DelphiToken> getRawTokens() {
     return rawTokens.stream()
         .filter(token -> token.getType() != Token.EOF)
-        .map(DelphiTokenImpl::new)
+        .map(DelphiTokenImpl::of)
         .collect(Collectors.toUnmodifiableList());
   }
 
@@ -24,12 +24,14 @@ import au.com.integradev.delphi.file.DelphiFileConfig;
 
 public final class DelphiPreprocessorFactory {
   private final Platform platform;
+  private final IncludeTokenCache includeTokenCache;
 
   public DelphiPreprocessorFactory(Platform platform) {
     this.platform = platform;
+    this.includeTokenCache = new IncludeTokenCache();
   }
 
   public DelphiPreprocessor createPreprocessor(DelphiLexer lexer, DelphiFileConfig config) {
-    return new DelphiPreprocessor(lexer, config, platform);
+    return new DelphiPreprocessor(lexer, config, platform, includeTokenCache);
   }
 }
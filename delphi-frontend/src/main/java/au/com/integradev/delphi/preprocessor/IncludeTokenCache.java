@@ -0,0 +1,139 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.preprocessor;
+
+import au.com.integradev.delphi.antlr.DelphiFileStream;
+import au.com.integradev.delphi.antlr.DelphiLexer;
+import au.com.integradev.delphi.antlr.DelphiTokenStream;
+import au.com.integradev.delphi.antlr.ast.token.DelphiCommonToken;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.TokenSource;
+
+/**
+ * Caches the lexed tokens of include files, so that a file included by many units is only lexed
+ * once.
+ *
+ * <p>Only the raw lexer output is cached. Every include hands out fresh copies of the tokens, which
+ * the including unit's preprocessor is then free to renumber, delete or splice as it evaluates the
+ * directives in its own context.
+ */
+final class IncludeTokenCache {
+  private final Map<Key, List<Token>> tokensByFile = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a token source over the tokens of an include file, lexing the file only if it hasn't
+   * been lexed since it was last modified.
+   *
+   * @param path the include file
+   * @param encoding encoding of the include file
+   * @return token source replaying copies of the lexed tokens
+   * @throws IOException if the include file could not be read
+   */
+  TokenSource getTokenSource(Path path, String encoding) throws IOException {
+    Key key = new Key(path, Files.getLastModifiedTime(path), encoding);
+    List<Token> tokens = tokensByFile.get(key);
+    if (tokens == null) {
+      tokens = lex(path, encoding);
+      List<Token> existing = tokensByFile.putIfAbsent(key, tokens);
+      if (existing != null) {
+        tokens = existing;
+      }
+    }
+    return new ReplayingTokenSource(path.toString(), tokens);
+  }
+
+  int size() {
+    return tokensByFile.size();
+  }
+
+  private static List<Token> lex(Path path, String encoding) throws IOException {
+    DelphiFileStream fileStream = new DelphiFileStream(path.toString(), encoding);
+    DelphiTokenStream tokenStream = new DelphiTokenStream(new DelphiLexer(fileStream));
+    tokenStream.fill();
+
+    List<Token> tokens = tokenStream.getTokens();
+    // Materialize the token text up front, so copies share it instead of re-reading the input.
+    tokens.forEach(token -> token.setText(token.getText()));
+    return List.copyOf(tokens);
+  }
+
+  private static final class ReplayingTokenSource implements TokenSource {
+    private final String sourceName;
+    private final List<Token> tokens;
+    private int index;
+
+    private ReplayingTokenSource(String sourceName, List<Token> tokens) {
+      this.sourceName = sourceName;
+      this.tokens = tokens;
+    }
+
+    @Override
+    public Token nextToken() {
+      Token token = tokens.get(index);
+      if (index < tokens.size() - 1) {
+        ++index;
+      }
+      return new DelphiCommonToken(token);
+    }
+
+    @Override
+    public String getSourceName() {
+      return sourceName;
+    }
+  }
+
+  private static final class Key {
+    private final Path path;
+    private final FileTime lastModified;
+    private final String encoding;
+
+    private Key(Path path, FileTime lastModified, String encoding) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.encoding = encoding;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key other = (Key) o;
+      return path.equals(other.path)
+          && lastModified.equals(other.lastModified)
+          && Objects.equals(encoding, other.encoding);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, lastModified, encoding);
+    }
+  }
+}
@@ -18,19 +18,21 @@
  */
 package au.com.integradev.delphi.preprocessor.search;
 
-import static java.util.Comparator.comparingInt;
-
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,13 +40,11 @@ import org.slf4j.LoggerFactory;
 public class DefaultSearchPath implements SearchPath {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultSearchPath.class);
   private final Set<Path> rootDirectories;
-  private final SetMultimap<Path, Path> filesByDirectory;
-  private final Set<Path> indexedPaths;
+  private final Map<Path, Map<String, Path>> filesByDirectory;
 
   DefaultSearchPath(List<Path> searchDirectories) {
     this.rootDirectories = Collections.unmodifiableSet(new LinkedHashSet<>(searchDirectories));
-    this.filesByDirectory = HashMultimap.create();
-    this.indexedPaths = new HashSet<>();
+    this.filesByDirectory = new ConcurrentHashMap<>();
 
     rootDirectories.forEach(this::indexIncludePath);
   }
@@ -52,14 +52,12 @@ public class DefaultSearchPath implements SearchPath {
   @Override
   @Nullable
   public Path search(String filename, Path includePath) {
-    if (!indexedPaths.contains(includePath)) {
-      indexIncludePath(includePath);
-    }
+    String key = createKey(filename);
 
-    Path path = findFileForPath(filename, includePath);
+    Path path = getFiles(includePath).get(key);
     if (path == null) {
       for (Path root : rootDirectories) {
-        path = findFileForPath(filename, root);
+        path = getFiles(root).get(key);
         if (path != null) {
           break;
         }
@@ -74,28 +72,67 @@ public class DefaultSearchPath implements SearchPath {
     return rootDirectories;
   }
 
-  private Set<Path> indexIncludePath(Path path) {
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-      for (Path child : stream) {
-        if (Files.isDirectory(child)) {
-          filesByDirectory.putAll(path, indexIncludePath(child));
-        } else {
-          filesByDirectory.put(path, child);
-        }
-      }
-    } catch (IOException e) {
-      LOG.info("Failed to index include path directory '{}'", path);
-      LOG.debug("Error while indexing search path:", e);
+  private Map<String, Path> getFiles(Path directory) {
+    Map<String, Path> files = filesByDirectory.get(directory);
+    if (files == null) {
+      files = indexIncludePath(directory);
     }
+    return files;
+  }
 
-    indexedPaths.add(path);
-    return filesByDirectory.get(path);
+  /**
+   * Indexes every file under a directory by its case-folded filename, keeping the shallowest file
+   * for each name. Subdirectories are walked in parallel, and each of them is indexed as well.
+   *
+   * @param path the directory to index
+   * @return the files under the directory, by case-folded filename
+   */
+  private Map<String, Path> indexIncludePath(Path path) {
+    return ForkJoinPool.commonPool().invoke(new IndexTask(path));
   }
 
-  private Path findFileForPath(String filename, Path path) {
-    return filesByDirectory.get(path).stream()
-        .filter(file -> filename.equalsIgnoreCase(file.getFileName().toString()))
-        .min(comparingInt(Path::getNameCount))
-        .orElse(null);
+  private static String createKey(String filename) {
+    return filename.toLowerCase(Locale.ROOT);
+  }
+
+  private static Path shallowest(Path a, Path b) {
+    return b.getNameCount() < a.getNameCount() ? b : a;
+  }
+
+  private final class IndexTask extends RecursiveTask<Map<String, Path>> {
+    private final Path directory;
+
+    private IndexTask(Path directory) {
+      this.directory = directory;
+    }
+
+    @Override
+    protected Map<String, Path> compute() {
+      Map<String, Path> files = new HashMap<>();
+      List<IndexTask> subdirectoryTasks = new ArrayList<>();
+
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+        for (Path child : stream) {
+          if (Files.isDirectory(child)) {
+            IndexTask task = new IndexTask(child);
+            task.fork();
+            subdirectoryTasks.add(task);
+          } else {
+            String key = createKey(child.getFileName().toString());
+            files.merge(key, child, DefaultSearchPath::shallowest);
+          }
+        }
+      } catch (IOException e) {
+        LOG.info("Failed to index include path directory '{}'", directory);
+        LOG.debug("Error while indexing search path:", e);
+      }
+
+      for (IndexTask task : subdirectoryTasks) {
+        task.join().forEach((name, file) -> files.merge(name, file, DefaultSearchPath::shallowest));
+      }
+
+      filesByDirectory.put(directory, files);
+      return files;
+    }
   }
 }
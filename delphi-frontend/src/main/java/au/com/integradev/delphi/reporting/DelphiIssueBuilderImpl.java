@@ -77,6 +77,7 @@ public final class DelphiIssueBuilderImpl implements DelphiIssueBuilder {
   private final SensorContext context;
   private final DelphiInputFile delphiFile;
   private final MasterCheckRegistrar checkRegistrar;
+  private final TestCodeIndex testCodeIndex;
   private FilePosition position;
   private String message;
   @Nullable private List<Location> secondaries;
@@ -90,10 +91,25 @@ public final class DelphiIssueBuilderImpl implements DelphiIssueBuilder {
       SensorContext context,
       DelphiInputFile delphiFile,
       MasterCheckRegistrar checkRegistrar) {
+    this(
+        check,
+        context,
+        delphiFile,
+        checkRegistrar,
+        new TestCodeIndex(context::config, delphiFile.getAst()));
+  }
+
+  public DelphiIssueBuilderImpl(
+      DelphiCheck check,
+      SensorContext context,
+      DelphiInputFile delphiFile,
+      MasterCheckRegistrar checkRegistrar,
+      TestCodeIndex testCodeIndex) {
     this.check = check;
     this.context = context;
     this.delphiFile = delphiFile;
     this.checkRegistrar = checkRegistrar;
+    this.testCodeIndex = testCodeIndex;
   }
 
   private static void requiresValueToBeSet(Object target, String targetName) {
@@ -249,7 +265,9 @@ public final class DelphiIssueBuilderImpl implements DelphiIssueBuilder {
       }
     }
 
-    newIssue.save();
+    synchronized (context) {
+      newIssue.save();
+    }
     reported = true;
   }
 
@@ -317,10 +335,7 @@ public final class DelphiIssueBuilderImpl implements DelphiIssueBuilder {
       return true;
     }
 
-    boolean inTestCode =
-        new TestCodeDetector(context.config()).isInTestCode(delphiFile.getAst(), position);
-
-    return (scope == RuleScope.TEST) == inTestCode;
+    return (scope == RuleScope.TEST) == testCodeIndex.isInTestCode(position);
   }
 
   private static TextRange createTextRange(InputFile inputFile, FilePosition position) {
@@ -45,12 +45,14 @@ public class TestCodeDetector {
   }
 
   public boolean isInTestCode(DelphiAst ast, FilePosition position) {
-    Type type = findEnclosingType(ast, position);
-    return isTestType(type) || isNestedInsideTestType(type);
+    return isTestCode(findEnclosingType(ast, position));
   }
 
   public boolean isInTestCode(DelphiNode node) {
-    Type type = findEnclosingType(node.getAst(), FilePosition.from(node));
+    return isTestCode(findEnclosingType(node.getAst(), FilePosition.from(node)));
+  }
+
+  boolean isTestCode(Type type) {
     return isTestType(type) || isNestedInsideTestType(type);
   }
 
@@ -0,0 +1,189 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.reporting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Configuration;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
+import org.sonar.plugins.communitydelphi.api.ast.RoutineImplementationNode;
+import org.sonar.plugins.communitydelphi.api.ast.TypeDeclarationNode;
+import org.sonar.plugins.communitydelphi.api.check.FilePosition;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.TypeNameDeclaration;
+import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
+
+/**
+ * An index of the test code regions in a file, answering the same question as {@link
+ * TestCodeDetector#isInTestCode(DelphiAst, FilePosition)} without searching the AST on every query.
+ *
+ * <p>The configuration is read, and the type declarations and routine implementations of the file
+ * are collected, the first time the index is queried. Each is resolved to test or main code once,
+ * and stored as a region sorted by position. Finding the innermost region enclosing a file position
+ * is then a binary search.
+ */
+public final class TestCodeIndex {
+  private static final Comparator<Region> REGION_ORDER =
+      Comparator.<Region>comparingInt(region -> region.beginLine)
+          .thenComparingInt(region -> region.beginColumn)
+          .thenComparing(
+              Comparator.<Region>comparingInt(region -> region.endLine)
+                  .thenComparingInt(region -> region.endColumn)
+                  .reversed());
+
+  private final Supplier<Configuration> config;
+  private final DelphiAst ast;
+  private Regions typeRegions;
+  private Regions routineRegions;
+  private boolean outsideRegionsIsTest;
+
+  public TestCodeIndex(Supplier<Configuration> config, DelphiAst ast) {
+    this.config = config;
+    this.ast = ast;
+  }
+
+  public boolean isInTestCode(@Nullable FilePosition position) {
+    if (typeRegions == null) {
+      build();
+    }
+
+    if (position != null) {
+      Region type = typeRegions.findInnermost(position);
+      if (type != null) {
+        return type.test;
+      }
+
+      Region routine = routineRegions.findInnermost(position);
+      if (routine != null) {
+        return routine.test;
+      }
+    }
+
+    return outsideRegionsIsTest;
+  }
+
+  private void build() {
+    TestCodeDetector detector = new TestCodeDetector(config.get());
+
+    List<Region> types = new ArrayList<>();
+    for (TypeDeclarationNode node : ast.findDescendantsOfType(TypeDeclarationNode.class)) {
+      types.add(new Region(node, detector.isTestCode(node.getType())));
+    }
+
+    List<Region> routines = new ArrayList<>();
+    for (RoutineImplementationNode node :
+        ast.findDescendantsOfType(RoutineImplementationNode.class)) {
+      TypeNameDeclaration typeDeclaration = node.getTypeDeclaration();
+      boolean test =
+          detector.isTestCode(
+              typeDeclaration == null ? TypeFactory.unknownType() : typeDeclaration.getType());
+      routines.add(new Region(node, test));
+    }
+
+    typeRegions = new Regions(types);
+    routineRegions = new Regions(routines);
+    outsideRegionsIsTest = detector.isTestCode(TypeFactory.unknownType());
+  }
+
+  private static final class Regions {
+    private final Region[] regions;
+
+    private Regions(List<Region> regions) {
+      this.regions = regions.toArray(new Region[0]);
+      Arrays.sort(this.regions, REGION_ORDER);
+
+      // Regions come from AST nodes, so they're either nested or disjoint.
+      Deque<Region> enclosing = new ArrayDeque<>();
+      for (Region region : this.regions) {
+        while (!enclosing.isEmpty() && !enclosing.peek().endsAfter(region)) {
+          enclosing.pop();
+        }
+        region.parent = enclosing.peek();
+        enclosing.push(region);
+      }
+    }
+
+    @Nullable
+    private Region findInnermost(FilePosition position) {
+      // Any region enclosing the position must also enclose the last region that starts before it.
+      Region region = findLastStartingBefore(position);
+      while (region != null && !region.endsAfter(position)) {
+        region = region.parent;
+      }
+      return region;
+    }
+
+    @Nullable
+    private Region findLastStartingBefore(FilePosition position) {
+      int low = 0;
+      int high = regions.length - 1;
+      Region result = null;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (regions[mid].startsBefore(position)) {
+          result = regions[mid];
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Region {
+    private final int beginLine;
+    private final int beginColumn;
+    private final int endLine;
+    private final int endColumn;
+    private final boolean test;
+    private Region parent;
+
+    private Region(DelphiNode node, boolean test) {
+      this.beginLine = node.getBeginLine();
+      this.beginColumn = node.getBeginColumn();
+      this.endLine = node.getEndLine();
+      this.endColumn = node.getEndColumn();
+      this.test = test;
+    }
+
+    private boolean startsBefore(FilePosition position) {
+      return beginLine < position.getBeginLine()
+          || (beginLine == position.getBeginLine() && beginColumn <= position.getBeginColumn());
+    }
+
+    private boolean endsAfter(FilePosition position) {
+      return endsAfter(position.getEndLine(), position.getEndColumn());
+    }
+
+    private boolean endsAfter(Region region) {
+      return endsAfter(region.endLine, region.endColumn);
+    }
+
+    private boolean endsAfter(int line, int column) {
+      return endLine > line || (endLine == line && endColumn >= column);
+    }
+  }
+}
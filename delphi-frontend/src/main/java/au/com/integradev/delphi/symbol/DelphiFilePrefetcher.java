@@ -0,0 +1,156 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.symbol;
+
+import au.com.integradev.delphi.file.DelphiFile;
+import au.com.integradev.delphi.file.DelphiFileConfig;
+import au.com.integradev.delphi.symbol.SymbolTableBuilder.SymbolTableConstructionException;
+import com.google.common.base.Throwables;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parses files on a thread pool ahead of symbol table construction.
+ *
+ * <p>Files are parsed in the order that they are predicted to be requested, and only a bounded
+ * number of parsed files are held at any time. Files that were not predicted are parsed on the
+ * calling thread, and predicted files that get skipped over are discarded.
+ */
+class DelphiFilePrefetcher implements AutoCloseable {
+  private final ExecutorService executor;
+  private final List<Request> requests;
+  private final Map<Key, Integer> positions = new HashMap<>();
+  private final Map<Key, Future<DelphiFile>> pending = new HashMap<>();
+  private final int capacity;
+  private int nextRequest;
+
+  DelphiFilePrefetcher(ExecutorService executor, List<Request> requests, int capacity) {
+    this.executor = executor;
+    this.requests = requests;
+    this.capacity = capacity;
+
+    for (int i = 0; i < requests.size(); ++i) {
+      positions.putIfAbsent(requests.get(i).key, i);
+    }
+
+    fill();
+  }
+
+  DelphiFile parse(Path path, DelphiFileConfig config) {
+    Key key = new Key(path, config.shouldSkipImplementation());
+    Future<DelphiFile> future = pending.remove(key);
+
+    Integer position = positions.get(key);
+    if (position != null) {
+      discardBefore(position);
+      nextRequest = Math.max(nextRequest, position + 1);
+      fill();
+    }
+
+    if (future == null) {
+      return DelphiFile.from(path.toFile(), config);
+    }
+
+    return await(future);
+  }
+
+  private void discardBefore(int position) {
+    pending
+        .entrySet()
+        .removeIf(
+            entry -> {
+              if (positions.get(entry.getKey()) < position) {
+                entry.getValue().cancel(true);
+                return true;
+              }
+              return false;
+            });
+  }
+
+  private void fill() {
+    while (pending.size() < capacity && nextRequest < requests.size()) {
+      Request request = requests.get(nextRequest++);
+      pending.put(
+          request.key,
+          executor.submit(() -> DelphiFile.from(request.key.path.toFile(), request.config)));
+    }
+  }
+
+  static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SymbolTableConstructionException(e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new SymbolTableConstructionException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    pending.values().forEach(future -> future.cancel(true));
+    pending.clear();
+    executor.shutdownNow();
+  }
+
+  static final class Request {
+    private final Key key;
+    private final DelphiFileConfig config;
+
+    Request(Path path, DelphiFileConfig config) {
+      this.key = new Key(path, config.shouldSkipImplementation());
+      this.config = config;
+    }
+  }
+
+  private static final class Key {
+    private final Path path;
+    private final boolean skipImplementation;
+
+    private Key(Path path, boolean skipImplementation) {
+      this.path = path;
+      this.skipImplementation = skipImplementation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key other = (Key) o;
+      return skipImplementation == other.skipImplementation && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, skipImplementation);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.symbol;
+
+import au.com.integradev.delphi.symbol.occurrence.NameOccurrenceImpl;
+import com.google.errorprone.annotations.Immutable;
+import org.sonar.plugins.communitydelphi.api.symbol.NameOccurrence;
+
+/**
+ * A case-insensitive name, suitable for use as a hash key.
+ *
+ * <p>The name is case-folded once up front, so lookups only need to hash and compare the folded
+ * string. Two names are equal under the same rules as {@link String#CASE_INSENSITIVE_ORDER}.
+ */
+@Immutable
+public final class NameKey {
+  private final String folded;
+
+  private NameKey(String folded) {
+    this.folded = folded;
+  }
+
+  public static NameKey of(String name) {
+    return new NameKey(fold(name));
+  }
+
+  public static NameKey of(NameOccurrence occurrence) {
+    if (occurrence instanceof NameOccurrenceImpl) {
+      return ((NameOccurrenceImpl) occurrence).getNameKey();
+    }
+    return of(occurrence.getImage());
+  }
+
+  private static String fold(String name) {
+    for (int i = 0; i < name.length(); ++i) {
+      char c = name.charAt(i);
+      if (fold(c) != c) {
+        char[] chars = name.toCharArray();
+        for (int j = i; j < chars.length; ++j) {
+          chars[j] = fold(chars[j]);
+        }
+        return new String(chars);
+      }
+    }
+    return name;
+  }
+
+  private static char fold(char c) {
+    if (c < 0x80) {
+      return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+    // Mirrors the character comparison done by String.CASE_INSENSITIVE_ORDER
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return folded.equals(((NameKey) o).folded);
+  }
+
+  @Override
+  public int hashCode() {
+    return folded.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return folded;
+  }
+}
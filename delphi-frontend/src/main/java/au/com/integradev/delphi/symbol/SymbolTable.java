@@ -18,12 +18,20 @@
  */
 package au.com.integradev.delphi.symbol;
 
+import au.com.integradev.delphi.file.DelphiFile;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclaration;
 
 public class SymbolTable {
   private final Map<String, UnitNameDeclaration> unitsByFilePath = new HashMap<>();
+  private final Map<String, Set<Path>> includeFilesByPath = new HashMap<>();
+  private final Map<String, DelphiFile> retainedFilesByPath = new ConcurrentHashMap<>();
 
   public void addUnit(String path, UnitNameDeclaration declaration) {
     unitsByFilePath.put(path, declaration);
@@ -33,6 +41,53 @@ public class SymbolTable {
     return unitsByFilePath.get(path);
   }
 
+  void addIncludeFiles(String path, Set<Path> includeFiles) {
+    includeFilesByPath.put(path, includeFiles);
+  }
+
+  /**
+   * Returns the include files that a source file resolved when it was fully parsed during symbol
+   * table construction.
+   *
+   * @param path Absolute path of the source file
+   * @return absolute paths of the include files, or an empty set if the file wasn't fully parsed
+   */
+  public Set<Path> getIncludeFiles(String path) {
+    return includeFilesByPath.getOrDefault(path, Collections.emptySet());
+  }
+
+  void retainFile(String path, DelphiFile delphiFile) {
+    retainedFilesByPath.put(path, delphiFile);
+  }
+
+  int getRetainedFileCount() {
+    return retainedFilesByPath.size();
+  }
+
+  /**
+   * Hands off a fully-parsed file that was retained during symbol table construction.
+   *
+   * <p>The symbol table releases its reference to the file, so it can be garbage collected once the
+   * caller is done with it.
+   *
+   * @param path Absolute path of the file
+   * @return the retained file, or null if the file was not retained
+   */
+  @Nullable
+  public DelphiFile takeRetainedFile(String path) {
+    return retainedFilesByPath.remove(path);
+  }
+
+  /**
+   * Releases the files retained during symbol table construction that won't be handed off, so they
+   * can be garbage collected.
+   *
+   * @param paths Absolute paths of the files that may still be handed off
+   */
+  public void releaseRetainedFilesExcept(Set<String> paths) {
+    retainedFilesByPath.keySet().retainAll(paths);
+  }
+
   public static SymbolTableBuilder builder() {
     return new SymbolTableBuilder();
   }
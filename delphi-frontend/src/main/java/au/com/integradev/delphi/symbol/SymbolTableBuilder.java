@@ -28,19 +28,25 @@ import au.com.integradev.delphi.file.DelphiFile.DelphiFileConstructionException;
 import au.com.integradev.delphi.file.DelphiFileConfig;
 import au.com.integradev.delphi.preprocessor.DelphiPreprocessorFactory;
 import au.com.integradev.delphi.preprocessor.search.SearchPath;
+import au.com.integradev.delphi.symbol.UnitImportScanner.UnitImports;
 import au.com.integradev.delphi.symbol.declaration.UnitImportNameDeclarationImpl;
 import au.com.integradev.delphi.symbol.scope.FileScopeImpl;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -69,8 +75,8 @@ public class SymbolTableBuilder {
   private static final Logger LOG = LoggerFactory.getLogger(SymbolTableBuilder.class);
 
   private final SymbolTable symbolTable = new SymbolTable();
-  private final Set<UnitData> sourceFileUnits = new HashSet<>();
-  private final HashMap<String, UnitData> allUnitsByName = new HashMap<>();
+  private final Set<UnitData> sourceFileUnits = new LinkedHashSet<>();
+  private final HashMap<NameKey, UnitData> allUnitsByName = new HashMap<>();
   private final Set<Path> unitPaths = new HashSet<>();
   private String encoding;
   private DelphiPreprocessorFactory preprocessorFactory;
@@ -81,11 +87,14 @@ public class SymbolTableBuilder {
   private List<Path> referencedFiles = Collections.emptyList();
   private Set<String> conditionalDefines = Collections.emptySet();
   private Set<String> unitScopeNames = Collections.emptySet();
-  private Map<String, String> unitAliases = Collections.emptyMap();
+  private Map<NameKey, String> unitAliases = Collections.emptyMap();
+  private int retainedFileLimit;
+  private int threads = 1;
 
   private SystemScope systemScope;
   private SysInitScope sysInitScope;
   private int nestingLevel;
+  private DelphiFilePrefetcher filePrefetcher;
 
   SymbolTableBuilder() {
     // package-private constructor
@@ -132,8 +141,18 @@ public class SymbolTableBuilder {
   }
 
   public SymbolTableBuilder unitAliases(Map<String, String> unitAliases) {
-    this.unitAliases = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-    this.unitAliases.putAll(unitAliases);
+    this.unitAliases = new HashMap<>();
+    unitAliases.forEach((alias, unitName) -> this.unitAliases.put(NameKey.of(alias), unitName));
+    return this;
+  }
+
+  public SymbolTableBuilder retainedFileLimit(int retainedFileLimit) {
+    this.retainedFileLimit = retainedFileLimit;
+    return this;
+  }
+
+  public SymbolTableBuilder threads(int threads) {
+    this.threads = threads;
     return this;
   }
 
@@ -193,9 +212,10 @@ public class SymbolTableBuilder {
         sourceFileUnits.add(unitData);
       }
 
-      UnitData existing = allUnitsByName.get(unitName.toLowerCase());
+      NameKey key = NameKey.of(unitName);
+      UnitData existing = allUnitsByName.get(key);
       if (existing == null || existing.unitFile.equals(unitPath)) {
-        allUnitsByName.put(unitName.toLowerCase(), unitData);
+        allUnitsByName.put(key, unitData);
       }
     }
   }
@@ -219,40 +239,46 @@ public class SymbolTableBuilder {
 
   @Nullable
   private UnitData searchForImport(UnitNameDeclaration unit, Qualifiable qualifiableImportName) {
-    String importName = qualifiableImportName.fullyQualifiedName();
-    String aliased = unitAliases.get(importName);
+    return searchForImport(
+        unit.getImage(),
+        unit.getNamespace(),
+        qualifiableImportName.fullyQualifiedName(),
+        qualifiableImportName.isQualified());
+  }
+
+  @Nullable
+  private UnitData searchForImport(
+      String unitName, String namespace, String importName, boolean isQualified) {
+    String aliased = unitAliases.get(NameKey.of(importName));
 
     if (aliased != null) {
       importName = aliased;
     }
 
-    UnitData data = findImportByName(unit, importName);
+    UnitData data = findImportByName(unitName, importName);
 
     if (data == null) {
       for (String unitScopeName : unitScopeNames) {
-        data = findImportByName(unit, unitScopeName + "." + importName);
+        data = findImportByName(unitName, unitScopeName + "." + importName);
         if (data != null) {
           break;
         }
       }
     }
 
-    if (data == null) {
-      String namespace = unit.getNamespace();
-      if (!qualifiableImportName.isQualified() && !namespace.isEmpty()) {
-        data = findImportByName(unit, namespace + "." + importName);
-      }
+    if (data == null && !isQualified && !namespace.isEmpty()) {
+      data = findImportByName(unitName, namespace + "." + importName);
     }
 
     return data;
   }
 
   @Nullable
-  private UnitData findImportByName(UnitNameDeclaration unit, String importName) {
-    if (unit.getImage().equalsIgnoreCase(importName)) {
+  private UnitData findImportByName(String unitName, String importName) {
+    if (unitName.equalsIgnoreCase(importName)) {
       return null;
     }
-    return allUnitsByName.get(importName.toLowerCase());
+    return allUnitsByName.get(NameKey.of(importName));
   }
 
   private DelphiFileConfig createFileConfig(UnitData unit, boolean shouldSkipImplementation) {
@@ -281,7 +307,7 @@ public class SymbolTableBuilder {
 
       boolean shouldSkipImplementation = (resolutionLevel != ResolutionLevel.COMPLETE);
       DelphiFileConfig fileConfig = createFileConfig(unit, shouldSkipImplementation);
-      DelphiFile delphiFile = DelphiFile.from(unit.unitFile.toFile(), fileConfig);
+      DelphiFile delphiFile = parse(unit, fileConfig);
 
       if (unit.resolved == ResolutionLevel.NONE) {
         runSymbolTableVisitor(unit, delphiFile, ResolutionLevel.INTERFACE);
@@ -292,6 +318,8 @@ public class SymbolTableBuilder {
         runSymbolTableVisitor(unit, delphiFile, ResolutionLevel.COMPLETE);
         processImportsWithInlineRoutines(unit);
         runDependencyAnalysisVisitor(unit, delphiFile, ResolutionLevel.COMPLETE);
+        recordIncludeFiles(unit, delphiFile);
+        retainFile(unit, delphiFile);
       }
     } catch (DelphiFileConstructionException e) {
       String error = String.format("Error while processing %s", unit.unitFile.toAbsolutePath());
@@ -301,6 +329,13 @@ public class SymbolTableBuilder {
     }
   }
 
+  private DelphiFile parse(UnitData unit, DelphiFileConfig fileConfig) {
+    if (filePrefetcher != null) {
+      return filePrefetcher.parse(unit.unitFile, fileConfig);
+    }
+    return DelphiFile.from(unit.unitFile.toFile(), fileConfig);
+  }
+
   private void runSymbolTableVisitor(
       UnitData unit, DelphiFile delphiFile, ResolutionLevel resolutionLevel) {
     var data =
@@ -318,8 +353,9 @@ public class SymbolTableBuilder {
       String filePath = unit.unitFile.toAbsolutePath().toString();
       unit.unitDeclaration = data.getUnitDeclaration();
       symbolTable.addUnit(filePath, unit.unitDeclaration);
+      FileScopeImpl fileScope = (FileScopeImpl) data.getUnitDeclaration().getFileScope();
+      fileScope.clearImportLookups();
       if (!unit.isSourceFile) {
-        FileScopeImpl fileScope = (FileScopeImpl) data.getUnitDeclaration().getFileScope();
         fileScope.unregisterScopes();
         fileScope.unregisterDeclarations();
         fileScope.unregisterOccurrences();
@@ -329,6 +365,19 @@ public class SymbolTableBuilder {
     unit.resolved = resolutionLevel;
   }
 
+  private void recordIncludeFiles(UnitData unit, DelphiFile delphiFile) {
+    if (unit.isSourceFile) {
+      String filePath = unit.unitFile.toAbsolutePath().toString();
+      symbolTable.addIncludeFiles(filePath, delphiFile.getIncludeFiles());
+    }
+  }
+
+  private void retainFile(UnitData unit, DelphiFile delphiFile) {
+    if (unit.isSourceFile && symbolTable.getRetainedFileCount() < retainedFileLimit) {
+      symbolTable.retainFile(unit.unitFile.toAbsolutePath().toString(), delphiFile);
+    }
+  }
+
   private static void runDependencyAnalysisVisitor(
       UnitData unit, DelphiFile delphiFile, ResolutionLevel resolutionLevel) {
     var data = new DependencyAnalysisVisitor.Data(unit.unitDeclaration);
@@ -358,7 +407,7 @@ public class SymbolTableBuilder {
             .filter(Objects::nonNull)
             .filter(SymbolTableBuilder::hasInlineRoutines)
             .map(UnitNameDeclaration::getName)
-            .map(name -> findImportByName(unit.unitDeclaration, name))
+            .map(name -> findImportByName(unit.unitDeclaration.getImage(), name))
             .filter(Objects::nonNull)
             .filter(unitData -> unitData.resolved == ResolutionLevel.INTERFACE)
             .collect(Collectors.toSet());
@@ -397,7 +446,7 @@ public class SymbolTableBuilder {
   }
 
   private UnitData getRequiredUnit(String unit) {
-    UnitData data = allUnitsByName.get(unit.toLowerCase());
+    UnitData data = allUnitsByName.get(NameKey.of(unit));
     if (data != null) {
       return data;
     }
@@ -472,19 +521,134 @@ public class SymbolTableBuilder {
 
     boolean success = false;
 
-    try {
+    try (DelphiFilePrefetcher prefetcher = createFilePrefetcher()) {
+      filePrefetcher = prefetcher;
       for (UnitData unit : sourceFileUnits) {
         indexUnit(unit, ResolutionLevel.COMPLETE);
         progressReport.nextFile();
       }
       success = true;
     } finally {
+      filePrefetcher = null;
       stopProgressReport(progressReport, success);
     }
 
     return symbolTable;
   }
 
+  /**
+   * Symbol resolution mutates the scopes of imported units, so units are resolved one at a time.
+   * Parsing is independent per file though, so with multiple threads we scan the import graph up
+   * front and use it to parse files ahead of the resolver, in the order it will ask for them.
+   */
+  @Nullable
+  private DelphiFilePrefetcher createFilePrefetcher() {
+    if (threads <= 1) {
+      return null;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      ImportGraph importGraph = scanImportGraph(executor);
+      List<DelphiFilePrefetcher.Request> parseOrder = new ArrayList<>();
+      Map<UnitData, ResolutionLevel> predicted = new HashMap<>();
+      for (UnitData unit : sourceFileUnits) {
+        predictParses(unit, ResolutionLevel.COMPLETE, importGraph, predicted, parseOrder);
+      }
+      LOG.debug("Predicted {} parses from the import graph", parseOrder.size());
+      return new DelphiFilePrefetcher(executor, parseOrder, threads * 2);
+    } catch (RuntimeException e) {
+      executor.shutdownNow();
+      throw e;
+    }
+  }
+
+  private ImportGraph scanImportGraph(ExecutorService executor) {
+    ImportGraph importGraph = new ImportGraph();
+    Set<UnitData> frontier = new LinkedHashSet<>(sourceFileUnits);
+
+    while (!frontier.isEmpty()) {
+      Map<UnitData, Future<UnitImports>> scans = new LinkedHashMap<>();
+      for (UnitData unit : frontier) {
+        DelphiFileConfig fileConfig = createFileConfig(unit, !unit.isSourceFile);
+        scans.put(unit, executor.submit(() -> scanImports(unit, fileConfig)));
+      }
+
+      Set<UnitData> next = new LinkedHashSet<>();
+      for (Map.Entry<UnitData, Future<UnitImports>> scan : scans.entrySet()) {
+        UnitData unit = scan.getKey();
+        UnitImports imports = DelphiFilePrefetcher.await(scan.getValue());
+        String unitName =
+            Objects.requireNonNullElse(
+                imports.getUnitName(), FilenameUtils.getBaseName(unit.unitFile.toString()));
+
+        List<UnitData> interfaceImports = resolveImports(unitName, imports.getInterfaceImports());
+        List<UnitData> implementationImports =
+            resolveImports(unitName, imports.getImplementationImports());
+        importGraph.interfaceImports.put(unit, interfaceImports);
+        importGraph.implementationImports.put(unit, implementationImports);
+
+        Stream.concat(interfaceImports.stream(), implementationImports.stream())
+            .filter(Predicate.not(importGraph.interfaceImports::containsKey))
+            .filter(Predicate.not(scans::containsKey))
+            .forEach(next::add);
+      }
+      frontier = next;
+    }
+
+    return importGraph;
+  }
+
+  private static UnitImports scanImports(UnitData unit, DelphiFileConfig fileConfig) {
+    try {
+      return UnitImportScanner.scan(unit.unitFile, fileConfig);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to scan imports of {}", unit.unitFile.toAbsolutePath(), e);
+      return UnitImports.EMPTY;
+    }
+  }
+
+  private List<UnitData> resolveImports(String unitName, List<String> importNames) {
+    int dot = unitName.lastIndexOf('.');
+    String namespace = dot == -1 ? "" : unitName.substring(0, dot);
+    return importNames.stream()
+        .map(name -> searchForImport(unitName, namespace, name, name.contains(".")))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Mirrors the recursion in {@link #process} to predict the order in which files will be parsed.
+   */
+  private void predictParses(
+      UnitData unit,
+      ResolutionLevel resolutionLevel,
+      ImportGraph importGraph,
+      Map<UnitData, ResolutionLevel> predicted,
+      List<DelphiFilePrefetcher.Request> parseOrder) {
+    ResolutionLevel resolved = predicted.getOrDefault(unit, unit.resolved);
+    if (resolved.ordinal() >= resolutionLevel.ordinal()) {
+      return;
+    }
+
+    boolean shouldSkipImplementation = (resolutionLevel != ResolutionLevel.COMPLETE);
+    DelphiFileConfig fileConfig = createFileConfig(unit, shouldSkipImplementation);
+    parseOrder.add(new DelphiFilePrefetcher.Request(unit.unitFile, fileConfig));
+    predicted.put(unit, resolutionLevel);
+
+    if (resolved == ResolutionLevel.NONE) {
+      for (UnitData imported : importGraph.interfaceImports.getOrDefault(unit, List.of())) {
+        predictParses(imported, ResolutionLevel.INTERFACE, importGraph, predicted, parseOrder);
+      }
+    }
+
+    if (resolutionLevel == ResolutionLevel.COMPLETE) {
+      for (UnitData imported : importGraph.implementationImports.getOrDefault(unit, List.of())) {
+        predictParses(imported, ResolutionLevel.INTERFACE, importGraph, predicted, parseOrder);
+      }
+    }
+  }
+
   private Iterable<String> getSourceFileNames() {
     return sourceFileUnits.stream()
         .map(data -> data.unitFile)
@@ -498,6 +662,11 @@ public class SymbolTableBuilder {
     COMPLETE
   }
 
+  private static final class ImportGraph {
+    private final Map<UnitData, List<UnitData>> interfaceImports = new HashMap<>();
+    private final Map<UnitData, List<UnitData>> implementationImports = new HashMap<>();
+  }
+
   private static final class UnitData {
     private final Path unitFile;
     private final boolean isSourceFile;
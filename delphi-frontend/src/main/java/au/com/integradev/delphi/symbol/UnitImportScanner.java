@@ -0,0 +1,297 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.symbol;
+
+import au.com.integradev.delphi.antlr.DelphiFileStream;
+import au.com.integradev.delphi.antlr.DelphiLexer;
+import au.com.integradev.delphi.file.DelphiFileConfig;
+import au.com.integradev.delphi.preprocessor.DelphiPreprocessor;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.antlr.runtime.CharStream;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Extracts the imports of a unit from its preprocessed tokens, without parsing it.
+ *
+ * <p>This is much cheaper than parsing, but it only recognizes the unit header and the import
+ * clauses. Callers should treat the result as a prediction of what the parser will find.
+ *
+ * <p>Lexing stops once the import clauses are behind us, so the remainder of the file is never
+ * lexed or preprocessed, and include directives beyond that point are never resolved. The include
+ * files that were resolved before that point are reported alongside the imports.
+ */
+final class UnitImportScanner {
+  private final List<Token> tokens;
+  private final Set<Path> includeFiles;
+  private int position;
+
+  private UnitImportScanner(List<Token> tokens, Set<Path> includeFiles) {
+    this.tokens = tokens;
+    this.includeFiles = includeFiles;
+  }
+
+  static UnitImports scan(Path path, DelphiFileConfig config) throws IOException {
+    DelphiFileStream fileStream =
+        new DelphiFileStream(path.toAbsolutePath().toString(), config.getEncoding());
+    DelphiLexer lexer = new ImportSectionLexer(fileStream, config.shouldSkipImplementation());
+    DelphiPreprocessor preprocessor =
+        config.getPreprocessorFactory().createPreprocessor(lexer, config);
+    preprocessor.process();
+
+    List<Token> tokens =
+        preprocessor.getTokenStream().getTokens().stream()
+            .map(Token.class::cast)
+            .filter(token -> token.getChannel() != Token.HIDDEN_CHANNEL)
+            .filter(token -> token.getType() != Token.EOF)
+            .collect(Collectors.toList());
+
+    return new UnitImportScanner(tokens, preprocessor.getIncludeFiles()).scan();
+  }
+
+  private UnitImports scan() {
+    String unitName = null;
+    boolean isPackage = false;
+
+    if (!tokens.isEmpty()) {
+      int type = tokens.get(0).getType();
+      if (type == DelphiLexer.UNIT
+          || type == DelphiLexer.PROGRAM
+          || type == DelphiLexer.LIBRARY
+          || type == DelphiLexer.PACKAGE) {
+        ++position;
+        unitName = readName();
+        isPackage = type == DelphiLexer.PACKAGE;
+      }
+    }
+
+    List<String> interfaceImports = new ArrayList<>();
+    List<String> implementationImports = new ArrayList<>();
+    List<String> imports = interfaceImports;
+
+    while (position < tokens.size()) {
+      int type = tokens.get(position++).getType();
+      if (type == DelphiLexer.IMPLEMENTATION) {
+        imports = implementationImports;
+      } else if (type == DelphiLexer.USES
+          || (isPackage && (type == DelphiLexer.CONTAINS || type == DelphiLexer.REQUIRES))) {
+        readImports(imports);
+      }
+    }
+
+    return new UnitImports(unitName, interfaceImports, implementationImports, includeFiles);
+  }
+
+  private void readImports(List<String> imports) {
+    while (position < tokens.size()) {
+      String name = readName();
+      if (!name.isEmpty()) {
+        imports.add(name);
+      }
+
+      // Skip over any "in 'FileName.pas'" clause
+      while (position < tokens.size() && !isNameTerminator(tokens.get(position).getType())) {
+        ++position;
+      }
+
+      if (position >= tokens.size() || tokens.get(position++).getType() != DelphiLexer.COMMA) {
+        return;
+      }
+    }
+  }
+
+  private String readName() {
+    StringBuilder name = new StringBuilder();
+    while (position < tokens.size()) {
+      Token token = tokens.get(position);
+      int type = token.getType();
+      if (isNameTerminator(type) || type == DelphiLexer.IN) {
+        break;
+      }
+      name.append(StringUtils.removeStart(token.getText(), "&"));
+      ++position;
+    }
+    return name.toString();
+  }
+
+  private static boolean isNameTerminator(int type) {
+    return type == DelphiLexer.COMMA || type == DelphiLexer.SEMICOLON;
+  }
+
+  /**
+   * Lexer that ends the token stream at the first significant token following the import clauses.
+   *
+   * <p>The import clauses follow the {@code implementation} keyword of a unit, or the header of a
+   * program, library or package. The stream is only ended outside of conditional directives, so the
+   * preprocessor always sees balanced branches.
+   *
+   * <p>An {@code implementation} keyword inside a conditional directive is not treated as the start
+   * of the implementation section, since the lexer can't know which branch is active. In that case
+   * the whole file is lexed, which is slower but still yields the correct imports.
+   */
+  static final class ImportSectionLexer extends DelphiLexer {
+    private enum Section {
+      START,
+      HEADER,
+      INTERFACE,
+      IMPORTS,
+      FINISHED
+    }
+
+    private Section section = Section.START;
+    private boolean inImportClause;
+    private int conditionalNesting;
+
+    ImportSectionLexer(CharStream input, boolean shouldSkipImplementation) {
+      super(input, shouldSkipImplementation);
+    }
+
+    @Override
+    public Token nextToken() {
+      if (section == Section.FINISHED) {
+        return createEndOfFile();
+      }
+
+      Token token = super.nextToken();
+      if (token.getType() == TkCompilerDirective) {
+        trackConditionalNesting(token.getText());
+      } else if (token.getType() != Token.EOF
+          && token.getChannel() != Token.HIDDEN_CHANNEL
+          && isPastImportClauses(token.getType())) {
+        section = Section.FINISHED;
+        return createEndOfFile();
+      }
+      return token;
+    }
+
+    private void trackConditionalNesting(String text) {
+      int start = text.startsWith("{") ? 2 : 3;
+      int end = start;
+      while (end < text.length() && Character.isLetter(text.charAt(end))) {
+        ++end;
+      }
+
+      switch (text.substring(start, end).toUpperCase(Locale.ROOT)) {
+        case "IF":
+        case "IFDEF":
+        case "IFNDEF":
+        case "IFOPT":
+          ++conditionalNesting;
+          break;
+        case "ENDIF":
+        case "IFEND":
+          --conditionalNesting;
+          break;
+        default:
+          // do nothing
+      }
+    }
+
+    private boolean isPastImportClauses(int type) {
+      switch (section) {
+        case START:
+          if (type == UNIT) {
+            section = Section.INTERFACE;
+          } else if (type == PROGRAM || type == LIBRARY || type == PACKAGE) {
+            section = Section.HEADER;
+          } else {
+            section = Section.IMPORTS;
+            return isPastImportClauses(type);
+          }
+          return false;
+        case HEADER:
+          if (type == SEMICOLON) {
+            section = Section.IMPORTS;
+          }
+          return false;
+        case INTERFACE:
+          if (type == IMPLEMENTATION && conditionalNesting == 0) {
+            section = Section.IMPORTS;
+          }
+          return false;
+        default:
+          if (inImportClause) {
+            inImportClause = type != SEMICOLON;
+            return false;
+          }
+          if (type == USES || type == CONTAINS || type == REQUIRES) {
+            inImportClause = true;
+            return false;
+          }
+          return conditionalNesting == 0;
+      }
+    }
+
+    private Token createEndOfFile() {
+      int index = getCharIndex();
+      CommonToken eof = new CommonToken(input, Token.EOF, Token.DEFAULT_CHANNEL, index, index);
+      eof.setLine(getLine());
+      eof.setCharPositionInLine(getCharPositionInLine());
+      return eof;
+    }
+  }
+
+  static final class UnitImports {
+    static final UnitImports EMPTY =
+        new UnitImports(
+            null, Collections.emptyList(), Collections.emptyList(), Collections.emptySet());
+
+    private final String unitName;
+    private final List<String> interfaceImports;
+    private final List<String> implementationImports;
+    private final Set<Path> includeFiles;
+
+    private UnitImports(
+        @Nullable String unitName,
+        List<String> interfaceImports,
+        List<String> implementationImports,
+        Set<Path> includeFiles) {
+      this.unitName = unitName;
+      this.interfaceImports = interfaceImports;
+      this.implementationImports = implementationImports;
+      this.includeFiles = includeFiles;
+    }
+
+    @Nullable
+    String getUnitName() {
+      return unitName;
+    }
+
+    List<String> getInterfaceImports() {
+      return interfaceImports;
+    }
+
+    List<String> getImplementationImports() {
+      return implementationImports;
+    }
+
+    Set<Path> getIncludeFiles() {
+      return includeFiles;
+    }
+  }
+}
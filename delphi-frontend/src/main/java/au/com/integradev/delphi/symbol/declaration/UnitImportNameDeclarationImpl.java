@@ -20,6 +20,7 @@ package au.com.integradev.delphi.symbol.declaration;
 
 import java.util.Objects;
 import javax.annotation.Nullable;
+import org.sonar.plugins.communitydelphi.api.ast.ImplementationSectionNode;
 import org.sonar.plugins.communitydelphi.api.ast.UnitImportNode;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitImportNameDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclaration;
@@ -28,11 +29,14 @@ import org.sonar.plugins.communitydelphi.api.symbol.scope.FileScope;
 public final class UnitImportNameDeclarationImpl extends QualifiedNameDeclarationImpl
     implements UnitImportNameDeclaration {
   private final UnitNameDeclaration originalDeclaration;
+  private final boolean isImplementationImport;
 
   public UnitImportNameDeclarationImpl(
       UnitImportNode node, @Nullable UnitNameDeclaration originalDeclaration) {
     super(node.getNameNode());
     this.originalDeclaration = originalDeclaration;
+    this.isImplementationImport =
+        node.getFirstParentOfType(ImplementationSectionNode.class) != null;
   }
 
   @Override
@@ -50,6 +54,16 @@ public final class UnitImportNameDeclarationImpl extends QualifiedNameDeclaratio
     return originalDeclaration.getFileScope();
   }
 
+  /**
+   * Returns whether the import is declared in the uses clause of an implementation section, in
+   * which case the imported unit can't affect the interface of the importing unit.
+   *
+   * @return true if the import is declared in an implementation section
+   */
+  public boolean isImplementationImport() {
+    return isImplementationImport;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (super.equals(other)) {
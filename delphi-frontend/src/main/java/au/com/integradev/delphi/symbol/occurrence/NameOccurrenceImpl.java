@@ -18,6 +18,7 @@
  */
 package au.com.integradev.delphi.symbol.occurrence;
 
+import au.com.integradev.delphi.symbol.NameKey;
 import au.com.integradev.delphi.symbol.SymbolicNode;
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +32,7 @@ public class NameOccurrenceImpl implements NameOccurrence {
   private final SymbolicNode location;
   private NameDeclaration declaration;
   private String image;
+  private NameKey nameKey;
   private boolean isExplicitInvocation;
   private boolean isGeneric;
   private List<Type> typeParameters = Collections.emptyList();
@@ -61,6 +63,13 @@ public class NameOccurrenceImpl implements NameOccurrence {
     return image;
   }
 
+  public NameKey getNameKey() {
+    if (nameKey == null) {
+      nameKey = NameKey.of(getImage());
+    }
+    return nameKey;
+  }
+
   public void setNameDeclaration(NameDeclaration declaration) {
     this.declaration = declaration;
   }
@@ -33,6 +33,8 @@ import static au.com.integradev.delphi.symbol.resolve.VariantConversionType.INCO
 
 import au.com.integradev.delphi.type.intrinsic.IntrinsicArgumentMatcher;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.Comparator;
 import java.util.List;
 import org.sonar.plugins.communitydelphi.api.type.IntrinsicType;
@@ -51,6 +53,19 @@ import org.sonar.plugins.communitydelphi.api.type.Type.StringType;
 import org.sonar.plugins.communitydelphi.api.type.Type.SubrangeType;
 
 final class TypeComparer {
+  /**
+   * Memoized comparisons between intrinsic types, keyed by the identity of the types being compared
+   * from and to.
+   *
+   * <p>Types are only weakly referenced, so the types of earlier analyses aren't retained once
+   * their type factory is no longer in use. Both levels are bounded, since types like subranges and
+   * code page strings can be declared in source code rather than shared by the type factory.
+   */
+  private static final Cache<Type, Cache<Type, EqualityType>> INTRINSIC_COMPARISONS =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(1024).build();
+
+  private static final int MEMOIZED_COMPARISONS_PER_TYPE = 256;
+
   private TypeComparer() {
     // Utility class
   }
@@ -65,6 +80,44 @@ final class TypeComparer {
    *     compare_defs_ext</a>
    */
   static EqualityType compare(Type from, Type to) {
+    if (!isMemoizable(from) || !isMemoizable(to)) {
+      return compareTypes(from, to);
+    }
+
+    Cache<Type, EqualityType> comparisons =
+        INTRINSIC_COMPARISONS
+            .asMap()
+            .computeIfAbsent(
+                from,
+                key ->
+                    CacheBuilder.newBuilder()
+                        .weakKeys()
+                        .maximumSize(MEMOIZED_COMPARISONS_PER_TYPE)
+                        .build());
+    EqualityType result = comparisons.getIfPresent(to);
+    if (result == null) {
+      result = compareTypes(from, to);
+      comparisons.put(to, result);
+    }
+    return result;
+  }
+
+  /**
+   * Intrinsic value types are immutable and shared, so comparisons between them can be memoized.
+   * Overload resolution compares the same handful of them over and over, for example in calls to
+   * heavily-overloaded routines like {@code IntToStr} or {@code Max}.
+   */
+  private static boolean isMemoizable(Type type) {
+    return type.isInteger()
+        || type.isReal()
+        || type.isString()
+        || type.isChar()
+        || type.isBoolean()
+        || type.isVariant();
+  }
+
+  @VisibleForTesting
+  static EqualityType compareTypes(Type from, Type to) {
     if (from.is(to) && !from.isUntyped()) {
       return EXACT;
     }
@@ -18,19 +18,19 @@
  */
 package au.com.integradev.delphi.symbol.scope;
 
+import au.com.integradev.delphi.symbol.NameKey;
 import au.com.integradev.delphi.symbol.declaration.TypeNameDeclarationImpl;
 import au.com.integradev.delphi.type.factory.StructTypeImpl;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Ordering;
+import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
-import com.google.common.collect.TreeMultimap;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.communitydelphi.api.symbol.Invocable;
@@ -54,30 +54,32 @@ import org.sonar.plugins.communitydelphi.api.type.Type.StructType;
 public class DelphiScopeImpl implements DelphiScope {
   private final Set<NameDeclaration> declarationSet;
   private final ListMultimap<NameDeclaration, NameOccurrence> occurrencesByDeclaration;
-  private final SetMultimap<String, NameDeclaration> declarationsByName;
+  private final SetMultimap<NameKey, NameDeclaration> declarationsByName;
   private final Set<UnitNameDeclaration> unitDeclarations;
   private final Set<UnitImportNameDeclaration> importDeclarations;
   private final Set<TypeNameDeclaration> typeDeclarations;
   private final Set<PropertyNameDeclaration> propertyDeclarations;
   private final Set<RoutineNameDeclaration> routineDeclarations;
+  private final Map<NameKey, Set<RoutineNameDeclaration>> routinesByName;
   private final Set<VariableNameDeclaration> variableDeclarations;
   private final Set<LabelNameDeclaration> labelDeclarations;
-  private final Map<String, HelperType> helpersByType;
+  private final Map<NameKey, HelperType> helpersByType;
 
   private DelphiScope parent;
 
   protected DelphiScopeImpl() {
     declarationSet = new HashSet<>();
     occurrencesByDeclaration = ArrayListMultimap.create();
-    declarationsByName = TreeMultimap.create(String.CASE_INSENSITIVE_ORDER, Ordering.natural());
+    declarationsByName = MultimapBuilder.hashKeys().treeSetValues().build();
     unitDeclarations = new HashSet<>();
     importDeclarations = new HashSet<>();
     typeDeclarations = new HashSet<>();
     propertyDeclarations = new HashSet<>();
     routineDeclarations = new HashSet<>();
+    routinesByName = new HashMap<>();
     variableDeclarations = new HashSet<>();
     labelDeclarations = new HashSet<>();
-    helpersByType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    helpersByType = new HashMap<>();
   }
 
   public Set<NameDeclaration> addNameOccurrence(@Nonnull NameOccurrence occurrence) {
@@ -90,16 +92,20 @@ public class DelphiScopeImpl implements DelphiScope {
     checkForwardTypeDeclarations(declaration);
     checkForDuplicatedNameDeclaration(declaration);
     declarationSet.add(declaration);
-    declarationsByName.put(declaration.getImage(), declaration);
-    addDeclarationByClass(declaration);
+    NameKey key = NameKey.of(declaration.getImage());
+    declarationsByName.put(key, declaration);
+    addDeclarationByClass(key, declaration);
     handleHelperDeclaration(declaration);
   }
 
-  private void addDeclarationByClass(NameDeclaration declaration) {
+  private void addDeclarationByClass(NameKey key, NameDeclaration declaration) {
     if (declaration instanceof VariableNameDeclaration) {
       variableDeclarations.add((VariableNameDeclaration) declaration);
     } else if (declaration instanceof RoutineNameDeclaration) {
       routineDeclarations.add((RoutineNameDeclaration) declaration);
+      routinesByName
+          .computeIfAbsent(key, k -> new HashSet<>())
+          .add((RoutineNameDeclaration) declaration);
     } else if (declaration instanceof PropertyNameDeclaration) {
       propertyDeclarations.add((PropertyNameDeclaration) declaration);
     } else if (declaration instanceof UnitImportNameDeclaration) {
@@ -125,7 +131,7 @@ public class DelphiScopeImpl implements DelphiScope {
     }
 
     declarationsByName
-        .get(typeDeclaration.getName())
+        .get(NameKey.of(typeDeclaration.getName()))
         .removeIf(
             declaration -> {
               if (declaration instanceof TypeNameDeclaration) {
@@ -156,7 +162,7 @@ public class DelphiScopeImpl implements DelphiScope {
   }
 
   private void checkForDuplicatedNameDeclaration(NameDeclaration declaration) {
-    if (!declarationsByName.containsKey(declaration.getName())) {
+    if (!declarationsByName.containsKey(NameKey.of(declaration.getName()))) {
       return;
     }
 
@@ -173,7 +179,7 @@ public class DelphiScopeImpl implements DelphiScope {
       return true;
     }
 
-    Set<NameDeclaration> duplicates = declarationsByName.get(declaration.getImage());
+    Set<NameDeclaration> duplicates = declarationsByName.get(NameKey.of(declaration.getImage()));
 
     // Unit imports can clash with other declarations, except other imports
     if (declaration instanceof UnitImportNameDeclaration) {
@@ -207,7 +213,7 @@ public class DelphiScopeImpl implements DelphiScope {
       Type type = typeDeclaration.getType();
       if (type.isHelper()) {
         HelperType helper = (HelperType) type;
-        helpersByType.put(helper.extendedType().getImage(), helper);
+        helpersByType.put(NameKey.of(helper.extendedType().getImage()), helper);
       }
     }
   }
@@ -252,8 +258,8 @@ public class DelphiScopeImpl implements DelphiScope {
       return;
     }
 
-    for (RoutineNameDeclaration declaration : this.getRoutineDeclarations()) {
-      if (isRoutineOverload(declaration, occurrence, result, overloadsRequireOverloadDirective())) {
+    for (RoutineNameDeclaration declaration : getRoutineDeclarations(NameKey.of(occurrence))) {
+      if (isRoutineOverload(declaration, result, overloadsRequireOverloadDirective())) {
         result.add(declaration);
       }
     }
@@ -285,11 +291,11 @@ public class DelphiScopeImpl implements DelphiScope {
 
       while (scope instanceof TypeScope) {
         RoutineNameDeclaration overridden =
-            scope.getRoutineDeclarations().stream()
-                .filter(ancestor -> ancestor.getImage().equalsIgnoreCase(method.getName()))
-                .filter(ancestor -> overridesMethodSignature(ancestor, method))
-                .findFirst()
-                .orElse(null);
+            ((DelphiScopeImpl) scope)
+                .getRoutineDeclarations(NameKey.of(method.getName())).stream()
+                    .filter(ancestor -> overridesMethodSignature(ancestor, method))
+                    .findFirst()
+                    .orElse(null);
 
         if (overridden != null) {
           return overridden.hasDirective(RoutineDirective.VIRTUAL)
@@ -304,11 +310,9 @@ public class DelphiScopeImpl implements DelphiScope {
 
   private static boolean isRoutineOverload(
       RoutineNameDeclaration declaration,
-      NameOccurrence occurrence,
       Set<NameDeclaration> matchedRoutines,
       boolean requireOverloadDirective) {
     return (!requireOverloadDirective || declaration.hasDirective(RoutineDirective.OVERLOAD))
-        && declaration.getImage().equalsIgnoreCase(occurrence.getImage())
         && matchedRoutines.stream()
             .map(RoutineNameDeclaration.class::cast)
             .noneMatch(matched -> overridesMethodSignature(matched, declaration));
@@ -329,10 +333,10 @@ public class DelphiScopeImpl implements DelphiScope {
   public Set<NameDeclaration> findDeclaration(NameOccurrence occurrence) {
     Set<NameDeclaration> result = Collections.emptySet();
 
-    Set<NameDeclaration> found = declarationsByName.get(occurrence.getImage());
+    Set<NameDeclaration> found = declarationsByName.get(NameKey.of(occurrence));
     if (occurrence.isAttributeReference()) {
       found = new HashSet<>(found);
-      found.addAll(declarationsByName.get(occurrence.getImage() + "Attribute"));
+      found.addAll(declarationsByName.get(NameKey.of(occurrence.getImage() + "Attribute")));
     }
 
     if (!found.isEmpty()) {
@@ -378,7 +382,7 @@ public class DelphiScopeImpl implements DelphiScope {
     if (helpersByType.isEmpty()) {
       return null;
     }
-    return helpersByType.get(type.getImage());
+    return helpersByType.get(NameKey.of(type.getImage()));
   }
 
   private static NameDeclaration getDeclaration(NameDeclaration declaration) {
@@ -414,6 +418,27 @@ public class DelphiScopeImpl implements DelphiScope {
     return Collections.unmodifiableSet(routineDeclarations);
   }
 
+  /**
+   * Returns the declarations in this scope with a given name, ignoring case.
+   *
+   * @param name the declaration name
+   * @return declarations with the name
+   */
+  protected Set<NameDeclaration> getDeclarations(NameKey name) {
+    return Collections.unmodifiableSet(declarationsByName.get(name));
+  }
+
+  /**
+   * Returns the routine declarations in this scope with a given name, ignoring case.
+   *
+   * @param name the routine name
+   * @return routine declarations with the name
+   */
+  public Set<RoutineNameDeclaration> getRoutineDeclarations(NameKey name) {
+    Set<RoutineNameDeclaration> result = routinesByName.get(name);
+    return result == null ? Collections.emptySet() : Collections.unmodifiableSet(result);
+  }
+
   @Override
   public Set<VariableNameDeclaration> getVariableDeclarations() {
     return Collections.unmodifiableSet(variableDeclarations);
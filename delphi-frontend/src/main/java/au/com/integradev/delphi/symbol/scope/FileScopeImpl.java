@@ -18,19 +18,22 @@
  */
 package au.com.integradev.delphi.symbol.scope;
 
-import static java.util.function.Predicate.not;
-
 import au.com.integradev.delphi.antlr.ast.node.ArrayAccessorNodeImpl;
 import au.com.integradev.delphi.antlr.ast.node.MutableDelphiNode;
 import au.com.integradev.delphi.antlr.ast.node.NameDeclarationNodeImpl;
 import au.com.integradev.delphi.antlr.ast.node.NameReferenceNodeImpl;
 import au.com.integradev.delphi.antlr.ast.node.RoutineNameNodeImpl;
+import au.com.integradev.delphi.symbol.NameKey;
 import com.google.common.collect.Iterables;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +56,7 @@ public abstract class FileScopeImpl extends DelphiScopeImpl implements FileScope
   private static final Logger LOG = LoggerFactory.getLogger(FileScopeImpl.class);
   private final String name;
   private final Deque<FileScope> imports = new ArrayDeque<>();
+  private final Map<NameKey, List<FileScope>> importsByName = new ConcurrentHashMap<>();
   private Map<Integer, DelphiScope> registeredScopes = new HashMap<>();
   private Map<Integer, NameDeclaration> registeredDeclarations = new HashMap<>();
   private Map<Integer, NameOccurrence> registeredOccurrences = new HashMap<>();
@@ -64,7 +68,7 @@ public abstract class FileScopeImpl extends DelphiScopeImpl implements FileScope
   @Override
   public Set<NameDeclaration> findDeclaration(NameOccurrence occurrence) {
     Set<NameDeclaration> result = super.findDeclaration(occurrence);
-    for (FileScope importScope : imports) {
+    for (FileScope importScope : findImportsDeclaring(occurrence)) {
       if (result.isEmpty()) {
         result = importScope.shallowFindDeclaration(occurrence);
       } else {
@@ -74,6 +78,51 @@ public abstract class FileScopeImpl extends DelphiScopeImpl implements FileScope
     return result;
   }
 
+  /**
+   * Returns the imports that declare a name, in order of precedence.
+   *
+   * <p>The imports declaring a name are only searched for the first time the name is looked up, and
+   * the result is reused until another import is added. This spares each unresolved name from
+   * probing the declarations of every import. Imports that declare the name in any way are kept,
+   * even if all of those declarations are hidden from importers, since they may still contribute
+   * routine overloads.
+   *
+   * @param occurrence the name occurrence being looked up
+   * @return imports that might resolve the name occurrence
+   */
+  private Iterable<FileScope> findImportsDeclaring(NameOccurrence occurrence) {
+    if (occurrence.isAttributeReference()) {
+      // Attribute references can also resolve to "<Name>Attribute", so search every import.
+      return imports;
+    }
+    return importsByName.computeIfAbsent(NameKey.of(occurrence), this::findImportsDeclaring);
+  }
+
+  private List<FileScope> findImportsDeclaring(NameKey name) {
+    List<FileScope> result = new ArrayList<>();
+    for (FileScope importScope : imports) {
+      if (!(importScope instanceof FileScopeImpl)
+          || ((FileScopeImpl) importScope).declaresName(name)) {
+        result.add(importScope);
+      }
+    }
+    return result.isEmpty() ? Collections.emptyList() : result;
+  }
+
+  private boolean declaresName(NameKey name) {
+    return !getDeclarations(name).isEmpty();
+  }
+
+  private static boolean isVisibleToImporters(NameDeclaration declaration) {
+    return !declaration.isImplementationDeclaration()
+        && !(declaration instanceof UnitImportNameDeclaration);
+  }
+
+  /** Discards the cached lookups of which imports declare each name. */
+  public void clearImportLookups() {
+    importsByName.clear();
+  }
+
   @Override
   public HelperType getHelperForType(Type type) {
     HelperType result = super.getHelperForType(type);
@@ -96,9 +145,7 @@ public abstract class FileScopeImpl extends DelphiScopeImpl implements FileScope
   @Override
   public Set<NameDeclaration> shallowFindDeclaration(NameOccurrence occurrence) {
     return super.findDeclaration(occurrence).stream()
-        .map(NameDeclaration.class::cast)
-        .filter(not(NameDeclaration::isImplementationDeclaration))
-        .filter(not(UnitImportNameDeclaration.class::isInstance))
+        .filter(FileScopeImpl::isVisibleToImporters)
         .collect(Collectors.toSet());
   }
 
@@ -107,7 +154,7 @@ public abstract class FileScopeImpl extends DelphiScopeImpl implements FileScope
     if (declaration instanceof UnitImportNameDeclaration) {
       FileScope scope = ((UnitImportNameDeclaration) declaration).getUnitScope();
       if (scope != null) {
-        imports.addFirst(scope);
+        addImport(scope);
       }
     }
 
@@ -134,6 +181,7 @@ public abstract class FileScopeImpl extends DelphiScopeImpl implements FileScope
 
   protected void addImport(FileScope scope) {
     this.imports.addFirst(scope);
+    clearImportLookups();
   }
 
   /**
@@ -581,6 +581,16 @@ public class TypeFactoryImpl implements TypeFactory {
     return anonymousUInt31;
   }
 
+  /**
+   * Returns whether a type is one of the intrinsic types owned by this type factory.
+   *
+   * @param type the type to check
+   * @return true if the type is an intrinsic type created by this type factory
+   */
+  public boolean isIntrinsic(Type type) {
+    return intrinsicTypes.values().stream().anyMatch(intrinsic -> intrinsic == type);
+  }
+
   @Override
   public IntegerType integerFromLiteralValue(BigInteger value) {
     return intrinsicTypes.values().stream()
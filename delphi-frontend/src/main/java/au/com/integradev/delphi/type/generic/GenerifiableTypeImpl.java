@@ -41,6 +41,12 @@ import org.sonar.plugins.communitydelphi.api.type.TypeSpecializationContext;
  *     Generics</a>
  */
 public abstract class GenerifiableTypeImpl extends TypeImpl {
+  /**
+   * Specialization can be triggered from concurrent analysis threads. Specializing one type often
+   * specializes others, so a single lock is shared to rule out lock-ordering deadlocks.
+   */
+  private static final Object SPECIALIZATION_LOCK = new Object();
+
   private final Map<TypeSpecializationContext, GenerifiableTypeImpl> cache;
 
   protected GenerifiableTypeImpl() {
@@ -59,18 +65,20 @@ public abstract class GenerifiableTypeImpl extends TypeImpl {
       return this;
     }
 
-    GenerifiableTypeImpl result = cache.get(context);
-    if (result == null) {
-      result = this.doSpecialization(context);
-      if (result.is(this)) {
-        result = this;
-      } else {
-        cache.put(context, result);
-        result.doAfterSpecialization(context);
+    synchronized (SPECIALIZATION_LOCK) {
+      GenerifiableTypeImpl result = cache.get(context);
+      if (result == null) {
+        result = this.doSpecialization(context);
+        if (result.is(this)) {
+          result = this;
+        } else {
+          cache.put(context, result);
+          result.doAfterSpecialization(context);
+        }
       }
-    }
 
-    return result;
+      return result;
+    }
   }
 
   /**
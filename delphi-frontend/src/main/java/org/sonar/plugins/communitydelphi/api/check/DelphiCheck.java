@@ -43,6 +43,15 @@ public abstract class DelphiCheck implements DelphiParserVisitor<DelphiCheckCont
     // do nothing
   }
 
+  @Override
+  public DelphiCheckContext visit(DelphiNode node, DelphiCheckContext context) {
+    if (context.isTraversalShared()) {
+      // The shared traversal will dispatch the children to this check.
+      return context;
+    }
+    return DelphiParserVisitor.super.visit(node, context);
+  }
+
   protected void reportIssue(DelphiCheckContext context, DelphiNode node, String message) {
     context.newIssue().onNode(node).withMessage(message).report();
   }
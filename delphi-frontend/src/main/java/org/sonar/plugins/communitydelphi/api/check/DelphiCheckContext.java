@@ -79,6 +79,16 @@ public interface DelphiCheckContext {
    */
   DelphiIssueBuilder newIssue();
 
+  /**
+   * Returns whether the check is being visited as part of a shared traversal of the AST, in which
+   * case the check should not descend into the children of visited nodes.
+   *
+   * @return true if the AST traversal is shared with other checks
+   */
+  default boolean isTraversalShared() {
+    return false;
+  }
+
   final class Location {
     private final String message;
     private final FilePosition filePosition;
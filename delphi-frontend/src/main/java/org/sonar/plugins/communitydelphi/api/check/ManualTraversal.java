@@ -0,0 +1,43 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.communitydelphi.api.check;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotate a rule class with this annotation to indicate that it controls its own traversal of the
+ * AST.
+ *
+ * <p>By default, checks are visited together in a single shared traversal of the AST. Each node is
+ * only dispatched to the checks that override a {@code visit} method applicable to it, and calls to
+ * {@code super.visit} do not descend into the node's children.
+ *
+ * <p>This is only equivalent to a standalone traversal if every {@code visit} method ends by
+ * returning {@code super.visit(node, context)}. Checks that skip subtrees, do work after visiting
+ * children, or traverse nodes themselves must use this annotation, so they are run with a
+ * standalone traversal.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+@Inherited
+public @interface ManualTraversal {}
@@ -0,0 +1,86 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DelphiFileStreamTest {
+  @TempDir private Path tempDir;
+
+  @Test
+  void testLinesShouldBeSplitOnAnyLineBreak() throws IOException {
+    DelphiFileStream fileStream = load("a\r\nb\nc\rd\u2028e\r\n\r\nf", StandardCharsets.UTF_8);
+
+    assertThat(fileStream.getLines()).containsExactly("a", "b", "c", "d", "e", "", "f");
+  }
+
+  @Test
+  void testTrailingLineBreakShouldProduceEmptyLastLine() throws IOException {
+    DelphiFileStream fileStream = load("unit Foo;\r\n", StandardCharsets.UTF_8);
+
+    assertThat(fileStream.getLines()).containsExactly("unit Foo;", "");
+  }
+
+  @Test
+  void testEmptyFileShouldHaveSingleEmptyLine() throws IOException {
+    DelphiFileStream fileStream = load("", StandardCharsets.UTF_8);
+
+    assertThat(fileStream.size()).isZero();
+    assertThat(fileStream.getLines()).containsExactly("");
+  }
+
+  @Test
+  void testUtf32ByteOrderMarkShouldNotBeMistakenForUtf16() throws IOException {
+    Path file = tempDir.resolve("Utf32.pas");
+    byte[] bom = {(byte) 0xFF, (byte) 0xFE, 0x00, 0x00};
+    byte[] content = "unit Foo;".getBytes(Charset.forName("UTF-32LE"));
+    byte[] bytes = new byte[bom.length + content.length];
+    System.arraycopy(bom, 0, bytes, 0, bom.length);
+    System.arraycopy(content, 0, bytes, bom.length, content.length);
+    Files.write(file, bytes);
+
+    DelphiFileStream fileStream = new DelphiFileStream(file.toString(), "UTF-8");
+
+    assertThat(fileStream.getEncoding()).isEqualTo("UTF-32LE");
+    assertThat(fileStream.getLines()).containsExactly("unit Foo;");
+  }
+
+  @Test
+  void testMalformedInputShouldBeReplaced() throws IOException {
+    Path file = tempDir.resolve("Malformed.pas");
+    Files.write(file, new byte[] {'a', (byte) 0xFF, 'b'});
+
+    DelphiFileStream fileStream = new DelphiFileStream(file.toString(), "UTF-8");
+
+    assertThat(fileStream.getLines()).containsExactly("a\uFFFDb");
+  }
+
+  private DelphiFileStream load(String content, Charset charset) throws IOException {
+    Path file = Files.writeString(tempDir.resolve("Test.pas"), content, charset);
+    return new DelphiFileStream(file.toString(), charset.name());
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import au.com.integradev.delphi.file.DelphiFile;
+import au.com.integradev.delphi.file.DelphiFile.DelphiFileConstructionException;
+import au.com.integradev.delphi.file.DelphiFileConfig;
+import au.com.integradev.delphi.utils.DelphiUtils;
+import au.com.integradev.delphi.utils.files.DelphiFileUtils;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how quickly a corpus of real units is parsed.
+ *
+ * <p>By default the corpus is the grammar test resources, which keeps the test cheap enough to run
+ * with the rest of the suite. To benchmark against the Delphi RTL, point the {@code
+ * delphi.parseBenchmark.corpus} system property at its source directory (for example {@code
+ * <BDS>/source/rtl}). The number of timed passes over the corpus is controlled by {@code
+ * delphi.parseBenchmark.iterations}.
+ *
+ * <p>Results are logged rather than asserted, since timings depend on the machine.
+ */
+class ParseThroughputTest {
+  private static final Logger LOG = LoggerFactory.getLogger(ParseThroughputTest.class);
+  private static final String CORPUS_PROPERTY = "delphi.parseBenchmark.corpus";
+  private static final String ITERATIONS_PROPERTY = "delphi.parseBenchmark.iterations";
+  private static final String DEFAULT_CORPUS = "/au/com/integradev/delphi/grammar/";
+
+  private final DelphiFileConfig fileConfig = DelphiFileUtils.mockConfig();
+
+  @Test
+  void testParseThroughput() throws IOException {
+    // The first pass warms up the JIT and drops any files that the parser can't handle.
+    List<File> corpus = new ArrayList<>();
+    for (File file : findSourceFiles(corpusDirectory())) {
+      if (tryParse(file) != null) {
+        corpus.add(file);
+      }
+    }
+    assertThat(corpus).isNotEmpty();
+
+    int iterations = Integer.getInteger(ITERATIONS_PROPERTY, 3);
+    long tokens = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      for (File file : corpus) {
+        DelphiFile delphiFile = tryParse(file);
+        assertThat(delphiFile).isNotNull();
+        tokens += delphiFile.getTokens().size();
+      }
+    }
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+    LOG.info(
+        "Parsed {} files ({} tokens) {} times in {} ms: {} files/s, {} tokens/s",
+        corpus.size(),
+        tokens / iterations,
+        iterations,
+        elapsedMillis,
+        String.format(Locale.ROOT, "%.1f", corpus.size() * iterations * 1000.0 / elapsedMillis),
+        tokens * 1000 / elapsedMillis);
+  }
+
+  private DelphiFile tryParse(File file) {
+    try {
+      return DelphiFile.from(file, fileConfig);
+    } catch (DelphiFileConstructionException e) {
+      return null;
+    }
+  }
+
+  private static Path corpusDirectory() {
+    String corpus = System.getProperty(CORPUS_PROPERTY);
+    if (corpus != null) {
+      return Path.of(corpus);
+    }
+    return DelphiUtils.getResource(DEFAULT_CORPUS).toPath();
+  }
+
+  private static List<File> findSourceFiles(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths
+          .filter(Files::isRegularFile)
+          .filter(ParseThroughputTest::isSourceFile)
+          .sorted()
+          .map(Path::toFile)
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static boolean isSourceFile(Path path) {
+    String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+    return name.endsWith(".pas") || name.endsWith(".dpr") || name.endsWith(".dpk");
+  }
+}
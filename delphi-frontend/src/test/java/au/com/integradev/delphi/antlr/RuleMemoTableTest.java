@@ -0,0 +1,73 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.antlr.runtime.BaseRecognizer;
+import org.junit.jupiter.api.Test;
+
+class RuleMemoTableTest {
+  @Test
+  void testUnknownInvocationsShouldReturnUnknown() {
+    RuleMemoTable table = new RuleMemoTable();
+    table.put(1, 5, 10);
+
+    assertThat(table.get(1, 6)).isEqualTo(BaseRecognizer.MEMO_RULE_UNKNOWN);
+    assertThat(table.get(2, 5)).isEqualTo(BaseRecognizer.MEMO_RULE_UNKNOWN);
+    assertThat(table.get(0, 0)).isEqualTo(BaseRecognizer.MEMO_RULE_UNKNOWN);
+  }
+
+  @Test
+  void testPutShouldReplacePreviousValue() {
+    RuleMemoTable table = new RuleMemoTable();
+    table.put(3, 7, BaseRecognizer.MEMO_RULE_FAILED);
+    table.put(3, 7, 12);
+
+    assertThat(table.get(3, 7)).isEqualTo(12);
+    assertThat(table.size()).isEqualTo(1);
+  }
+
+  @Test
+  void testTableShouldGrowWithoutLosingEntries() {
+    RuleMemoTable table = new RuleMemoTable();
+    for (int rule = 0; rule < 50; ++rule) {
+      for (int start = 0; start < 200; ++start) {
+        table.put(rule, start, rule * 1000 + start);
+      }
+    }
+
+    assertThat(table.size()).isEqualTo(10000);
+    for (int rule = 0; rule < 50; ++rule) {
+      for (int start = 0; start < 200; ++start) {
+        assertThat(table.get(rule, start)).isEqualTo(rule * 1000 + start);
+      }
+    }
+  }
+
+  @Test
+  void testClearShouldRemoveAllEntries() {
+    RuleMemoTable table = new RuleMemoTable();
+    table.put(1, 1, 1);
+    table.clear();
+
+    assertThat(table.size()).isZero();
+    assertThat(table.get(1, 1)).isEqualTo(BaseRecognizer.MEMO_RULE_UNKNOWN);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr.ast.node;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import au.com.integradev.delphi.antlr.DelphiLexer;
+import org.antlr.runtime.CommonToken;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
+import org.sonar.plugins.communitydelphi.api.ast.IdentifierNode;
+
+class DelphiNodeImplTest {
+  @Test
+  void testAddChildShouldAssignChildIndicesAndParent() {
+    DelphiNodeImpl parent = createNode();
+    DelphiNodeImpl[] children = new DelphiNodeImpl[10];
+    for (int i = 0; i < children.length; ++i) {
+      children[i] = createNode();
+      parent.addChild(children[i]);
+    }
+    parent.trimChildren();
+
+    assertThat(parent.getChildren()).containsExactly(children);
+    for (int i = 0; i < children.length; ++i) {
+      assertThat(children[i].getChildIndex()).isEqualTo(i);
+      assertThat(children[i].getParent()).isSameAs(parent);
+      assertThat(parent.getChild(i)).isSameAs(children[i]);
+    }
+    assertThat(parent.getChild(-1)).isNull();
+    assertThat(parent.getChild(children.length)).isNull();
+  }
+
+  @Test
+  void testAddNilChildShouldAddItsChildren() {
+    DelphiNodeImpl parent = createNode();
+    DelphiNodeImpl first = createNode();
+    parent.addChild(first);
+
+    DelphiNodeImpl nil = new CommonDelphiNodeImpl(null);
+    DelphiNodeImpl second = createNode();
+    DelphiNodeImpl third = createNode();
+    nil.addChild(second);
+    nil.addChild(third);
+    parent.addChild(nil);
+
+    assertThat(parent.getChildren()).containsExactly(first, second, third);
+    assertThat(third.getChildIndex()).isEqualTo(2);
+    assertThat(third.getParent()).isSameAs(parent);
+  }
+
+  @Test
+  void testAddNilChildWithSameChildrenShouldThrow() {
+    DelphiNodeImpl nil = new CommonDelphiNodeImpl(null);
+    nil.addChild(createNode());
+
+    assertThatThrownBy(() -> nil.addChild(nil)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testChildrenViewShouldReflectAddedChildren() {
+    DelphiNodeImpl parent = createNode();
+    parent.addChild(createNode());
+    assertThat(parent.getChildren()).hasSize(1);
+
+    parent.addChild(createNode());
+    assertThat(parent.getChildren()).hasSize(2);
+  }
+
+  @Test
+  void testDescendantSearchShouldBeInDocumentOrder() {
+    DelphiNodeImpl root = createNode();
+    DelphiNodeImpl child = createNode();
+    IdentifierNodeImpl grandchild = createIdentifier();
+    IdentifierNodeImpl sibling = createIdentifier();
+    child.addChild(grandchild);
+    root.addChild(child);
+    root.addChild(sibling);
+
+    assertThat(root.findDescendantsOfType(IdentifierNode.class))
+        .containsExactly(grandchild, sibling);
+    assertThat(root.getFirstDescendantOfType(IdentifierNode.class)).isSameAs(grandchild);
+    assertThat(root.findChildrenOfType(IdentifierNode.class)).containsExactly(sibling);
+    assertThat(root.getFirstChildOfType(IdentifierNode.class)).isSameAs(sibling);
+    assertThat(root.hasDescendantOfType(DelphiNode.class)).isTrue();
+  }
+
+  private static DelphiNodeImpl createNode() {
+    return new CommonDelphiNodeImpl(new CommonToken(DelphiLexer.TkRootNode));
+  }
+
+  private static IdentifierNodeImpl createIdentifier() {
+    return new IdentifierNodeImpl(new CommonToken(DelphiLexer.TkIdentifier, "Foo"));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr.ast.node;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import au.com.integradev.delphi.antlr.DelphiLexer;
+import au.com.integradev.delphi.antlr.ast.DelphiAstImpl;
+import org.antlr.runtime.CommonToken;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
+import org.sonar.plugins.communitydelphi.api.ast.IdentifierNode;
+
+class DescendantIndexTest {
+  @Test
+  void testSubtreeQueriesShouldOnlyReturnDescendantsInDocumentOrder() {
+    DelphiNodeImpl root = createNode();
+    DelphiNodeImpl first = createNode();
+    IdentifierNodeImpl firstChild = createIdentifier();
+    IdentifierNodeImpl firstGrandchild = createIdentifier();
+    IdentifierNodeImpl second = createIdentifier();
+    firstChild.addChild(firstGrandchild);
+    first.addChild(firstChild);
+    root.addChild(first);
+    root.addChild(second);
+
+    DelphiAstImpl ast = new DelphiAstImpl(null, root);
+
+    assertThat(ast.findDescendantsOfType(IdentifierNode.class))
+        .containsExactly(firstChild, firstGrandchild, second);
+    assertThat(first.findDescendantsOfType(IdentifierNode.class))
+        .containsExactly(firstChild, firstGrandchild);
+    assertThat(firstChild.findDescendantsOfType(IdentifierNode.class))
+        .containsExactly(firstGrandchild);
+    assertThat(firstGrandchild.findDescendantsOfType(IdentifierNode.class)).isEmpty();
+    assertThat(second.findDescendantsOfType(DelphiNode.class)).isEmpty();
+
+    assertThat(ast.getFirstDescendantOfType(IdentifierNode.class)).isSameAs(firstChild);
+    assertThat(firstChild.getFirstDescendantOfType(IdentifierNode.class)).isSameAs(firstGrandchild);
+    assertThat(second.getFirstDescendantOfType(DelphiNode.class)).isNull();
+    assertThat(first.hasDescendantOfType(IdentifierNodeImpl.class)).isTrue();
+  }
+
+  @Test
+  void testNodesOutsideTheIndexedTreeShouldFallBackToWalking() {
+    DelphiAstImpl ast = new DelphiAstImpl(null, createNode());
+    assertThat(ast.findDescendantsOfType(DelphiNode.class)).isEmpty();
+
+    DelphiNodeImpl detached = createNode();
+    IdentifierNodeImpl child = createIdentifier();
+    detached.addChild(child);
+
+    assertThat(ast.getDescendantIndex().contains(detached)).isFalse();
+    assertThat(detached.findDescendantsOfType(IdentifierNode.class)).containsExactly(child);
+    assertThat(detached.getFirstDescendantOfType(IdentifierNode.class)).isSameAs(child);
+  }
+
+  private static DelphiNodeImpl createNode() {
+    return new CommonDelphiNodeImpl(new CommonToken(DelphiLexer.TkRootNode));
+  }
+
+  private static IdentifierNodeImpl createIdentifier() {
+    return new IdentifierNodeImpl(new CommonToken(DelphiLexer.TkIdentifier, "Foo"));
+  }
+}
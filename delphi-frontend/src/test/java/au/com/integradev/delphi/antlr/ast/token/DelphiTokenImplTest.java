@@ -67,4 +67,28 @@ class DelphiTokenImplTest {
   void testGetEndColumn() {
     assertThat(commentToken.getEndColumn()).isEqualTo(directiveToken.getEndColumn()).isEqualTo(1);
   }
+
+  @Test
+  void testIdentifierPosition() {
+    CommonToken antlrIdentifier = new CommonToken(DelphiLexer.TkIdentifier, "Foo");
+    antlrIdentifier.setLine(100000);
+    antlrIdentifier.setCharPositionInLine(3);
+    DelphiTokenImpl token = new DelphiTokenImpl(antlrIdentifier);
+
+    assertThat(token.getBeginLine()).isEqualTo(token.getEndLine()).isEqualTo(100000);
+    assertThat(token.getBeginColumn()).isEqualTo(3);
+    assertThat(token.getEndColumn()).isEqualTo(6);
+  }
+
+  @Test
+  void testDelphiCommonTokenShouldShareWrapper() {
+    DelphiCommonToken antlrToken = new DelphiCommonToken(new CommonToken(DelphiLexer.TkIdentifier));
+    assertThat(DelphiTokenImpl.of(antlrToken)).isSameAs(DelphiTokenImpl.of(antlrToken));
+  }
+
+  @Test
+  void testCommonTokenShouldNotShareWrapper() {
+    CommonToken antlrToken = new CommonToken(DelphiLexer.TkIdentifier);
+    assertThat(DelphiTokenImpl.of(antlrToken)).isNotSameAs(DelphiTokenImpl.of(antlrToken));
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.antlr.ast.visitors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import au.com.integradev.delphi.antlr.ast.visitors.MetricsVisitor.Data;
+import au.com.integradev.delphi.antlr.ast.visitors.MetricsVisitor.RoutineComplexity;
+import au.com.integradev.delphi.file.DelphiFile;
+import au.com.integradev.delphi.utils.files.DelphiFileUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
+import org.sonar.plugins.communitydelphi.api.ast.RoutineImplementationNode;
+
+class MetricsVisitorTest {
+  @TempDir Path tempDir;
+
+  @Test
+  void testComplexityShouldBeComputedPerFileAndPerRoutine() throws IOException {
+    DelphiAst ast =
+        parse(
+            "procedure Foo;\n"
+                + "  procedure Bar;\n"
+                + "  begin\n"
+                + "    if A and B then Baz;\n"
+                + "  end;\n"
+                + "begin\n"
+                + "  if A then begin\n"
+                + "    while B do Baz;\n"
+                + "  end else\n"
+                + "    Flarp;\n"
+                + "  try\n"
+                + "    Baz;\n"
+                + "  except\n"
+                + "    on E: Exception do\n"
+                + "      if C then Baz;\n"
+                + "  else\n"
+                + "    if D then Baz;\n"
+                + "  end;\n"
+                + "end;\n");
+
+    Data data = new MetricsVisitor().visit(ast, new Data());
+
+    assertThat(data.getRoutines()).isEqualTo(2);
+    assertThat(data.getComplexity())
+        .isEqualTo(8)
+        .isEqualTo(
+            new CyclomaticComplexityVisitor()
+                .visit(ast, new CyclomaticComplexityVisitor.Data())
+                .getComplexity());
+    assertThat(data.getCognitiveComplexity())
+        .isEqualTo(9)
+        .isEqualTo(
+            new CognitiveComplexityVisitor()
+                .visit(ast, new CognitiveComplexityVisitor.Data())
+                .getComplexity());
+
+    RoutineComplexity foo = data.getRoutineComplexity(findRoutine(ast, "Foo"));
+    assertThat(foo.getComplexity()).isEqualTo(5);
+    assertThat(foo.getCognitiveComplexity()).isEqualTo(7);
+
+    RoutineComplexity bar = data.getRoutineComplexity(findRoutine(ast, "Bar"));
+    assertThat(bar.getComplexity()).isEqualTo(3);
+    assertThat(bar.getCognitiveComplexity()).isEqualTo(2);
+  }
+
+  @Test
+  void testLinesShouldBeTrackedPerLine() throws IOException {
+    DelphiAst ast = parse("// Comment\nprocedure Foo;\nbegin\n\n  Bar; { Comment }\nend;\n");
+
+    Data data = new MetricsVisitor().visit(ast, new Data());
+
+    assertThat(data.getCodeLines().stream()).containsExactly(1, 2, 3, 5, 6, 8, 9, 10);
+    assertThat(data.getCommentLines()).isEqualTo(2);
+  }
+
+  private static RoutineImplementationNode findRoutine(DelphiAst ast, String name) {
+    return ast.findDescendantsOfType(RoutineImplementationNode.class).stream()
+        .filter(routine -> routine.simpleName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private DelphiAst parse(String routines) throws IOException {
+    Path path = tempDir.resolve("SourceFile.pas");
+    Files.writeString(path, "unit SourceFile;\ninterface\nimplementation\n" + routines + "end.");
+    return DelphiFile.from(path.toFile(), DelphiFileUtils.mockConfig()).getAst();
+  }
+}
@@ -26,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,6 +39,7 @@ import au.com.integradev.delphi.utils.DelphiUtils;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -124,6 +126,22 @@ class DelphiCoverageToolParserTest {
     assertThat(context.lineHits(GLOBALS_FILE_KEY, 23)).isEqualTo((Integer) 1);
   }
 
+  @Test
+  void testLineHitsFromReportsParsedTogetherAreMergedAndSavedOncePerFile() {
+    SensorContext spyContext = spy(context);
+    parser.parse(
+        spyContext,
+        List.of(
+            DelphiUtils.getResource(NORMAL_COVERAGE),
+            DelphiUtils.getResource(NORMAL_COVERAGE_PART_2)));
+
+    verify(spyContext, times(2)).newCoverage();
+    assertThat(context.lineHits(GLOBALS_FILE_KEY, 16)).isEqualTo((Integer) 1);
+    assertThat(context.lineHits(GLOBALS_FILE_KEY, 17)).isEqualTo((Integer) 1);
+    assertThat(context.lineHits(GLOBALS_FILE_KEY, 23)).isEqualTo((Integer) 1);
+    assertThat(context.lineHits(MAIN_WINDOW_FILE_KEY, 31)).isEqualTo((Integer) 1);
+  }
+
   void testReportFileIsIgnored(File file) {
     SensorContext mockContext = mock(SensorContext.class);
     assertThatCode(() -> parser.parse(mockContext, file)).doesNotThrowAnyException();
@@ -18,6 +18,7 @@
  */
 package au.com.integradev.delphi.executor;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -28,8 +29,12 @@ import static org.mockito.Mockito.when;
 
 import au.com.integradev.delphi.check.MasterCheckRegistrar;
 import au.com.integradev.delphi.compiler.Toolchain;
+import au.com.integradev.delphi.file.DelphiFile;
 import au.com.integradev.delphi.file.DelphiFile.DelphiInputFile;
 import au.com.integradev.delphi.msbuild.DelphiProjectHelper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,15 +43,19 @@ import org.sonar.api.SonarRuntime;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.rule.RuleScope;
 import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
 import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
+import org.sonar.plugins.communitydelphi.api.check.DelphiCheckContext;
+import org.sonar.plugins.communitydelphi.api.check.ManualTraversal;
 
 class DelphiChecksExecutorTest {
   private DelphiChecksExecutor executor;
+  private DelphiProjectHelper delphiProjectHelper;
   private MasterCheckRegistrar checkRegistrar;
 
   @BeforeEach
   void setup() {
-    DelphiProjectHelper delphiProjectHelper = mock();
+    delphiProjectHelper = mock();
     when(delphiProjectHelper.getToolchain()).thenReturn(Toolchain.DCC32);
 
     checkRegistrar = mock();
@@ -83,6 +92,72 @@ class DelphiChecksExecutorTest {
     verify(allCheck, times(1)).visit(eq(testFile.getAst()), any());
   }
 
+  @Test
+  void testSharedTraversalDispatchesNodesToChecks() {
+    DelphiCheck check = new NodeVisitingCheck();
+    when(checkRegistrar.getChecks(RuleScope.ALL)).thenReturn(Set.of(check));
+
+    DelphiNode grandchild = mock();
+    DelphiNode child = mock();
+    when(child.getChildren()).thenReturn(List.of(grandchild));
+
+    DelphiInputFile file = mockDelphiFile(InputFile.Type.MAIN);
+    DelphiAst ast = file.getAst();
+    when(ast.getChildren()).thenReturn(List.of(child));
+
+    executor.execute(mock(), file);
+
+    verify(ast, never()).childrenAccept(eq(check), any());
+    verify(child, times(1)).accept(eq(check), any());
+    verify(grandchild, times(1)).accept(eq(check), any());
+  }
+
+  @Test
+  void testManualTraversalChecksAreVisitedSeparately() {
+    DelphiCheck check = new ManualNodeVisitingCheck();
+    when(checkRegistrar.getChecks(RuleScope.ALL)).thenReturn(Set.of(check));
+
+    DelphiNode child = mock();
+    DelphiInputFile file = mockDelphiFile(InputFile.Type.MAIN);
+    DelphiAst ast = file.getAst();
+    when(ast.getChildren()).thenReturn(List.of(child));
+
+    executor.execute(mock(), file);
+
+    verify(ast, times(1)).childrenAccept(eq(check), any());
+    verify(child, never()).accept(eq(check), any());
+  }
+
+  @Test
+  void testChecksThatCannotBeCopiedAreOnlyRunWithTheOriginalInstance() throws Exception {
+    when(delphiProjectHelper.getAnalysisThreads()).thenReturn(2);
+
+    FileRecordingCheck copyableCheck = new FileRecordingCheck();
+    FileRecordingCheck injectedCheck = new InjectedDependencyCheck(new Object());
+    FileRecordingCheck configuredCheck = new FileRecordingCheck();
+    configuredCheck.configuration = "configured";
+    when(checkRegistrar.getChecks(RuleScope.ALL))
+        .thenReturn(Set.of(copyableCheck, injectedCheck, configuredCheck));
+
+    executor.setup();
+
+    DelphiInputFile firstFile = mockDelphiFile(InputFile.Type.MAIN);
+    DelphiInputFile secondFile = mockDelphiFile(InputFile.Type.MAIN);
+    executeOnNewThread(firstFile);
+    executeOnNewThread(secondFile);
+
+    // The second thread runs a copy of the copyable check, rather than the original instance.
+    assertThat(copyableCheck.files).containsExactly(firstFile.getAst());
+    assertThat(injectedCheck.files).containsExactly(firstFile.getAst(), secondFile.getAst());
+    assertThat(configuredCheck.files).containsExactly(firstFile.getAst(), secondFile.getAst());
+  }
+
+  private void executeOnNewThread(DelphiInputFile file) throws InterruptedException {
+    Thread thread = new Thread(() -> executor.execute(mock(), file));
+    thread.start();
+    thread.join();
+  }
+
   private DelphiCheck mockDelphiCheck(RuleScope scope) {
     DelphiCheck check = mock();
     when(checkRegistrar.getChecks(scope)).thenReturn(Set.of(check));
@@ -90,7 +165,11 @@ class DelphiChecksExecutorTest {
   }
 
   private static DelphiInputFile mockDelphiFile(InputFile.Type inputFileType) {
+    DelphiFile delphiFile = mock();
+    when(delphiFile.getTokens()).thenReturn(Collections.emptyList());
+
     DelphiAst ast = mock();
+    when(ast.getDelphiFile()).thenReturn(delphiFile);
 
     InputFile inputFile = mock();
     when(inputFile.type()).thenReturn(inputFileType);
@@ -101,4 +180,38 @@ class DelphiChecksExecutorTest {
 
     return file;
   }
+
+  public static class NodeVisitingCheck extends DelphiCheck {
+    @Override
+    public DelphiCheckContext visit(DelphiNode node, DelphiCheckContext context) {
+      return super.visit(node, context);
+    }
+  }
+
+  @ManualTraversal
+  public static class ManualNodeVisitingCheck extends NodeVisitingCheck {
+    // Visits the same nodes, but traverses the AST itself
+  }
+
+  public static class FileRecordingCheck extends DelphiCheck {
+    final List<DelphiAst> files = new ArrayList<>();
+    String configuration;
+
+    @Override
+    public void start(DelphiCheckContext context) {
+      files.add(context.getAst());
+    }
+  }
+
+  public static class InjectedDependencyCheck extends FileRecordingCheck {
+    private final Object dependency;
+
+    public InjectedDependencyCheck(Object dependency) {
+      this.dependency = dependency;
+    }
+
+    public Object getDependency() {
+      return dependency;
+    }
+  }
 }
@@ -19,6 +19,7 @@
 package au.com.integradev.delphi.nunit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 import au.com.integradev.delphi.utils.DelphiUtils;
 import java.io.File;
@@ -110,6 +111,19 @@ class DelphiNUnitParserTest {
     assertThat(results.getDurationSeconds()).isZero();
   }
 
+  @ParameterizedTest
+  @ValueSource(strings = {"v2", "v3"})
+  void testCollectReportWithTestCaseContents(String version) {
+    ResultsAggregator results = getResults(getPath("testCaseContents/" + version));
+
+    // only test-case attributes should be read, the contents of test cases and suites are skipped
+    assertThat(results).isNotNull();
+    assertThat(results.getTestsRun()).isEqualTo(2);
+    assertThat(results.getFailures()).isEqualTo(1);
+    assertThat(results.getSkipped()).isZero();
+    assertThat(results.getDurationSeconds()).isEqualTo(0.3, within(0.0001));
+  }
+
   private static ResultsAggregator getResults(String path) {
     return DelphiNUnitParser.collect(DelphiUtils.getResource(path));
   }
@@ -27,6 +27,7 @@ import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.sonar.plugins.communitydelphi.api.operator.BinaryOperator;
 import org.sonar.plugins.communitydelphi.api.operator.UnaryOperator;
+import org.sonar.plugins.communitydelphi.api.symbol.Invocable;
 import org.sonar.plugins.communitydelphi.api.type.IntrinsicType;
 import org.sonar.plugins.communitydelphi.api.type.Type;
 import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
@@ -87,4 +88,51 @@ class OperatorInvocableCollectorTest {
     OperatorInvocableCollector collector = new OperatorInvocableCollector(typeFactory);
     assertThat(collector.collect(UnaryOperator.ADDRESS, TypeFactory.untypedType())).isEmpty();
   }
+
+  @Test
+  void testIntrinsicsShouldBeSharedBetweenCollectorsWithSameTypeFactory() {
+    TypeFactory typeFactory = TypeFactoryUtils.defaultFactory();
+    Type integer = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
+
+    Set<Invocable> first =
+        new OperatorInvocableCollector(typeFactory).collect(BinaryOperator.ADD, integer, integer);
+    Set<Invocable> second =
+        new OperatorInvocableCollector(typeFactory).collect(BinaryOperator.ADD, integer, integer);
+
+    assertThat(second)
+        .isNotEmpty()
+        .allMatch(invocable -> first.stream().anyMatch(other -> other == invocable));
+  }
+
+  @Test
+  void testSetIntrinsicsShouldBeSpecificToSetType() {
+    TypeFactory typeFactory = TypeFactoryUtils.defaultFactory();
+    Type byteSet = typeFactory.set(typeFactory.getIntrinsic(IntrinsicType.BYTE));
+    Type charSet = typeFactory.set(typeFactory.getIntrinsic(IntrinsicType.ANSICHAR));
+
+    OperatorInvocableCollector collector = new OperatorInvocableCollector(typeFactory);
+
+    assertThat(collector.collect(BinaryOperator.ADD, byteSet, byteSet))
+        .extracting(Invocable::getReturnType)
+        .containsExactly(byteSet);
+    assertThat(collector.collect(BinaryOperator.ADD, charSet, charSet))
+        .extracting(Invocable::getReturnType)
+        .containsExactly(charSet);
+  }
+
+  @Test
+  void testIntrinsicsShouldNotBeSharedForTypesDeclaredInSourceCode() {
+    TypeFactoryImpl typeFactory = (TypeFactoryImpl) TypeFactoryUtils.defaultFactory();
+    Type integer = typeFactory.getIntrinsic(IntrinsicType.INTEGER);
+    Type array = typeFactory.array(null, integer, Set.of(ArrayOption.DYNAMIC));
+
+    Set<Invocable> first =
+        new OperatorInvocableCollector(typeFactory).collect(BinaryOperator.ADD, array, array);
+    Set<Invocable> second =
+        new OperatorInvocableCollector(typeFactory).collect(BinaryOperator.ADD, array, array);
+
+    assertThat(second)
+        .isNotEmpty()
+        .noneMatch(invocable -> first.stream().anyMatch(other -> other == invocable));
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.preprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.communitydelphi.api.directive.SwitchDirective.SwitchKind;
+
+class CompilerSwitchRegistryTest {
+  @Test
+  void testEmptyRegistryShouldHaveNoActiveSwitches() {
+    var registry = new CompilerSwitchRegistry();
+
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 0)).isFalse();
+    assertThat(registry.getActiveSwitches(0)).isEmpty();
+  }
+
+  @Test
+  void testIsActiveSwitch() {
+    var registry = new CompilerSwitchRegistry();
+    registry.addSwitch(SwitchKind.POINTERMATH, 30, 40);
+    registry.addSwitch(SwitchKind.POINTERMATH, 10, 20);
+
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 9)).isFalse();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 10)).isTrue();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 20)).isTrue();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 25)).isFalse();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 35)).isTrue();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, 41)).isFalse();
+    assertThat(registry.isActiveSwitch(SwitchKind.SCOPEDENUMS, 15)).isFalse();
+  }
+
+  @Test
+  void testOverlappingRangesShouldBeMerged() {
+    var registry = new CompilerSwitchRegistry();
+    registry.addSwitch(SwitchKind.POINTERMATH, 10, 20);
+    registry.addSwitch(SwitchKind.POINTERMATH, 15, 30);
+    registry.addSwitch(SwitchKind.POINTERMATH, 12, 14);
+
+    assertThat(registry.getActiveSwitches(10, 30)).containsExactly(SwitchKind.POINTERMATH);
+    assertThat(registry.getActiveSwitches(10, 31)).isEmpty();
+  }
+
+  @Test
+  void testSwitchesAddedAfterQueryShouldBeVisible() {
+    var registry = new CompilerSwitchRegistry();
+    registry.addSwitch(SwitchKind.POINTERMATH, 10, 20);
+    assertThat(registry.isActiveSwitch(SwitchKind.SCOPEDENUMS, 15)).isFalse();
+
+    registry.addSwitch(SwitchKind.SCOPEDENUMS, 10, 20);
+    assertThat(registry.isActiveSwitch(SwitchKind.SCOPEDENUMS, 15)).isTrue();
+  }
+
+  @Test
+  void testGetActiveSwitchesForSpan() {
+    var registry = new CompilerSwitchRegistry();
+    registry.addSwitch(SwitchKind.POINTERMATH, 10, 50);
+    registry.addSwitch(SwitchKind.SCOPEDENUMS, 20, 30);
+    registry.addSwitch(SwitchKind.ZEROBASEDSTRINGS, 25, 60);
+
+    assertThat(registry.getActiveSwitches(22))
+        .containsExactlyInAnyOrder(SwitchKind.POINTERMATH, SwitchKind.SCOPEDENUMS);
+    assertThat(registry.getActiveSwitches(20, 30))
+        .containsExactlyInAnyOrder(SwitchKind.POINTERMATH, SwitchKind.SCOPEDENUMS);
+    assertThat(registry.getActiveSwitches(26, 40))
+        .containsExactlyInAnyOrder(SwitchKind.POINTERMATH, SwitchKind.ZEROBASEDSTRINGS);
+    assertThat(registry.getActiveSwitches(5, 15)).isEmpty();
+  }
+}
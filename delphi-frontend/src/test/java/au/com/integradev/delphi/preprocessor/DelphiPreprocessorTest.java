@@ -20,6 +20,7 @@ package au.com.integradev.delphi.preprocessor;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -34,12 +35,16 @@ import au.com.integradev.delphi.preprocessor.search.SearchPath;
 import au.com.integradev.delphi.utils.DelphiUtils;
 import au.com.integradev.delphi.utils.files.DelphiFileUtils;
 import au.com.integradev.delphi.utils.types.TypeFactoryUtils;
+import com.google.common.collect.Iterables;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.stream.Collectors;
 import org.antlr.runtime.BufferedTokenStream;
+import org.antlr.runtime.Token;
 import org.junit.jupiter.api.Test;
+import org.sonar.plugins.communitydelphi.api.directive.SwitchDirective.SwitchKind;
 import org.sonar.plugins.communitydelphi.api.type.TypeFactory;
 
 class DelphiPreprocessorTest {
@@ -119,6 +124,44 @@ class DelphiPreprocessorTest {
     assertThatCode(() -> execute("PseudoExpressions.pas")).doesNotThrowAnyException();
   }
 
+  @Test
+  void testIncludedTokensShouldBeIndexedInOrder() throws Exception {
+    String filePath =
+        DelphiUtils.getResource(BASE_DIR + "includeTest/MultipleIncludes.pas").getAbsolutePath();
+    DelphiFileConfig config = DelphiFileUtils.mockConfig();
+    DelphiFileStream fileStream = new DelphiFileStream(filePath, config.getEncoding());
+
+    DelphiLexer lexer = new DelphiLexer(fileStream);
+    DelphiPreprocessor preprocessor = new DelphiPreprocessor(lexer, config, Platform.WINDOWS);
+    preprocessor.process();
+
+    List<Token> tokens = preprocessor.getTokenStream().getTokens();
+    assertThat(tokens).extracting(Token::getTokenIndex).isSorted().doesNotHaveDuplicates();
+
+    List<Token> constTokens =
+        tokens.stream()
+            .filter(token -> token.getType() == DelphiLexer.CONST)
+            .collect(Collectors.toList());
+    Token implementationToken =
+        tokens.stream()
+            .filter(token -> token.getType() == DelphiLexer.IMPLEMENTATION)
+            .findFirst()
+            .orElseThrow();
+
+    CompilerSwitchRegistry registry = preprocessor.getCompilerSwitchRegistry();
+    assertThat(constTokens).hasSize(2);
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, constTokens.get(0).getTokenIndex()))
+        .isFalse();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, implementationToken.getTokenIndex()))
+        .isTrue();
+    assertThat(registry.isActiveSwitch(SwitchKind.POINTERMATH, constTokens.get(1).getTokenIndex()))
+        .isTrue();
+    assertThat(
+            registry.isActiveSwitch(
+                SwitchKind.POINTERMATH, Iterables.getLast(tokens).getTokenIndex()))
+        .isFalse();
+  }
+
   @Test
   void testCallingProcessTwiceShouldThrowException() throws Exception {
     String filePath =
@@ -0,0 +1,108 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.preprocessor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import au.com.integradev.delphi.antlr.DelphiLexer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.TokenSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncludeTokenCacheTest {
+  @TempDir private Path tempDir;
+
+  @Test
+  void testIncludeFileShouldOnlyBeLexedOnce() throws IOException {
+    Path include = createInclude("const C_Foo = 1;");
+    IncludeTokenCache cache = new IncludeTokenCache();
+
+    List<Token> first = readTokens(cache.getTokenSource(include, UTF_8.name()));
+    List<Token> second = readTokens(cache.getTokenSource(include, UTF_8.name()));
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(second)
+        .extracting(Token::getText)
+        .containsExactlyElementsOf(first.stream().map(Token::getText).collect(Collectors.toList()));
+    assertThat(second)
+        .extracting(Token::getType)
+        .containsExactlyElementsOf(first.stream().map(Token::getType).collect(Collectors.toList()));
+  }
+
+  @Test
+  void testTokensShouldBeCopiedForEachInclude() throws IOException {
+    Path include = createInclude("const C_Foo = 1;");
+    IncludeTokenCache cache = new IncludeTokenCache();
+
+    List<Token> first = readTokens(cache.getTokenSource(include, UTF_8.name()));
+    first.forEach(token -> token.setTokenIndex(100));
+    List<Token> second = readTokens(cache.getTokenSource(include, UTF_8.name()));
+
+    assertThat(second).doesNotContainAnyElementsOf(first);
+    assertThat(second).extracting(Token::getTokenIndex).doesNotContain(100);
+  }
+
+  @Test
+  void testModifiedIncludeFileShouldBeLexedAgain() throws IOException {
+    Path include = createInclude("const C_Foo = 1;");
+    IncludeTokenCache cache = new IncludeTokenCache();
+    readTokens(cache.getTokenSource(include, UTF_8.name()));
+
+    Files.writeString(include, "type TFoo = Integer;");
+    Files.setLastModifiedTime(include, FileTime.from(Instant.now().plusSeconds(60)));
+    List<Token> tokens = readTokens(cache.getTokenSource(include, UTF_8.name()));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(tokens).extracting(Token::getType).contains(DelphiLexer.TYPE);
+  }
+
+  @Test
+  void testTokenSourceShouldBeNamedAfterIncludeFile() throws IOException {
+    Path include = createInclude("");
+    TokenSource tokenSource = new IncludeTokenCache().getTokenSource(include, UTF_8.name());
+
+    assertThat(tokenSource.getSourceName()).isEqualTo(include.toString());
+    assertThat(tokenSource.nextToken().getType()).isEqualTo(Token.EOF);
+    assertThat(tokenSource.nextToken().getType()).isEqualTo(Token.EOF);
+  }
+
+  private Path createInclude(String content) throws IOException {
+    return Files.writeString(tempDir.resolve("Include.inc"), content);
+  }
+
+  private static List<Token> readTokens(TokenSource tokenSource) {
+    List<Token> result = new ArrayList<>();
+    Token token;
+    do {
+      token = tokenSource.nextToken();
+      result.add(token);
+    } while (token.getType() != Token.EOF);
+    return result;
+  }
+}
@@ -18,11 +18,16 @@
  */
 package au.com.integradev.delphi.preprocessor.search;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class SearchPathTest {
   @Test
@@ -31,4 +36,26 @@ class SearchPathTest {
     Path invalidPath = Path.of("C:/MY/INVALID/PATH");
     assertThatCode(() -> searchPath.search("file", invalidPath)).doesNotThrowAnyException();
   }
+
+  @Test
+  void testSearchShouldIgnoreCaseAndPreferShallowestFile(@TempDir Path root) throws IOException {
+    Path nested = Files.createDirectories(root.resolve("a/b"));
+    Files.writeString(nested.resolve("Include.inc"), "");
+    Path expected = Files.writeString(root.resolve("a/INCLUDE.INC"), "");
+
+    SearchPath searchPath = SearchPath.create(List.of(root));
+
+    assertThat(searchPath.search("include.inc", root)).isEqualTo(expected);
+  }
+
+  @Test
+  void testSearchShouldFallBackToRootDirectories(@TempDir Path root, @TempDir Path other)
+      throws IOException {
+    Path expected = Files.writeString(root.resolve("Include.inc"), "");
+
+    SearchPath searchPath = SearchPath.create(List.of(root));
+
+    assertThat(searchPath.search("Include.inc", other)).isEqualTo(expected);
+    assertThat(searchPath.search("Missing.inc", other)).isNull();
+  }
 }
@@ -0,0 +1,130 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import au.com.integradev.delphi.DelphiProperties;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.config.Configuration;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiAst;
+import org.sonar.plugins.communitydelphi.api.ast.DelphiNode;
+import org.sonar.plugins.communitydelphi.api.ast.RoutineImplementationNode;
+import org.sonar.plugins.communitydelphi.api.ast.TypeDeclarationNode;
+import org.sonar.plugins.communitydelphi.api.check.FilePosition;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.TypeNameDeclaration;
+import org.sonar.plugins.communitydelphi.api.type.Type;
+
+class TestCodeIndexTest {
+  private static final String TEST_TYPE = "TestFramework.TTestCase";
+
+  private Configuration config;
+  private Type testType;
+  private Type mainType;
+
+  @BeforeEach
+  void setup() {
+    config = mock(Configuration.class);
+    when(config.get(DelphiProperties.TEST_TYPE_KEY)).thenReturn(Optional.of(TEST_TYPE));
+
+    testType = mock(Type.class);
+    when(testType.is(TEST_TYPE)).thenReturn(true);
+    mainType = mock(Type.class);
+  }
+
+  @Test
+  void testShouldAgreeWithTestCodeDetector() {
+    List<TypeDeclarationNode> types =
+        List.of(
+            typeDeclaration(mainType, 3, 1, 10, 5),
+            typeDeclaration(testType, 5, 3, 7, 7),
+            typeDeclaration(testType, 12, 1, 20, 5),
+            typeDeclaration(mainType, 33, 3, 34, 10));
+    List<RoutineImplementationNode> routines =
+        List.of(routine(testType, 25, 1, 30, 4), routine(null, 32, 1, 35, 4));
+    DelphiAst ast = ast(types, routines);
+
+    TestCodeDetector detector = new TestCodeDetector(config);
+    TestCodeIndex index = new TestCodeIndex(() -> config, ast);
+
+    for (int line = 1; line <= 40; ++line) {
+      for (int column = 0; column <= 12; column += 3) {
+        FilePosition position = FilePosition.from(line, column, line, column + 2);
+        assertThat(index.isInTestCode(position))
+            .describedAs("line %d, column %d", line, column)
+            .isEqualTo(detector.isInTestCode(ast, position));
+      }
+    }
+    assertThat(index.isInTestCode(null)).isEqualTo(detector.isInTestCode(ast, null));
+  }
+
+  @Test
+  void testInnermostTypeShouldDecide() {
+    List<TypeDeclarationNode> types =
+        List.of(typeDeclaration(testType, 1, 1, 20, 5), typeDeclaration(mainType, 5, 1, 8, 5));
+    TestCodeIndex index = new TestCodeIndex(() -> config, ast(types, List.of()));
+
+    assertThat(index.isInTestCode(FilePosition.from(3, 1, 3, 5))).isTrue();
+    assertThat(index.isInTestCode(FilePosition.from(6, 1, 6, 5))).isFalse();
+    assertThat(index.isInTestCode(FilePosition.from(10, 1, 10, 5))).isTrue();
+    assertThat(index.isInTestCode(FilePosition.from(7, 1, 10, 5))).isTrue();
+    assertThat(index.isInTestCode(FilePosition.from(25, 1, 25, 5))).isFalse();
+  }
+
+  private static DelphiAst ast(
+      List<TypeDeclarationNode> types, List<RoutineImplementationNode> routines) {
+    DelphiAst ast = mock(DelphiAst.class);
+    when(ast.findDescendantsOfType(TypeDeclarationNode.class)).thenReturn(types);
+    when(ast.findDescendantsOfType(RoutineImplementationNode.class)).thenReturn(routines);
+    return ast;
+  }
+
+  private static TypeDeclarationNode typeDeclaration(
+      Type type, int beginLine, int beginColumn, int endLine, int endColumn) {
+    TypeDeclarationNode node = mock(TypeDeclarationNode.class);
+    when(node.getType()).thenReturn(type);
+    setPosition(node, beginLine, beginColumn, endLine, endColumn);
+    return node;
+  }
+
+  private static RoutineImplementationNode routine(
+      Type type, int beginLine, int beginColumn, int endLine, int endColumn) {
+    RoutineImplementationNode node = mock(RoutineImplementationNode.class);
+    if (type != null) {
+      TypeNameDeclaration declaration = mock(TypeNameDeclaration.class);
+      when(declaration.getType()).thenReturn(type);
+      when(node.getTypeDeclaration()).thenReturn(declaration);
+    }
+    setPosition(node, beginLine, beginColumn, endLine, endColumn);
+    return node;
+  }
+
+  private static void setPosition(
+      DelphiNode node, int beginLine, int beginColumn, int endLine, int endColumn) {
+    when(node.getBeginLine()).thenReturn(beginLine);
+    when(node.getBeginColumn()).thenReturn(beginColumn);
+    when(node.getEndLine()).thenReturn(endLine);
+    when(node.getEndColumn()).thenReturn(endColumn);
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class NameKeyTest {
+  @ParameterizedTest
+  @CsvSource({"Foo,foo", "FOO,fOo", "System.SysUtils,system.sysutils", "\u0130,i", "\u212A,k"})
+  void testNamesEqualIgnoringCaseShouldHaveEqualKeys(String a, String b) {
+    assertThat(String.CASE_INSENSITIVE_ORDER.compare(a, b)).isZero();
+    assertThat(NameKey.of(a)).isEqualTo(NameKey.of(b)).hasSameHashCodeAs(NameKey.of(b));
+  }
+
+  @ParameterizedTest
+  @CsvSource({"Foo,Bar", "Foo,Foo1", "Foo,Fo"})
+  void testDifferentNamesShouldHaveDifferentKeys(String a, String b) {
+    assertThat(NameKey.of(a)).isNotEqualTo(NameKey.of(b));
+  }
+}
@@ -43,6 +43,8 @@ import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentMatchers;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitImportNameDeclaration;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclaration;
 
 class SymbolTableBuilderTest {
   @Test
@@ -191,6 +193,116 @@ class SymbolTableBuilderTest {
     assertThatCode(symbolTable::build).doesNotThrowAnyException();
   }
 
+  @Test
+  void testRetainedFilesShouldBeLimited(@TempDir Path standardLibraryPath, @TempDir Path tempDir)
+      throws IOException {
+    createStandardLibrary(standardLibraryPath);
+
+    Path first = tempDir.resolve("First.pas");
+    Files.writeString(first, "unit First;\ninterface\nimplementation\nend.");
+
+    Path second = tempDir.resolve("Second.pas");
+    Files.writeString(second, "unit Second;\ninterface\nimplementation\nend.");
+
+    SymbolTable symbolTable =
+        SymbolTable.builder()
+            .preprocessorFactory(new DelphiPreprocessorFactory(Platform.WINDOWS))
+            .typeFactory(TypeFactoryUtils.defaultFactory())
+            .standardLibraryPath(standardLibraryPath)
+            .sourceFiles(List.of(first, second))
+            .retainedFileLimit(1)
+            .build();
+
+    String firstPath = first.toAbsolutePath().toString();
+    String secondPath = second.toAbsolutePath().toString();
+
+    assertThat(symbolTable.takeRetainedFile(firstPath)).isNotNull();
+    assertThat(symbolTable.takeRetainedFile(firstPath)).isNull();
+    assertThat(symbolTable.takeRetainedFile(secondPath)).isNull();
+  }
+
+  @Test
+  void testRetainedFilesShouldBeReleased(@TempDir Path standardLibraryPath, @TempDir Path tempDir)
+      throws IOException {
+    createStandardLibrary(standardLibraryPath);
+
+    Path first = tempDir.resolve("First.pas");
+    Files.writeString(first, "unit First;\ninterface\nimplementation\nend.");
+
+    Path second = tempDir.resolve("Second.pas");
+    Files.writeString(second, "unit Second;\ninterface\nimplementation\nend.");
+
+    SymbolTable symbolTable =
+        SymbolTable.builder()
+            .preprocessorFactory(new DelphiPreprocessorFactory(Platform.WINDOWS))
+            .typeFactory(TypeFactoryUtils.defaultFactory())
+            .standardLibraryPath(standardLibraryPath)
+            .sourceFiles(List.of(first, second))
+            .retainedFileLimit(2)
+            .build();
+
+    String firstPath = first.toAbsolutePath().toString();
+    String secondPath = second.toAbsolutePath().toString();
+
+    symbolTable.releaseRetainedFilesExcept(Set.of(firstPath));
+
+    assertThat(symbolTable.takeRetainedFile(firstPath)).isNotNull();
+    assertThat(symbolTable.takeRetainedFile(secondPath)).isNull();
+  }
+
+  @Test
+  void testImportsShouldBeResolvedWhenParsingAhead(
+      @TempDir Path standardLibraryPath, @TempDir Path tempDir) throws IOException {
+    createStandardLibrary(standardLibraryPath);
+
+    Path includePath = tempDir.resolve("include");
+    Files.createDirectories(includePath);
+
+    Path referenced = includePath.resolve("Referenced.pas");
+    Files.writeString(referenced, "unit Referenced;\ninterface\nimplementation\nend.");
+
+    Path first = tempDir.resolve("First.pas");
+    Files.writeString(
+        first,
+        "unit First;\n"
+            + "interface\n"
+            + "uses\n"
+            + "  Second;\n"
+            + "implementation\n"
+            + "uses\n"
+            + "  Referenced;\n"
+            + "end.");
+
+    Path second = tempDir.resolve("Second.pas");
+    Files.writeString(
+        second,
+        "unit Second;\n"
+            + "interface\n"
+            + "uses\n"
+            + "  Referenced;\n"
+            + "implementation\n"
+            + "end.");
+
+    SymbolTable symbolTable =
+        SymbolTable.builder()
+            .preprocessorFactory(new DelphiPreprocessorFactory(Platform.WINDOWS))
+            .typeFactory(TypeFactoryUtils.defaultFactory())
+            .standardLibraryPath(standardLibraryPath)
+            .sourceFiles(List.of(first, second))
+            .searchPath(SearchPath.create(List.of(includePath)))
+            .threads(2)
+            .build();
+
+    UnitNameDeclaration firstUnit = symbolTable.getUnitByPath(first.toAbsolutePath().toString());
+    assertThat(firstUnit).isNotNull();
+    assertThat(firstUnit.getFileScope().getImportDeclarations())
+        .extracting(UnitImportNameDeclaration::getOriginalDeclaration)
+        .extracting(UnitNameDeclaration::getName)
+        .containsExactlyInAnyOrder("Second", "Referenced");
+    assertThat(symbolTable.getUnitByPath(second.toAbsolutePath().toString())).isNotNull();
+    assertThat(symbolTable.getUnitByPath(referenced.toAbsolutePath().toString())).isNotNull();
+  }
+
   private static void createStandardLibrary(Path path) throws IOException {
     Files.writeString(
         path.resolve("SysInit.pas"),
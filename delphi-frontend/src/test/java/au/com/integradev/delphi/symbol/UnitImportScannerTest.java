@@ -0,0 +1,240 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import au.com.integradev.delphi.antlr.DelphiLexer;
+import au.com.integradev.delphi.compiler.Platform;
+import au.com.integradev.delphi.file.DelphiFile;
+import au.com.integradev.delphi.file.DelphiFileConfig;
+import au.com.integradev.delphi.preprocessor.DelphiPreprocessorFactory;
+import au.com.integradev.delphi.preprocessor.search.SearchPath;
+import au.com.integradev.delphi.symbol.UnitImportScanner.ImportSectionLexer;
+import au.com.integradev.delphi.symbol.UnitImportScanner.UnitImports;
+import au.com.integradev.delphi.utils.types.TypeFactoryUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.Token;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UnitImportScannerTest {
+  @TempDir private Path tempDir;
+
+  @Test
+  void testUnitImports() throws IOException {
+    UnitImports imports =
+        scan(
+            "unit Foo.Bar;\n"
+                + "interface\n"
+                + "uses\n"
+                + "  System.SysUtils, &Baz;\n"
+                + "implementation\n"
+                + "uses\n"
+                + "  Flarp;\n"
+                + "end.");
+
+    assertThat(imports.getUnitName()).isEqualTo("Foo.Bar");
+    assertThat(imports.getInterfaceImports()).containsExactly("System.SysUtils", "Baz");
+    assertThat(imports.getImplementationImports()).containsExactly("Flarp");
+  }
+
+  @Test
+  void testProgramImportsWithFileNames() throws IOException {
+    UnitImports imports =
+        scan(
+            "program Foo;\n"
+                + "uses\n"
+                + "  Bar in 'Bar.pas',\n"
+                + "  Baz in 'sub\\Baz.pas' {Form};\n"
+                + "begin\n"
+                + "end.");
+
+    assertThat(imports.getUnitName()).isEqualTo("Foo");
+    assertThat(imports.getInterfaceImports()).containsExactly("Bar", "Baz");
+  }
+
+  @Test
+  void testInactiveConditionalBranchesShouldBeIgnored() throws IOException {
+    UnitImports imports =
+        scan(
+            "unit Foo;\n"
+                + "interface\n"
+                + "uses\n"
+                + "  {$IFDEF UNDEFINED}Bar,{$ENDIF}\n"
+                + "  Baz;\n"
+                + "implementation\n"
+                + "end.");
+
+    assertThat(imports.getInterfaceImports()).containsExactly("Baz");
+  }
+
+  @Test
+  void testContainsIsOnlyAnImportClauseInPackages() throws IOException {
+    UnitImports imports =
+        scan(
+            "unit Foo;\n"
+                + "interface\n"
+                + "implementation\n"
+                + "procedure Bar;\n"
+                + "begin\n"
+                + "  List.Contains(Baz);\n"
+                + "end;\n"
+                + "end.");
+
+    assertThat(imports.getInterfaceImports()).isEmpty();
+    assertThat(imports.getImplementationImports()).isEmpty();
+  }
+
+  @Test
+  void testConditionalImplementationImports() throws IOException {
+    UnitImports imports =
+        scan(
+            "unit Foo;\n"
+                + "interface\n"
+                + "implementation\n"
+                + "{$IFDEF UNDEFINED}\n"
+                + "uses Bar;\n"
+                + "{$ELSE}\n"
+                + "uses Baz;\n"
+                + "{$ENDIF}\n"
+                + "const\n"
+                + "  Flarp = 1;\n"
+                + "end.");
+
+    assertThat(imports.getImplementationImports()).containsExactly("Baz");
+  }
+
+  @Test
+  void testConditionalImplementationKeyword() throws IOException {
+    String source =
+        "unit Foo;\n"
+            + "interface\n"
+            + "uses Bar;\n"
+            + "{$IFDEF UNDEFINED}\n"
+            + "implementation\n"
+            + "uses Baz;\n"
+            + "{$ELSE}\n"
+            + "implementation\n"
+            + "uses Flarp;\n"
+            + "{$ENDIF}\n"
+            + "const\n"
+            + "  Qux = 1;\n"
+            + "end.";
+
+    UnitImports imports = scan(source);
+
+    assertThat(imports.getInterfaceImports()).containsExactly("Bar");
+    assertThat(imports.getImplementationImports()).containsExactly("Flarp");
+    assertThat(lexSignificantTokens(source)).endsWith(DelphiLexer.END, DelphiLexer.DOT, Token.EOF);
+  }
+
+  @Test
+  void testIncludeFilesBeforeTheCutOffShouldBeReported() throws IOException {
+    Path imports = tempDir.resolve("Imports.inc");
+    Files.writeString(imports, "Bar,");
+    Files.writeString(tempDir.resolve("Constants.inc"), "Baz = 1;");
+
+    UnitImports result =
+        scan(
+            "unit Foo;\n"
+                + "interface\n"
+                + "uses {$I Imports.inc} Flarp;\n"
+                + "implementation\n"
+                + "const\n"
+                + "{$I Constants.inc}\n"
+                + "end.");
+
+    assertThat(result.getInterfaceImports()).containsExactly("Bar", "Flarp");
+    assertThat(result.getIncludeFiles()).containsExactly(imports.toAbsolutePath().normalize());
+  }
+
+  @Test
+  void testPackageImports() throws IOException {
+    UnitImports imports =
+        scan(
+            "package Foo;\n"
+                + "requires\n"
+                + "  rtl;\n"
+                + "contains\n"
+                + "  Bar in 'Bar.pas';\n"
+                + "end.");
+
+    assertThat(imports.getUnitName()).isEqualTo("Foo");
+    assertThat(imports.getInterfaceImports()).containsExactly("rtl", "Bar");
+  }
+
+  @Test
+  void testLexingShouldStopAfterTheImportClauses() {
+    assertThat(lexSignificantTokens("program Foo;\nuses\n  Bar;\nbegin\n  Baz;\nend."))
+        .containsExactly(
+            DelphiLexer.PROGRAM,
+            DelphiLexer.TkIdentifier,
+            DelphiLexer.SEMICOLON,
+            DelphiLexer.USES,
+            DelphiLexer.TkIdentifier,
+            DelphiLexer.SEMICOLON,
+            Token.EOF);
+
+    assertThat(
+            lexSignificantTokens(
+                "unit Foo;\ninterface\nimplementation\n{$IFDEF A}uses Bar;{$ENDIF}\nend."))
+        .endsWith(
+            DelphiLexer.IMPLEMENTATION,
+            DelphiLexer.USES,
+            DelphiLexer.TkIdentifier,
+            DelphiLexer.SEMICOLON,
+            Token.EOF);
+  }
+
+  private static List<Integer> lexSignificantTokens(String source) {
+    DelphiLexer lexer = new ImportSectionLexer(new ANTLRStringStream(source), false);
+    List<Integer> types = new ArrayList<>();
+    Token token;
+    do {
+      token = lexer.nextToken();
+      if (token.getChannel() != Token.HIDDEN_CHANNEL) {
+        types.add(token.getType());
+      }
+    } while (token.getType() != Token.EOF);
+    return types;
+  }
+
+  private UnitImports scan(String source) throws IOException {
+    Path path = tempDir.resolve("Test.pas");
+    Files.writeString(path, source);
+
+    DelphiFileConfig config =
+        DelphiFile.createConfig(
+            "UTF-8",
+            new DelphiPreprocessorFactory(Platform.WINDOWS),
+            TypeFactoryUtils.defaultFactory(),
+            SearchPath.create(Collections.emptyList()),
+            Set.of());
+
+    return UnitImportScanner.scan(path, config);
+  }
+}
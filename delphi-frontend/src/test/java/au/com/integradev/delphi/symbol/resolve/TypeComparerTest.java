@@ -50,6 +50,7 @@ import au.com.integradev.delphi.type.factory.ArrayOption;
 import au.com.integradev.delphi.type.factory.TypeFactoryImpl;
 import au.com.integradev.delphi.utils.types.TypeFactoryUtils;
 import au.com.integradev.delphi.utils.types.TypeMocker;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -99,6 +100,25 @@ class TypeComparerTest {
     compare(IntrinsicType.UNICODESTRING, IntrinsicType.UNICODESTRING, EXACT);
   }
 
+  @Test
+  void testMemoizedComparisonsShouldMatchUncachedComparisons() {
+    List<Type> types =
+        Arrays.stream(IntrinsicType.values())
+            .map(FACTORY::getIntrinsic)
+            .collect(Collectors.toList());
+
+    for (Type from : types) {
+      for (Type to : types) {
+        EqualityType expected = TypeComparer.compareTypes(from, to);
+        for (int i = 0; i < 2; ++i) {
+          assertThat(TypeComparer.compare(from, to))
+              .as("%s -> %s", from.getImage(), to.getImage())
+              .isEqualTo(expected);
+        }
+      }
+    }
+  }
+
   @Test
   void testToInteger() {
     compare(IntrinsicType.SMALLINT, IntrinsicType.INTEGER, CONVERT_LEVEL_1);
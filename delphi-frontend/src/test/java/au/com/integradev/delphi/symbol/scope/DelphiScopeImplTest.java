@@ -21,28 +21,37 @@ package au.com.integradev.delphi.symbol.scope;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
 import static org.sonar.plugins.communitydelphi.api.symbol.scope.DelphiScope.unknownScope;
 import static org.sonar.plugins.communitydelphi.api.type.TypeFactory.unknownType;
 
+import au.com.integradev.delphi.symbol.NameKey;
 import au.com.integradev.delphi.symbol.SymbolicNode;
+import au.com.integradev.delphi.symbol.declaration.RoutineNameDeclarationImpl;
 import au.com.integradev.delphi.symbol.declaration.TypeNameDeclarationImpl;
 import au.com.integradev.delphi.symbol.declaration.VariableNameDeclarationImpl;
 import au.com.integradev.delphi.symbol.occurrence.NameOccurrenceImpl;
 import au.com.integradev.delphi.utils.types.TypeMocker;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.sonar.plugins.communitydelphi.api.ast.Visibility.VisibilityType;
 import org.sonar.plugins.communitydelphi.api.symbol.NameOccurrence;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.NameDeclaration;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.RoutineDirective;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.RoutineKind;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.RoutineNameDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.TypeNameDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.TypedDeclaration;
 import org.sonar.plugins.communitydelphi.api.symbol.declaration.VariableNameDeclaration;
 import org.sonar.plugins.communitydelphi.api.type.StructKind;
+import org.sonar.plugins.communitydelphi.api.type.Type.ProceduralType;
 
 class DelphiScopeImplTest {
   private DelphiScopeImpl scope;
@@ -78,6 +87,23 @@ class DelphiScopeImplTest {
         typeParameters);
   }
 
+  private static RoutineNameDeclaration createRoutine(
+      String image, Set<RoutineDirective> directives) {
+    return new RoutineNameDeclarationImpl(
+        SymbolicNode.imaginary(image, unknownScope()),
+        "Unit." + image,
+        unknownType(),
+        directives,
+        false,
+        true,
+        RoutineKind.PROCEDURE,
+        mock(ProceduralType.class),
+        null,
+        VisibilityType.PUBLIC,
+        Collections.emptyList(),
+        Collections.emptyList());
+  }
+
   private static NameOccurrence createOccurrenceOf(NameDeclaration declaration) {
     var symbolicNode = SymbolicNode.imaginary(declaration.getName(), unknownScope());
     NameOccurrenceImpl occurrence = new NameOccurrenceImpl(symbolicNode);
@@ -171,6 +197,21 @@ class DelphiScopeImplTest {
         .isInstanceOf(DuplicatedDeclarationException.class);
   }
 
+  @Test
+  void testGetRoutineDeclarationsByNameIgnoresCase() {
+    RoutineNameDeclaration foo = createRoutine("Foo", Collections.emptySet());
+    RoutineNameDeclaration fooOverload = createRoutine("FOO", Set.of(RoutineDirective.OVERLOAD));
+    RoutineNameDeclaration bar = createRoutine("Bar", Collections.emptySet());
+    scope.addDeclaration(foo);
+    scope.addDeclaration(fooOverload);
+    scope.addDeclaration(bar);
+
+    assertThat(scope.getRoutineDeclarations(NameKey.of("foo")))
+        .containsExactlyInAnyOrder(foo, fooOverload);
+    assertThat(scope.getRoutineDeclarations(NameKey.of("BAR"))).containsExactly(bar);
+    assertThat(scope.getRoutineDeclarations(NameKey.of("Baz"))).isEmpty();
+  }
+
   @Test
   void testForwardDeclarationsAreNotDuplicates() {
     scope.addDeclaration(createClassType("Baz"));
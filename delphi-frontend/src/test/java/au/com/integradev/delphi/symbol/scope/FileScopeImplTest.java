@@ -0,0 +1,84 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi.symbol.scope;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.plugins.communitydelphi.api.symbol.scope.DelphiScope.unknownScope;
+import static org.sonar.plugins.communitydelphi.api.type.TypeFactory.unknownType;
+
+import au.com.integradev.delphi.symbol.SymbolicNode;
+import au.com.integradev.delphi.symbol.declaration.VariableNameDeclarationImpl;
+import au.com.integradev.delphi.symbol.occurrence.NameOccurrenceImpl;
+import au.com.integradev.delphi.utils.types.TypeFactoryUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.communitydelphi.api.symbol.NameOccurrence;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.VariableNameDeclaration;
+
+class FileScopeImplTest {
+  private SystemScopeImpl systemScope;
+  private SysInitScopeImpl sysInitScope;
+
+  @BeforeEach
+  void setup() {
+    systemScope = new SystemScopeImpl(TypeFactoryUtils.defaultFactory());
+    sysInitScope = new SysInitScopeImpl("SysInit", systemScope);
+  }
+
+  @Test
+  void testImportAddedAfterLookupShouldBeSearched() {
+    UnitScopeImpl scope = createUnitScope("Foo");
+    UnitScopeImpl importScope = createUnitScope("Bar");
+    VariableNameDeclaration baz = createVariable("Baz");
+    importScope.addDeclaration(baz);
+
+    assertThat(scope.findDeclaration(createOccurrence("Baz"))).isEmpty();
+
+    scope.addImport(importScope);
+
+    assertThat(scope.findDeclaration(createOccurrence("baz"))).containsExactly(baz);
+  }
+
+  @Test
+  void testLastImportShouldTakePrecedence() {
+    UnitScopeImpl scope = createUnitScope("Foo");
+    UnitScopeImpl first = createUnitScope("Bar");
+    UnitScopeImpl second = createUnitScope("Baz");
+    first.addDeclaration(createVariable("Flarp"));
+    VariableNameDeclaration flarp = createVariable("Flarp");
+    second.addDeclaration(flarp);
+
+    scope.addImport(first);
+    scope.addImport(second);
+
+    assertThat(scope.findDeclaration(createOccurrence("Flarp"))).containsExactly(flarp);
+  }
+
+  private UnitScopeImpl createUnitScope(String name) {
+    return new UnitScopeImpl(name, systemScope, sysInitScope);
+  }
+
+  private static VariableNameDeclaration createVariable(String image) {
+    return VariableNameDeclarationImpl.parameter(image, unknownType(), unknownScope());
+  }
+
+  private static NameOccurrence createOccurrence(String image) {
+    return new NameOccurrenceImpl(SymbolicNode.imaginary(image, unknownScope()));
+  }
+}
@@ -0,0 +1,15 @@
+unit MultipleIncludes;
+
+{$I MultipleIncludesInterface.inc}
+
+{$I MultipleIncludesConstants.inc}
+
+{$POINTERMATH ON}
+
+implementation
+
+{$I MultipleIncludesConstants.inc}
+
+{$POINTERMATH OFF}
+
+end.
@@ -34,6 +34,7 @@ public class ExtendingTFooCheck extends DelphiCheck {
 
     return super.visit(node, context);
 
-    // Code located after the call to the overridden method is executed when leaving the node
+    // Code that must run when leaving the node requires the rule to be annotated with
+    // @ManualTraversal, since the shared traversal visits the children after this method returns.
   }
 }
@@ -31,6 +31,7 @@ public class RoutineDeclarationCheck extends DelphiCheck {
     // Be careful to always call this method to visit every node of the AST.
     return super.visit(node, context);
 
-    // Code located after the call to the overridden method is executed when leaving the node
+    // Code that must run when leaving the node requires the rule to be annotated with
+    // @ManualTraversal, since the shared traversal visits the children after this method returns.
   }
 }
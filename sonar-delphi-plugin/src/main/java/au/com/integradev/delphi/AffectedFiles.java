@@ -0,0 +1,108 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi;
+
+import au.com.integradev.delphi.symbol.SymbolTable;
+import au.com.integradev.delphi.symbol.declaration.UnitImportNameDeclarationImpl;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitImportNameDeclaration;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclaration;
+
+/**
+ * Determines which source files need to be analyzed when unchanged files can be skipped.
+ *
+ * <p>A file is affected if it changed, or if it depends on a unit whose interface may have changed.
+ * The interface of a unit may have changed if the unit itself changed, or if its interface depends
+ * on a unit whose interface may have changed.
+ *
+ * <p>Dependencies are taken from the uses clauses rather than from the references that resolved, so
+ * that a unit which stops resolving because a declaration was removed from a changed unit is still
+ * found to be affected.
+ */
+final class AffectedFiles {
+  private AffectedFiles() {
+    // Utility class
+  }
+
+  static List<Path> resolve(
+      List<Path> sourceFiles, Predicate<Path> isChanged, SymbolTable symbolTable) {
+    Map<Path, UnitNameDeclaration> unitsByFile = new HashMap<>();
+    Map<UnitNameDeclaration, Set<UnitNameDeclaration>> dependents = new HashMap<>();
+    Map<UnitNameDeclaration, Set<UnitNameDeclaration>> interfaceDependents = new HashMap<>();
+    Set<Path> affectedFiles = new HashSet<>();
+    Set<UnitNameDeclaration> changedInterfaces = new HashSet<>();
+    Deque<UnitNameDeclaration> queue = new ArrayDeque<>();
+
+    for (Path file : sourceFiles) {
+      UnitNameDeclaration unit = symbolTable.getUnitByPath(file.toAbsolutePath().toString());
+      if (unit == null) {
+        affectedFiles.add(file);
+        continue;
+      }
+
+      unitsByFile.put(file, unit);
+      for (UnitImportNameDeclaration unitImport : unit.getFileScope().getImportDeclarations()) {
+        UnitNameDeclaration dependency = unitImport.getOriginalDeclaration();
+        if (dependency == null) {
+          continue;
+        }
+        dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(unit);
+        if (!isImplementationImport(unitImport)) {
+          interfaceDependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(unit);
+        }
+      }
+
+      if (isChanged.test(file)) {
+        affectedFiles.add(file);
+        changedInterfaces.add(unit);
+        queue.add(unit);
+      }
+    }
+
+    Set<UnitNameDeclaration> affectedUnits = new HashSet<>();
+    while (!queue.isEmpty()) {
+      UnitNameDeclaration unit = queue.remove();
+      affectedUnits.addAll(dependents.getOrDefault(unit, Set.of()));
+      for (UnitNameDeclaration dependent : interfaceDependents.getOrDefault(unit, Set.of())) {
+        if (changedInterfaces.add(dependent)) {
+          queue.add(dependent);
+        }
+      }
+    }
+
+    return sourceFiles.stream()
+        .filter(
+            file -> affectedFiles.contains(file) || affectedUnits.contains(unitsByFile.get(file)))
+        .collect(Collectors.toList());
+  }
+
+  private static boolean isImplementationImport(UnitImportNameDeclaration unitImport) {
+    return unitImport instanceof UnitImportNameDeclarationImpl
+        && ((UnitImportNameDeclarationImpl) unitImport).isImplementationImport();
+  }
+}
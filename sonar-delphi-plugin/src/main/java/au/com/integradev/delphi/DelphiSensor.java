@@ -42,7 +42,12 @@ import au.com.integradev.delphi.type.factory.TypeFactoryImpl;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
@@ -51,6 +56,7 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.plugins.communitydelphi.api.FatalAnalysisError;
 import org.sonarsource.analyzer.commons.ProgressReport;
 
 public class DelphiSensor implements Sensor {
@@ -116,13 +122,21 @@ public class DelphiSensor implements Sensor {
             .unitScopeNames(delphiProjectHelper.getUnitScopeNames())
             .unitAliases(delphiProjectHelper.getUnitAliases())
             .standardLibraryPath(delphiProjectHelper.standardLibraryPath())
+            .retainedFileLimit(delphiProjectHelper.getRetainedFileLimit())
+            .threads(delphiProjectHelper.getAnalysisThreads())
             .build();
 
     ProgressReport progressReport =
         new ProgressReport(
             "Report about progress of DelphiSensor analysis", TimeUnit.SECONDS.toMillis(10));
 
-    progressReport.start(sourceFiles.stream().map(Path::toString).collect(Collectors.toList()));
+    List<Path> filesToAnalyze = getFilesToAnalyze(sensorContext, sourceFiles, symbolTable);
+    symbolTable.releaseRetainedFilesExcept(
+        filesToAnalyze.stream()
+            .map(file -> file.toAbsolutePath().toString())
+            .collect(Collectors.toSet()));
+
+    progressReport.start(filesToAnalyze.stream().map(Path::toString).collect(Collectors.toList()));
 
     ExecutorContext executorContext = new ExecutorContext(sensorContext, symbolTable);
     DelphiFileConfig config =
@@ -133,19 +147,31 @@ public class DelphiSensor implements Sensor {
             searchPath,
             delphiProjectHelper.getConditionalDefines());
 
+    int threads = delphiProjectHelper.getAnalysisThreads();
+    Consumer<Path> analyzeFile =
+        sourceFile -> {
+          String absolutePath = sourceFile.toAbsolutePath().toString();
+          try {
+            InputFile inputFile = delphiProjectHelper.getFile(absolutePath);
+            DelphiInputFile delphiFile =
+                createInputFile(inputFile, absolutePath, symbolTable, config);
+            executor.execute(executorContext, delphiFile);
+            synchronized (progressReport) {
+              progressReport.nextFile();
+            }
+          } catch (DelphiFileConstructionException e) {
+            LOG.error("Error while analyzing {}", absolutePath, e);
+          }
+        };
+
     boolean success = false;
 
     try {
-      for (Path sourceFile : sourceFiles) {
-        String absolutePath = sourceFile.toAbsolutePath().toString();
-        try {
-          InputFile inputFile = delphiProjectHelper.getFile(absolutePath);
-          DelphiInputFile delphiFile = DelphiInputFile.from(inputFile, config);
-          executor.execute(executorContext, delphiFile);
-          progressReport.nextFile();
-        } catch (DelphiFileConstructionException e) {
-          LOG.error("Error while analyzing {}", absolutePath, e);
-        }
+      if (threads > 1) {
+        LOG.info("Analyzing with {} threads", threads);
+        analyzeConcurrently(filesToAnalyze, threads, analyzeFile);
+      } else {
+        filesToAnalyze.forEach(analyzeFile);
       }
       success = true;
     } finally {
@@ -153,6 +179,88 @@ public class DelphiSensor implements Sensor {
     }
   }
 
+  private List<Path> getFilesToAnalyze(
+      SensorContext sensorContext, List<Path> sourceFiles, SymbolTable symbolTable) {
+    if (!sensorContext.canSkipUnchangedFiles()) {
+      return sourceFiles;
+    }
+
+    List<Path> result =
+        AffectedFiles.resolve(
+            sourceFiles,
+            file -> {
+              String path = file.toAbsolutePath().toString();
+              return isChanged(path)
+                  || symbolTable.getIncludeFiles(path).stream()
+                      .map(Path::toString)
+                      .anyMatch(this::isChanged);
+            },
+            symbolTable);
+
+    LOG.info(
+        "Skipping {} unchanged files that are unaffected by changes in other files",
+        sourceFiles.size() - result.size());
+
+    return result;
+  }
+
+  /**
+   * Returns whether a file may have changed since the last analysis. Files that aren't indexed,
+   * such as include files with a suffix that isn't analyzed, have no status and are assumed to have
+   * changed.
+   */
+  private boolean isChanged(String path) {
+    InputFile inputFile = delphiProjectHelper.getFile(path);
+    return inputFile == null || inputFile.status() != InputFile.Status.SAME;
+  }
+
+  /**
+   * Analyzes source files on a pool of threads.
+   *
+   * <p>The symbol table is fully built before analysis starts, and is shared by every thread. The
+   * state that's still populated lazily during analysis is safe for concurrent use: the import
+   * lookups of each file scope are held in concurrent maps, generic specializations are created
+   * under a lock, and memoized type comparisons and operator intrinsics are held in thread-safe
+   * caches. Everything else in the symbol table is only read. Results are saved to the sensor
+   * context while holding its lock.
+   */
+  private static void analyzeConcurrently(
+      List<Path> sourceFiles, int threads, Consumer<Path> analyzeFile) {
+    ExecutorService threadPool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Path sourceFile : sourceFiles) {
+        futures.add(threadPool.submit(() -> analyzeFile.accept(sourceFile)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FatalAnalysisError("Analysis was interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new FatalAnalysisError("Analysis failed", cause);
+    } finally {
+      threadPool.shutdownNow();
+    }
+  }
+
+  private static DelphiInputFile createInputFile(
+      InputFile inputFile, String absolutePath, SymbolTable symbolTable, DelphiFileConfig config) {
+    DelphiFile retained = symbolTable.takeRetainedFile(absolutePath);
+    if (retained != null && DelphiInputFile.canReuse(inputFile, config)) {
+      return DelphiInputFile.from(inputFile, retained);
+    }
+    return DelphiInputFile.from(inputFile, config);
+  }
+
   private boolean shouldExecuteOnProject() {
     return delphiProjectHelper.shouldExecuteOnProject();
   }
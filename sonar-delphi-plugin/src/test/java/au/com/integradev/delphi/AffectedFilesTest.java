@@ -0,0 +1,116 @@
+/*
+ * Sonar Delphi Plugin
+ * Copyright (C) 2024 Integrated Application Development
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package au.com.integradev.delphi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import au.com.integradev.delphi.symbol.SymbolTable;
+import au.com.integradev.delphi.symbol.declaration.UnitImportNameDeclarationImpl;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitImportNameDeclaration;
+import org.sonar.plugins.communitydelphi.api.symbol.declaration.UnitNameDeclaration;
+import org.sonar.plugins.communitydelphi.api.symbol.scope.FileScope;
+
+class AffectedFilesTest {
+  private static final Path BASE = Path.of("Base.pas").toAbsolutePath();
+  private static final Path INTERFACE_USER = Path.of("InterfaceUser.pas").toAbsolutePath();
+  private static final Path IMPLEMENTATION_USER =
+      Path.of("ImplementationUser.pas").toAbsolutePath();
+  private static final Path INTERFACE_USER_USER = Path.of("InterfaceUserUser.pas").toAbsolutePath();
+  private static final Path IMPLEMENTATION_USER_USER =
+      Path.of("ImplementationUserUser.pas").toAbsolutePath();
+  private static final Path UNRELATED = Path.of("Unrelated.pas").toAbsolutePath();
+  private static final List<Path> SOURCE_FILES =
+      List.of(
+          BASE,
+          INTERFACE_USER,
+          IMPLEMENTATION_USER,
+          INTERFACE_USER_USER,
+          IMPLEMENTATION_USER_USER,
+          UNRELATED);
+
+  private final SymbolTable symbolTable = mock();
+
+  @BeforeEach
+  void setup() {
+    UnitNameDeclaration base = mockUnit(BASE, Set.of(), Set.of());
+    UnitNameDeclaration interfaceUser = mockUnit(INTERFACE_USER, Set.of(base), Set.of());
+    UnitNameDeclaration implementationUser = mockUnit(IMPLEMENTATION_USER, Set.of(), Set.of(base));
+    mockUnit(INTERFACE_USER_USER, Set.of(), Set.of(interfaceUser));
+    mockUnit(IMPLEMENTATION_USER_USER, Set.of(), Set.of(implementationUser));
+    mockUnit(UNRELATED, Set.of(), Set.of());
+  }
+
+  @Test
+  void testNothingIsAffectedWhenNothingChanged() {
+    assertThat(AffectedFiles.resolve(SOURCE_FILES, file -> false, symbolTable)).isEmpty();
+  }
+
+  @Test
+  void testChangesShouldAffectDirectDependents() {
+    assertThat(AffectedFiles.resolve(SOURCE_FILES, IMPLEMENTATION_USER::equals, symbolTable))
+        .containsExactly(IMPLEMENTATION_USER, IMPLEMENTATION_USER_USER);
+  }
+
+  @Test
+  void testChangesShouldOnlyPropagateThroughInterfaceDependencies() {
+    assertThat(AffectedFiles.resolve(SOURCE_FILES, BASE::equals, symbolTable))
+        .containsExactly(BASE, INTERFACE_USER, IMPLEMENTATION_USER, INTERFACE_USER_USER);
+  }
+
+  @Test
+  void testFilesWithoutUnitsShouldAlwaysBeAffected() {
+    Path unknown = Path.of("Unknown.pas").toAbsolutePath();
+
+    assertThat(AffectedFiles.resolve(List.of(unknown), file -> false, symbolTable))
+        .containsExactly(unknown);
+  }
+
+  private UnitNameDeclaration mockUnit(
+      Path path,
+      Set<UnitNameDeclaration> interfaceImports,
+      Set<UnitNameDeclaration> implementationImports) {
+    Set<UnitImportNameDeclaration> imports = new HashSet<>();
+    interfaceImports.forEach(unit -> imports.add(mockImport(unit, false)));
+    implementationImports.forEach(unit -> imports.add(mockImport(unit, true)));
+
+    FileScope fileScope = mock();
+    when(fileScope.getImportDeclarations()).thenReturn(imports);
+
+    UnitNameDeclaration unit = mock();
+    when(unit.getFileScope()).thenReturn(fileScope);
+    when(symbolTable.getUnitByPath(path.toString())).thenReturn(unit);
+    return unit;
+  }
+
+  private static UnitImportNameDeclaration mockImport(
+      UnitNameDeclaration unit, boolean isImplementationImport) {
+    UnitImportNameDeclarationImpl unitImport = mock();
+    when(unitImport.getOriginalDeclaration()).thenReturn(unit);
+    when(unitImport.isImplementationImport()).thenReturn(isImplementationImport);
+    return unitImport;
+  }
+}
@@ -24,25 +24,58 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import au.com.integradev.delphi.check.MasterCheckRegistrar;
+import au.com.integradev.delphi.checks.CheckList;
 import au.com.integradev.delphi.core.Delphi;
+import au.com.integradev.delphi.executor.DelphiChecksExecutor;
 import au.com.integradev.delphi.executor.DelphiMasterExecutor;
+import au.com.integradev.delphi.executor.DelphiMetricsExecutor;
+import au.com.integradev.delphi.executor.DelphiNoSonarExecutor;
+import au.com.integradev.delphi.executor.DelphiSymbolTableExecutor;
+import au.com.integradev.delphi.file.DelphiFile.DelphiInputFile;
 import au.com.integradev.delphi.msbuild.DelphiProjectHelper;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.SonarProduct;
+import org.sonar.api.SonarRuntime;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputFile.Status;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.measure.Measure;
+import org.sonar.api.issue.NoSonarFilter;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.rule.RuleScope;
+import org.sonar.plugins.communitydelphi.api.ast.ConstDeclarationNode;
+import org.sonar.plugins.communitydelphi.api.check.DelphiCheck;
+import org.sonar.plugins.communitydelphi.api.check.RuleTemplate;
 
 class DelphiSensorTest {
   private final DelphiMasterExecutor executor = mock(DelphiMasterExecutor.class);
@@ -143,4 +176,381 @@ class DelphiSensorTest {
 
     verify(executor, times(1)).execute(any(), any());
   }
+
+  @Test
+  void testExecutorIsCalledWhenAnalyzingConcurrently() {
+    when(delphiProjectHelper.getAnalysisThreads()).thenReturn(2);
+
+    sensor.execute(mock());
+
+    verify(executor, times(1)).execute(any(), any());
+  }
+
+  @Test
+  void testConcurrentAnalysisShouldMatchSingleThreadedAnalysis() throws IOException {
+    List<InputFile> inputFiles = new ArrayList<>();
+    inputFiles.add(addIndexedFile("Shared.pas", SHARED_UNIT));
+    for (int i = 1; i <= 8; ++i) {
+      inputFiles.add(addIndexedFile("Unit" + i + ".pas", dependentUnit(i)));
+    }
+
+    SensorContextTester singleThreaded = analyzeWithThreads(inputFiles, 1);
+    SensorContextTester concurrent = analyzeWithThreads(inputFiles, 4);
+
+    assertThat(describeIssues(concurrent))
+        .isNotEmpty()
+        .containsExactlyInAnyOrderElementsOf(describeIssues(singleThreaded));
+    assertThat(describeMeasures(concurrent, inputFiles))
+        .isNotEmpty()
+        .isEqualTo(describeMeasures(singleThreaded, inputFiles));
+  }
+
+  @Test
+  void testUnchangedFilesAreSkippedWhenAllowed() {
+    InputFile inputFile = delphiProjectHelper.inputFiles().iterator().next();
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+
+    SensorContext context = mock();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    sensor.execute(context);
+
+    verify(executor, never()).execute(any(), any());
+  }
+
+  @Test
+  void testChangedFilesAreAnalyzedWhenUnchangedFilesCanBeSkipped() {
+    InputFile inputFile = delphiProjectHelper.inputFiles().iterator().next();
+    when(inputFile.status()).thenReturn(InputFile.Status.CHANGED);
+
+    SensorContext context = mock();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    sensor.execute(context);
+
+    verify(executor, times(1)).execute(any(), any());
+  }
+
+  @Test
+  void testDependentsOfChangedFilesAreAnalyzedWhenTheirReferencesNoLongerResolve()
+      throws IOException {
+    InputFile base =
+        addSourceFile("Base.pas", "unit Base;\ninterface\nimplementation\nend.", Status.CHANGED);
+    InputFile user =
+        addSourceFile(
+            "User.pas",
+            "unit User;\n"
+                + "interface\n"
+                + "implementation\n"
+                + "uses Base;\n"
+                + "procedure Foo;\n"
+                + "begin\n"
+                + "  RemovedFromBase;\n"
+                + "end;\n"
+                + "end.",
+            Status.SAME);
+    InputFile unrelated =
+        addSourceFile(
+            "Unrelated.pas", "unit Unrelated;\ninterface\nimplementation\nend.", Status.SAME);
+    registerFiles(List.of(base, user, unrelated));
+
+    SensorContext context = mock();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    sensor.execute(context);
+
+    assertThat(analyzedFileNames()).containsExactlyInAnyOrder("Base.pas", "User.pas");
+  }
+
+  @Test
+  void testFilesWithChangedIncludeFilesAreAnalyzedWhenUnchangedFilesCanBeSkipped()
+      throws IOException {
+    Files.writeString(baseDir.resolve("Constants.inc"), "const C = 1;");
+    InputFile changedInclude = mockInputFile(baseDir.resolve("Constants.inc"), Status.CHANGED);
+    InputFile includer =
+        addSourceFile(
+            "Includer.pas",
+            "unit Includer;\ninterface\n{$I Constants.inc}\nimplementation\nend.",
+            Status.SAME);
+    InputFile unrelated =
+        addSourceFile(
+            "Unrelated.pas", "unit Unrelated;\ninterface\nimplementation\nend.", Status.SAME);
+    registerFiles(List.of(includer, unrelated), changedInclude);
+
+    SensorContext context = mock();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    sensor.execute(context);
+
+    assertThat(analyzedFileNames()).containsExactly("Includer.pas");
+  }
+
+  @Test
+  void testFilesWithUnindexedIncludeFilesAreAnalyzedWhenUnchangedFilesCanBeSkipped()
+      throws IOException {
+    Files.writeString(baseDir.resolve("Constants.inc"), "const C = 1;");
+    InputFile includer =
+        addSourceFile(
+            "Includer.pas",
+            "unit Includer;\ninterface\n{$I Constants.inc}\nimplementation\nend.",
+            Status.SAME);
+    registerFiles(List.of(includer));
+
+    SensorContext context = mock();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    sensor.execute(context);
+
+    assertThat(analyzedFileNames()).containsExactly("Includer.pas");
+  }
+
+  @Test
+  void testRetainedFilesAreReused() {
+    when(delphiProjectHelper.getRetainedFileLimit()).thenReturn(1);
+    addConstantAfterSymbolTableIsBuilt();
+
+    sensor.execute(mock());
+
+    assertThat(analyzedFile().getAst().hasDescendantOfType(ConstDeclarationNode.class)).isFalse();
+  }
+
+  @Test
+  void testRetainedFilesAreParsedAgainWhenTheyCannotBeReused() {
+    InputFile inputFile = delphiProjectHelper.inputFiles().iterator().next();
+    when(inputFile.charset()).thenReturn(StandardCharsets.ISO_8859_1);
+    when(delphiProjectHelper.encoding()).thenReturn(StandardCharsets.UTF_8.name());
+    when(delphiProjectHelper.getRetainedFileLimit()).thenReturn(1);
+    addConstantAfterSymbolTableIsBuilt();
+
+    sensor.execute(mock());
+
+    DelphiInputFile delphiFile = analyzedFile();
+    assertThat(delphiFile.getSourceCodeFileEncoding()).isEqualTo("ISO-8859-1");
+    assertThat(delphiFile.getAst().hasDescendantOfType(ConstDeclarationNode.class)).isTrue();
+  }
+
+  private void addConstantAfterSymbolTableIsBuilt() {
+    InputFile inputFile = delphiProjectHelper.inputFiles().iterator().next();
+    when(delphiProjectHelper.getFile(anyString()))
+        .thenAnswer(
+            invocation -> {
+              Files.writeString(
+                  baseDir.resolve("SourceFile.pas"),
+                  "unit SourceFile;\ninterface\nconst C = 1;\nimplementation\nend.");
+              return inputFile;
+            });
+  }
+
+  private DelphiInputFile analyzedFile() {
+    ArgumentCaptor<DelphiInputFile> delphiFile = ArgumentCaptor.forClass(DelphiInputFile.class);
+    verify(executor, times(1)).execute(any(), delphiFile.capture());
+    return delphiFile.getValue();
+  }
+
+  private static final String SHARED_UNIT =
+      "unit Shared;\n"
+          + "interface\n"
+          + "type\n"
+          + "  TBox<T> = class\n"
+          + "  private\n"
+          + "    FValue: T;\n"
+          + "  public\n"
+          + "    function Get: T;\n"
+          + "    procedure Put(Value: T);\n"
+          + "  end;\n"
+          + "  TPoint = record\n"
+          + "    X: Integer;\n"
+          + "    Y: Integer;\n"
+          + "    class operator Add(A, B: TPoint): TPoint;\n"
+          + "  end;\n"
+          + "function Combine(A, B: Integer): Integer; overload;\n"
+          + "function Combine(A, B: Double): Double; overload;\n"
+          + "function Combine(A, B: string): string; overload;\n"
+          + "implementation\n"
+          + "function TBox<T>.Get: T;\n"
+          + "begin\n"
+          + "  Result := FValue;\n"
+          + "end;\n"
+          + "procedure TBox<T>.Put(Value: T);\n"
+          + "begin\n"
+          + "  FValue := Value;\n"
+          + "end;\n"
+          + "class operator TPoint.Add(A, B: TPoint): TPoint;\n"
+          + "begin\n"
+          + "  Result.X := A.X + B.X;\n"
+          + "  Result.Y := A.Y + B.Y;\n"
+          + "end;\n"
+          + "function Combine(A, B: Integer): Integer;\n"
+          + "begin\n"
+          + "  Result := A + B;\n"
+          + "end;\n"
+          + "function Combine(A, B: Double): Double;\n"
+          + "begin\n"
+          + "  Result := A + B;\n"
+          + "end;\n"
+          + "function Combine(A, B: string): string;\n"
+          + "begin\n"
+          + "  Result := A + B;\n"
+          + "end;\n"
+          + "end.";
+
+  private static String dependentUnit(int number) {
+    String previous = number > 1 ? "Unit" + (number - 1) : "";
+    return String.format(
+        "unit Unit%1$d;\n"
+            + "interface\n"
+            + "uses Shared%2$s;\n"
+            + "type\n"
+            + "  TThing%1$d = class\n"
+            + "  public\n"
+            + "    function Compute(Box: TBox<Integer>): Integer;\n"
+            + "    function Describe(Box: TBox<string>): string;\n"
+            + "  end;\n"
+            + "function Value%1$d: Integer;\n"
+            + "implementation\n"
+            + "function TThing%1$d.Compute(Box: TBox<Integer>): Integer;\n"
+            + "var\n"
+            + "  Point: TPoint;\n"
+            + "begin\n"
+            + "  Point.X := Box.Get;\n"
+            + "  Point.Y := %1$d;\n"
+            + "  Point := Point + Point;\n"
+            + "  Result := Combine(Point.X, Point.Y)%3$s;\n"
+            + "end;\n"
+            + "function TThing%1$d.Describe(Box: TBox<string>): string;\n"
+            + "begin\n"
+            + "  Result := Combine(Box.Get, '%1$d');\n"
+            + "end;\n"
+            + "function Value%1$d: Integer;\n"
+            + "begin\n"
+            + "  Result := %1$d * 2;\n"
+            + "end;\n"
+            + "end.",
+        number,
+        previous.isEmpty() ? "" : ", " + previous,
+        previous.isEmpty() ? "" : " + Value" + (number - 1));
+  }
+
+  private InputFile addIndexedFile(String fileName, String source) throws IOException {
+    Path path = baseDir.resolve(fileName);
+    Files.writeString(path, source);
+    return TestInputFileBuilder.create("moduleKey", baseDir.toFile(), path.toFile())
+        .setLanguage(Delphi.KEY)
+        .setType(InputFile.Type.MAIN)
+        .setCharset(StandardCharsets.UTF_8)
+        .initMetadata(source)
+        .build();
+  }
+
+  private SensorContextTester analyzeWithThreads(List<InputFile> inputFiles, int threads) {
+    registerFiles(inputFiles);
+    when(delphiProjectHelper.encoding()).thenReturn(StandardCharsets.UTF_8.name());
+    when(delphiProjectHelper.getAnalysisThreads()).thenReturn(threads);
+
+    MasterCheckRegistrar checkRegistrar = mock();
+    Set<DelphiCheck> checks = createChecks();
+    when(checkRegistrar.getChecks(RuleScope.ALL)).thenReturn(checks);
+    when(checkRegistrar.getScope(any())).thenReturn(RuleScope.ALL);
+    when(checkRegistrar.getRuleKey(any()))
+        .thenAnswer(
+            invocation ->
+                Optional.of(
+                    RuleKey.of(
+                        CheckList.REPOSITORY_KEY,
+                        invocation.getArgument(0).getClass().getSimpleName())));
+
+    SonarRuntime sonarRuntime = mock();
+    when(sonarRuntime.getProduct()).thenReturn(SonarProduct.SONARQUBE);
+
+    FileLinesContextFactory fileLinesContextFactory = mock();
+    when(fileLinesContextFactory.createFor(any())).thenReturn(mock(FileLinesContext.class));
+
+    DelphiMasterExecutor masterExecutor =
+        new DelphiMasterExecutor(
+            new DelphiSymbolTableExecutor(),
+            new DelphiMetricsExecutor(fileLinesContextFactory),
+            new DelphiNoSonarExecutor(mock(NoSonarFilter.class)),
+            new DelphiChecksExecutor(delphiProjectHelper, checkRegistrar, sonarRuntime));
+
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    new DelphiSensor(delphiProjectHelper, masterExecutor).execute(context);
+    return context;
+  }
+
+  private static Set<DelphiCheck> createChecks() {
+    Set<DelphiCheck> checks = new HashSet<>();
+    for (Class<?> checkClass : CheckList.getChecks()) {
+      if (checkClass.isAnnotationPresent(RuleTemplate.class)) {
+        continue;
+      }
+      try {
+        checks.add((DelphiCheck) checkClass.getDeclaredConstructor().newInstance());
+      } catch (ReflectiveOperationException e) {
+        // Checks with injected dependencies can't be created here.
+      }
+    }
+    return checks;
+  }
+
+  private static List<String> describeIssues(SensorContextTester context) {
+    return context.allIssues().stream()
+        .map(
+            issue ->
+                issue.ruleKey()
+                    + " "
+                    + issue.primaryLocation().inputComponent().key()
+                    + ":"
+                    + issue.primaryLocation().textRange().start().line()
+                    + " "
+                    + issue.primaryLocation().message())
+        .collect(Collectors.toList());
+  }
+
+  private static Map<String, Object> describeMeasures(
+      SensorContextTester context, List<InputFile> inputFiles) {
+    Map<String, Object> result = new TreeMap<>();
+    for (InputFile inputFile : inputFiles) {
+      for (Measure<?> measure : context.measures(inputFile.key())) {
+        result.put(inputFile.key() + " " + measure.metric().key(), measure.value());
+      }
+    }
+    return result;
+  }
+
+  private InputFile addSourceFile(String fileName, String source, Status status)
+      throws IOException {
+    Path path = baseDir.resolve(fileName);
+    Files.writeString(path, source);
+    return mockInputFile(path, status);
+  }
+
+  private static InputFile mockInputFile(Path path, Status status) {
+    InputFile inputFile = mock(InputFile.class);
+    when(inputFile.uri()).thenReturn(path.toUri());
+    when(inputFile.status()).thenReturn(status);
+    return inputFile;
+  }
+
+  private void registerFiles(List<InputFile> sourceFiles, InputFile... otherFiles) {
+    List<InputFile> allFiles =
+        Stream.concat(sourceFiles.stream(), Stream.of(otherFiles)).collect(Collectors.toList());
+    when(delphiProjectHelper.inputFiles()).thenReturn(sourceFiles);
+    when(delphiProjectHelper.getFile(anyString()))
+        .thenAnswer(
+            invocation -> {
+              Path path = Path.of((String) invocation.getArgument(0));
+              return allFiles.stream()
+                  .filter(inputFile -> Path.of(inputFile.uri()).equals(path))
+                  .findFirst()
+                  .orElse(null);
+            });
+  }
+
+  private List<String> analyzedFileNames() {
+    ArgumentCaptor<DelphiInputFile> delphiFiles = ArgumentCaptor.forClass(DelphiInputFile.class);
+    verify(executor, atLeastOnce()).execute(any(), delphiFiles.capture());
+    return delphiFiles.getAllValues().stream()
+        .map(delphiFile -> delphiFile.getSourceCodeFile().getName())
+        .collect(Collectors.toList());
+  }
 }